@@ -0,0 +1,133 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.bitacora.BitacoraReservas;
+import com.reservatucancha.reserva_canchas_api.service.ClaveDia;
+import com.reservatucancha.reserva_canchas_api.service.GrillaSlots;
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bitácora de movimientos: costo por movimiento de punta a punta (anillo, hilo escritor y
+ * copia al segmento mapeado) y tiempo de reconstruir la ocupación de todos los días
+ * leyendo la bitácora completa.
+ */
+@BenchmarkMode(Mode.AverageTime)
+public class BitacoraBenchmark {
+
+    private static final int LOTE = 1_000;
+    private static final int MOVIMIENTOS_LECTURA = 100_000;
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+
+    @State(Scope.Benchmark)
+    public static class Escritura {
+        Path directorio;
+        BitacoraReservas bitacora;
+        MovimientoReservaEvent movimiento = movimiento(1);
+
+        // Una bitácora nueva por iteración para no acumular gigas de segmentos
+        @Setup(Level.Iteration)
+        public void abrir() throws IOException {
+            directorio = Files.createTempDirectory("bitacora-bench");
+            bitacora = nueva(directorio, 65_536);
+        }
+
+        @TearDown(Level.Iteration)
+        public void cerrar() throws Exception {
+            bitacora.cerrar();
+            if (bitacora.descartados() > 0) {
+                throw new IllegalStateException("Se descartaron " + bitacora.descartados() + " movimientos");
+            }
+            borrar(directorio);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lectura {
+        Path directorio;
+        BitacoraReservas bitacora;
+
+        @Setup(Level.Trial)
+        public void escribir() throws IOException, InterruptedException {
+            directorio = Files.createTempDirectory("bitacora-bench");
+            bitacora = nueva(directorio, MOVIMIENTOS_LECTURA);
+            for (int i = 1; i <= MOVIMIENTOS_LECTURA; i++) {
+                bitacora.onMovimiento(movimiento(i));
+            }
+            while (bitacora.ultimaSecuencia() < MOVIMIENTOS_LECTURA) {
+                Thread.sleep(1);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws Exception {
+            bitacora.cerrar();
+            borrar(directorio);
+        }
+    }
+
+    // Cada invocación deja LOTE movimientos y espera a que estén escritos en el segmento
+    // (cede el núcleo mientras espera: con pocos núcleos el escritor lo necesita)
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(LOTE)
+    public long registrarYEscribir(Escritura estado) {
+        long objetivo = estado.bitacora.ultimaSecuencia() + LOTE;
+        for (int i = 0; i < LOTE; i++) {
+            estado.bitacora.onMovimiento(estado.movimiento);
+        }
+        while (estado.bitacora.ultimaSecuencia() < objetivo) {
+            Thread.yield();
+        }
+        return objetivo;
+    }
+
+    // Rearma las máscaras de ocupación por cancha y día aplicando los movimientos en orden
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<ClaveDia, Long> reconstruirOcupacion(Lectura estado) {
+        Map<ClaveDia, Long> ocupacion = new HashMap<>();
+        estado.bitacora.reproducir(1, evento -> {
+            if (evento.tipo() != MovimientoReservaEvent.Tipo.CREADA) {
+                LocalDate fecha = evento.tipo() == MovimientoReservaEvent.Tipo.MODIFICADA ? evento.fechaAnterior() : evento.fecha();
+                LocalTime hora = evento.tipo() == MovimientoReservaEvent.Tipo.MODIFICADA ? evento.horaAnterior() : evento.horaInicio();
+                Long cancha = evento.tipo() == MovimientoReservaEvent.Tipo.MODIFICADA ? evento.canchaAnterior() : evento.canchaId();
+                ocupacion.merge(new ClaveDia(cancha, fecha), ~GrillaSlots.POR_DEFECTO.bit(hora), (a, b) -> a & b);
+            }
+            if (evento.tipo() != MovimientoReservaEvent.Tipo.ELIMINADA) {
+                ocupacion.merge(new ClaveDia(evento.canchaId(), evento.fecha()), GrillaSlots.POR_DEFECTO.bit(evento.horaInicio()),
+                        (a, b) -> a | b);
+            }
+        });
+        return ocupacion;
+    }
+
+    private static BitacoraReservas nueva(Path directorio, int cola) {
+        return new BitacoraReservas(true, directorio, DataSize.ofMegabytes(64), cola, Duration.ofSeconds(1));
+    }
+
+    // 20 canchas, 90 días y 12 horas; uno de cada diez es una baja
+    private static MovimientoReservaEvent movimiento(int i) {
+        MovimientoReservaEvent.Tipo tipo = i % 10 == 0 ? MovimientoReservaEvent.Tipo.ELIMINADA : MovimientoReservaEvent.Tipo.CREADA;
+        return new MovimientoReservaEvent(tipo, (long) i, 1L + i % 500, 1L + i % 20, INICIO.plusDays(i / 20 % 90),
+                LocalTime.of(8 + i / 1800 % 12, 0), null, null, null);
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+}
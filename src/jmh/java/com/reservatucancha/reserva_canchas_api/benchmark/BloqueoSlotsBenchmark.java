@@ -0,0 +1,59 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.service.BloqueoSlots;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Throughput de reservas concurrentes sobre canchas y días al azar con locks por
+ * (cancha, fecha) frente a un único lock global. Ejecutar variando los hilos para
+ * ver el escalado con los núcleos, por ejemplo:
+ * -Djmh.include=BloqueoSlotsBenchmark -Djmh.args="-f 1 -t 1" y luego -t 2, 4, 8...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(Threads.MAX)
+public class BloqueoSlotsBenchmark {
+
+    private static final int CANCHAS = 20;
+    private static final int DIAS = 30;
+    private static final LocalDate HOY = LocalDate.of(2025, 12, 20);
+
+    // Trabajo simulado dentro de la sección crítica (validación + escritura)
+    @Param({ "500" })
+    public int tokensSeccionCritica;
+
+    private final BloqueoSlots bloqueoSlots = new BloqueoSlots();
+    private final ReentrantLock lockGlobal = new ReentrantLock();
+
+    @Benchmark
+    public Object lockPorDia() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long canchaId = 1 + random.nextInt(CANCHAS);
+        LocalDate fecha = HOY.plusDays(random.nextInt(DIAS));
+        return bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+            Blackhole.consumeCPU(tokensSeccionCritica);
+            return fecha;
+        });
+    }
+
+    @Benchmark
+    public Object lockGlobal() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long canchaId = 1 + random.nextInt(CANCHAS);
+        LocalDate fecha = HOY.plusDays(random.nextInt(DIAS));
+        lockGlobal.lock();
+        try {
+            Blackhole.consumeCPU(tokensSeccionCritica);
+            return canchaId + fecha.toEpochDay();
+        } finally {
+            lockGlobal.unlock();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado;
+import com.reservatucancha.reserva_canchas_api.repository.ReservaRepository;
+import com.reservatucancha.reserva_canchas_api.service.BloqueoSlots;
+import com.reservatucancha.reserva_canchas_api.service.CanchaService;
+import com.reservatucancha.reserva_canchas_api.service.DisponibilidadIndex;
+import com.reservatucancha.reserva_canchas_api.service.ReservaService;
+import com.reservatucancha.reserva_canchas_api.service.RetencionSlots;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la consulta de slots disponibles recorriendo toda la tabla (findAll + filtro,
+ * como se hacía antes) con el índice de disponibilidad en memoria, y mide la matriz
+ * de disponibilidad de 20 canchas x 30 días con el índice ya cargado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisponibilidadBenchmark {
+
+    private static final int CANCHAS = 50;
+    private static final int DIAS = 365;
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+
+    @Param({ "10000", "100000", "1000000" })
+    public int reservas;
+
+    private List<Reserva> tabla;
+    private ReservaService reservaService;
+    private Long canchaId;
+    private LocalDate fecha;
+    private Set<Long> canchasMatriz;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        Cancha[] canchas = new Cancha[CANCHAS];
+        for (int i = 0; i < CANCHAS; i++) {
+            canchas[i] = new Cancha((long) i + 1, "Cancha " + i, "Fútbol 5", 25000.0, null, null, null, null, null, null);
+        }
+        tabla = new ArrayList<>(reservas);
+        for (int i = 0; i < reservas; i++) {
+            LocalTime inicio = LocalTime.of(8 + random.nextInt(12), 0);
+            Reserva reserva = new Reserva();
+            reserva.setId((long) i + 1);
+            reserva.setFechaReserva(INICIO.plusDays(random.nextInt(DIAS)));
+            reserva.setHoraInicio(inicio);
+            reserva.setHoraFin(inicio.plusHours(1));
+            reserva.setCancha(canchas[random.nextInt(CANCHAS)]);
+            tabla.add(reserva);
+        }
+
+        ReservaRepository repositorio = repositorioEnMemoria(tabla);
+        BloqueoSlots bloqueoSlots = new BloqueoSlots();
+        CanchaService canchaService = new CanchaService(catalogoEnMemoria(List.of(canchas)), evento -> { });
+        DisponibilidadIndex disponibilidadIndex = new DisponibilidadIndex(repositorio, bloqueoSlots, canchaService, 100_000,
+                Duration.ofHours(1), 365);
+        RetencionSlots retencionSlots = new RetencionSlots(bloqueoSlots, disponibilidadIndex, evento -> { }, 1000, 4,
+                Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofSeconds(1), 1024);
+        reservaService = new ReservaService(repositorio, canchaService, null, disponibilidadIndex, bloqueoSlots, null, null,
+                retencionSlots, new SimpleMeterRegistry());
+        canchaId = 7L;
+        fecha = INICIO.plusDays(100);
+        reservaService.getSlotsDisponibles(canchaId, fecha);
+
+        canchasMatriz = new LinkedHashSet<>();
+        for (long id = 1; id <= 20; id++) {
+            canchasMatriz.add(id);
+            for (int dia = 0; dia < 30; dia++) {
+                reservaService.getSlotsDisponibles(id, fecha.plusDays(dia));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> scanCompleto() {
+        List<LocalTime> todosLosSlots = Arrays.asList(
+            LocalTime.of(8, 0), LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(11, 0),
+            LocalTime.of(12, 0), LocalTime.of(13, 0), LocalTime.of(14, 0), LocalTime.of(15, 0),
+            LocalTime.of(16, 0), LocalTime.of(17, 0), LocalTime.of(18, 0), LocalTime.of(19, 0)
+        );
+        List<Reserva> reservasExistentes = tabla.stream()
+            .filter(r -> r.getCancha().getId().equals(canchaId) && r.getFechaReserva().equals(fecha))
+            .toList();
+        List<String> slotsDisponibles = new ArrayList<>();
+        for (LocalTime slot : todosLosSlots) {
+            boolean ocupado = reservasExistentes.stream().anyMatch(r -> r.getHoraInicio().equals(slot));
+            if (!ocupado) {
+                slotsDisponibles.add(slot + " - " + slot.plusHours(1));
+            }
+        }
+        return slotsDisponibles;
+    }
+
+    @Benchmark
+    public List<String> indiceBitmask() {
+        return reservaService.getSlotsDisponibles(canchaId, fecha);
+    }
+
+    @Benchmark
+    public Map<Long, long[]> matriz20Canchas30Dias() {
+        return reservaService.getMatrizDisponibilidad(fecha, fecha.plusDays(29), canchasMatriz);
+    }
+
+    // Repositorio falso que solo responde la consulta de carga del índice
+    static ReservaRepository repositorioEnMemoria(List<Reserva> tabla) {
+        return (ReservaRepository) Proxy.newProxyInstance(ReservaRepository.class.getClassLoader(),
+                new Class<?>[] { ReservaRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findHorariosByCanchaAndFecha")) {
+                        Long cancha = (Long) args[0];
+                        LocalDate dia = (LocalDate) args[1];
+                        return tabla.stream()
+                                .filter(r -> r.getCancha().getId().equals(cancha) && r.getFechaReserva().equals(dia))
+                                .map(r -> new HorarioOcupado(cancha, dia, r.getHoraInicio(), r.getHoraFin()))
+                                .toList();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Repositorio falso de canchas para armar el catálogo (y sus grillas)
+    static CanchaRepository catalogoEnMemoria(List<Cancha> canchas) {
+        return (CanchaRepository) Proxy.newProxyInstance(CanchaRepository.class.getClassLoader(),
+                new Class<?>[] { CanchaRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll")) {
+                        return canchas;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
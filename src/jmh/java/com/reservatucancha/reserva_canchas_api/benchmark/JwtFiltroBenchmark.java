@@ -0,0 +1,54 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.jwt.JwtTokenProvider;
+import com.reservatucancha.reserva_canchas_api.jwt.TokenVerificado;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.lang.reflect.Field;
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por petición de la verificación del token en el filtro JWT:
+ * antes (parser nuevo y dos parseos por petición) frente a un parseo único con
+ * parser compartido y frente a la caché de tokens verificados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtFiltroBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private Key key;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        tokenProvider = new JwtTokenProvider();
+        Field campo = JwtTokenProvider.class.getDeclaredField("key");
+        campo.setAccessible(true);
+        key = (Key) campo.get(tokenProvider);
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken("ana@correo.com", null));
+        tokenProvider.verificar(token);
+    }
+
+    // Flujo anterior del filtro: validateToken + getUsernameFromJwt, cada uno con su parser
+    @Benchmark
+    public String antesDosParseos() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public TokenVerificado parseoUnico() {
+        return tokenProvider.parsear(token);
+    }
+
+    @Benchmark
+    public Optional<TokenVerificado> verificarConCache() {
+        return tokenProvider.verificar(token);
+    }
+}
@@ -0,0 +1,46 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.jwt.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API pública de JwtTokenProvider: emisión de tokens (firma HS512) y las dos consultas
+ * que hacen los clientes existentes. validateToken y getUsernameFromJwt se miden con el
+ * token ya verificado, que es el caso habitual (ver JwtFiltroBenchmark para el primer parseo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        authentication = new UsernamePasswordAuthenticationToken("ana@correo.com", null);
+        token = tokenProvider.generateToken(authentication);
+        tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromJwt() {
+        return tokenProvider.getUsernameFromJwt(token);
+    }
+}
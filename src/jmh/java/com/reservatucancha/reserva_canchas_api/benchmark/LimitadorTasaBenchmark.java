@@ -0,0 +1,87 @@
+package com.reservatucancha.reserva_canchas_api.benchmark;
+
+import com.reservatucancha.reserva_canchas_api.limite.LimitadorTasa;
+import com.reservatucancha.reserva_canchas_api.limite.LimiteProperties;
+import com.reservatucancha.reserva_canchas_api.limite.LimiteTasaFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobrecosto por petición del límite de peticiones: búsqueda de la regla, consumo de una
+ * ficha (admitida y rechazada) y el filtro completo con un usuario autenticado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimitadorTasaBenchmark {
+
+    private LimitadorTasa limitador;
+    private LimitadorTasa.Regla reglaAmplia;
+    private LimitadorTasa.Regla reglaAgotada;
+    private LimiteTasaFilter filtro;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain cadena = (req, res) -> { };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        limitador = new LimitadorTasa(new LimiteProperties(true, 100_000, Duration.ofMinutes(10), List.of(
+                regla("login", "POST", "/api/auth/login", 20, Duration.ofMinutes(1), LimiteProperties.Clave.IP),
+                regla("auth", "", "/api/auth/**", 60, Duration.ofMinutes(1), LimiteProperties.Clave.IP),
+                // Presupuesto que el benchmark no llega a agotar: siempre se admite
+                regla("slots", "GET", "/api/reservas/slots-disponibles", 1_000_000_000, Duration.ofSeconds(1),
+                        LimiteProperties.Clave.USUARIO),
+                regla("agotada", "GET", "/api/reservas/{id}", 1, Duration.ofHours(1), LimiteProperties.Clave.USUARIO),
+                regla("api", "", "/api/**", 100, Duration.ofSeconds(1), LimiteProperties.Clave.USUARIO))));
+        reglaAmplia = limitador.buscar("GET", "/api/reservas/slots-disponibles");
+        reglaAgotada = limitador.buscar("GET", "/api/reservas/1");
+        limitador.intentar(reglaAgotada, "u:ana@correo.com");
+
+        filtro = new LimiteTasaFilter(limitador, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/reservas/slots-disponibles");
+        response = new MockHttpServletResponse();
+        // Global: el hilo que corre @Setup no es necesariamente el que mide
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "ana@correo.com", null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private static LimiteProperties.Regla regla(String nombre, String metodo, String patron, int capacidad,
+            Duration periodo, LimiteProperties.Clave por) {
+        return new LimiteProperties.Regla(nombre, metodo, patron, capacidad, periodo, por);
+    }
+
+    // Recorre las reglas de auth antes de llegar a la de slots
+    @Benchmark
+    public LimitadorTasa.Regla buscarRegla() {
+        return limitador.buscar("GET", "/api/reservas/slots-disponibles");
+    }
+
+    @Benchmark
+    public long intentarAdmitida() {
+        return limitador.intentar(reglaAmplia, "u:ana@correo.com");
+    }
+
+    @Benchmark
+    public long intentarRechazada() {
+        return limitador.intentar(reglaAgotada, "u:ana@correo.com");
+    }
+
+    @Benchmark
+    public int filtroCompleto() throws ServletException, IOException {
+        filtro.doFilter(request, response, cadena);
+        return response.getStatus();
+    }
+}
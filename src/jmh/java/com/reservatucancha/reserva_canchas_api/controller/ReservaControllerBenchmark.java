@@ -0,0 +1,112 @@
+package com.reservatucancha.reserva_canchas_api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.reservatucancha.reserva_canchas_api.dto.ReservaDto;
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.UsuarioRepository;
+import com.reservatucancha.reserva_canchas_api.service.CanchaService;
+import com.reservatucancha.reserva_canchas_api.service.ReservaService;
+import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión entidad/DTO de ReservaController y serialización JSON de listas de
+ * ReservaDto con un ObjectMapper configurado como el de Spring Boot. Está en el paquete
+ * del controlador porque convertToDto y convertToEntity son de paquete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReservaControllerBenchmark {
+
+    private ReservaController controller;
+    private Reserva reserva;
+    private ReservaDto reservaDto;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Usuario usuario = new Usuario();
+        usuario.setId(3L);
+        usuario.setEmail("ana@correo.com");
+        Cancha cancha = new Cancha(7L, "Cancha 7", "Fútbol 5", 25000.0, null, null, null, null, null, null);
+
+        // Servicios reales sobre repositorios falsos que siempre encuentran la entidad
+        UsuarioService usuarioService = new UsuarioService(repositorio(UsuarioRepository.class, usuario), 100, Duration.ofMinutes(1));
+        CanchaService canchaService = new CanchaService(repositorio(CanchaRepository.class, cancha), evento -> { });
+        ReservaService reservaService = new ReservaService(null, canchaService, usuarioService, null, null, null, null,
+                null, new SimpleMeterRegistry());
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        controller = new ReservaController(reservaService, objectMapper, null, null);
+
+        reserva = new Reserva();
+        reserva.setId(1L);
+        reserva.setFechaReserva(LocalDate.of(2025, 3, 10));
+        reserva.setHoraInicio(LocalTime.of(9, 0));
+        reserva.setHoraFin(LocalTime.of(10, 0));
+        reserva.setUsuario(usuario);
+        reserva.setCancha(cancha);
+        reservaDto = controller.convertToDto(reserva);
+    }
+
+    // Estado aparte para que solo la serialización se repita por cada tamaño de lista
+    @State(Scope.Benchmark)
+    public static class Listas {
+
+        @Param({ "10", "100", "1000" })
+        public int tamanoLista;
+
+        List<ReservaDto> lista;
+        ObjectWriter writer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            lista = new ArrayList<>(tamanoLista);
+            for (int i = 0; i < tamanoLista; i++) {
+                LocalTime inicio = LocalTime.of(8 + i % 12, 0);
+                lista.add(new ReservaDto((long) i + 1, LocalDate.of(2025, 3, 10).plusDays(i / 12), inicio, inicio.plusHours(1), 3L, 7L));
+            }
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ReservaDto.class));
+        }
+    }
+
+    @Benchmark
+    public ReservaDto convertToDto() {
+        return controller.convertToDto(reserva);
+    }
+
+    @Benchmark
+    public Reserva convertToEntity() {
+        return controller.convertToEntity(reservaDto);
+    }
+
+    @Benchmark
+    public byte[] serializarListaReservaDto(Listas listas) throws Exception {
+        return listas.writer.writeValueAsBytes(listas.lista);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R repositorio(Class<R> tipo, Object entidad) {
+        return (R) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, method, args) -> {
+            if (method.getName().equals("findById")) {
+                return Optional.of(entidad);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por retención de la rueda temporal: programar y cancelar (una retención que se
+ * confirma), y vencer un millón de temporizadores repartidos en cinco minutos de ticks.
+ * En los dos casos el costo por temporizador no depende de cuántos hay pendientes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RuedaTemporalBenchmark {
+
+    private static final long TICK = TimeUnit.SECONDS.toNanos(1);
+    private static final int VENCIMIENTOS = 1_000_000;
+    private static final Runnable NADA = () -> { };
+
+    @Param({ "0", "1000000" })
+    public int pendientes;
+
+    private RuedaTemporal rueda;
+    private long ahora;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        rueda = new RuedaTemporal(TICK, 1024, 0);
+        // Temporizadores lejanos que solo ocupan ranuras, para ver que no cambian el costo
+        for (int i = 0; i < pendientes; i++) {
+            rueda.programar(TimeUnit.HOURS.toNanos(2) + i, NADA);
+        }
+        rueda.avanzar(0);
+    }
+
+    @Benchmark
+    public boolean programarYCancelar() {
+        ahora += 1_000;
+        RuedaTemporal.Temporizador temporizador = rueda.programar(ahora + TimeUnit.MINUTES.toNanos(5), NADA);
+        boolean cancelado = temporizador.cancelar();
+        // Cada tanto se procesan las colas, como lo haría el @Scheduled
+        if ((ahora & 0xFFFFF) < 1_000) {
+            rueda.avanzar(ahora);
+        }
+        return cancelado;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VENCIMIENTOS)
+    public int vencerUnMillon() {
+        RuedaTemporal vencimientos = new RuedaTemporal(TICK, 1024, 0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < VENCIMIENTOS; i++) {
+            vencimientos.programar(random.nextLong(TimeUnit.MINUTES.toNanos(5)), NADA);
+        }
+        return vencimientos.avanzar(TimeUnit.MINUTES.toNanos(6));
+    }
+}
@@ -0,0 +1,80 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de horarios que hace ReservaService antes de cada alta o modificación:
+ * el caso válido con la grilla por defecto y con una de 30 minutos, y el rechazo (que
+ * incluye el costo de crear la excepción). Está en el paquete del servicio porque
+ * validarHorarios es de paquete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidarHorariosBenchmark {
+
+    private ReservaService reservaService;
+    private Reserva valida;
+    private Reserva validaMediaHora;
+    private Reserva invalida;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Cancha porDefecto = new Cancha(1L, "Cancha 1", "Fútbol 5", 25000.0, null, null, null, null, null, null);
+        Cancha mediaHora = new Cancha(2L, "Cancha 2", "Fútbol 5", 25000.0, null, null, LocalTime.of(6, 0),
+                LocalTime.of(23, 0), 30, "SUNDAY");
+        CanchaRepository canchas = (CanchaRepository) Proxy.newProxyInstance(CanchaRepository.class.getClassLoader(),
+                new Class<?>[] { CanchaRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll")) {
+                        return List.of(porDefecto, mediaHora);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        CanchaService canchaService = new CanchaService(canchas, evento -> { });
+        reservaService = new ReservaService(null, canchaService, null, null, null, null, null, null, new SimpleMeterRegistry());
+        valida = reserva(porDefecto, LocalTime.of(18, 0), LocalTime.of(19, 0));
+        validaMediaHora = reserva(mediaHora, LocalTime.of(22, 30), LocalTime.of(23, 0));
+        invalida = reserva(porDefecto, LocalTime.of(19, 0), LocalTime.of(21, 0));
+    }
+
+    @Benchmark
+    public Reserva valida() {
+        reservaService.validarHorarios(valida);
+        return valida;
+    }
+
+    @Benchmark
+    public Reserva validaMediaHora() {
+        reservaService.validarHorarios(validaMediaHora);
+        return validaMediaHora;
+    }
+
+    @Benchmark
+    public String invalida() {
+        try {
+            reservaService.validarHorarios(invalida);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static Reserva reserva(Cancha cancha, LocalTime inicio, LocalTime fin) {
+        Reserva reserva = new Reserva();
+        reserva.setCancha(cancha);
+        reserva.setFechaReserva(LocalDate.of(2025, 3, 10));
+        reserva.setHoraInicio(inicio);
+        reserva.setHoraFin(fin);
+        return reserva;
+    }
+}
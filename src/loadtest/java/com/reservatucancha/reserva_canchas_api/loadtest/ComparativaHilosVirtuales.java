@@ -0,0 +1,264 @@
+package com.reservatucancha.reserva_canchas_api.loadtest;
+
+import com.reservatucancha.reserva_canchas_api.ReservaCanchasApiApplication;
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.ReservaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.UsuarioRepository;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara el servidor con hilos de plataforma (pool de Tomcat) y con hilos virtuales
+ * (perfil "virtual") bajo carga cerrada de 200, 2.000 y 20.000 clientes concurrentes.
+ *
+ * Cada modo arranca la aplicación completa en un puerto aleatorio (perfil "loadtest",
+ * H2 en memoria salvo que se indique otra base), siembra canchas y reservas, obtiene un
+ * token por /api/auth/login y lanza N clientes que alternan GET /api/reservas/{id} y
+ * GET /api/canchas: ambos pasan por el filtro JWT y consultan la base de datos.
+ *
+ * Uso: mvn -Ploadtest -DskipTests verify -Dloadtest.main=com.reservatucancha.reserva_canchas_api.loadtest.ComparativaHilosVirtuales
+ *          -Dloadtest.args="--clientes=200,2000,20000 --duracion=10 --calentamiento=3"
+ * Opciones: --clientes, --duracion, --calentamiento (segundos), --modos (plataforma,virtual),
+ * --datasource-url, --datasource-user, --datasource-password.
+ * Con 20.000 clientes el proceso necesita unos 45.000 descriptores (cliente y servidor
+ * comparten JVM): subir ulimit -n antes de ejecutar.
+ */
+public class ComparativaHilosVirtuales {
+
+    private static final int CANCHAS = 50;
+    private static final int DIAS = 20;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        List<Integer> niveles = new ArrayList<>();
+        for (String valor : opciones.getOrDefault("clientes", "200,2000,20000").split(",")) {
+            niveles.add(Integer.parseInt(valor.trim()));
+        }
+        int duracion = Integer.parseInt(opciones.getOrDefault("duracion", "10"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "3"));
+        String[] modos = opciones.getOrDefault("modos", "plataforma,virtual").split(",");
+
+        avisarDescriptores(niveles);
+
+        List<String> filas = new ArrayList<>();
+        for (String modo : modos) {
+            boolean virtual = modo.trim().equals("virtual");
+            try (ConfigurableApplicationContext contexto = arrancar(virtual, opciones)) {
+                int puerto = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                String base = "http://localhost:" + puerto;
+                List<Long> reservaIds = sembrar(contexto);
+                String token = obtenerToken(base);
+
+                for (int clientes : niveles) {
+                    Latencias resultado = medir(base, token, reservaIds, clientes, calentamiento, duracion);
+                    String fila = String.format("%-10s %9d %12.1f %9.2f %9.2f %9d",
+                            modo.trim(), clientes, resultado.cantidad() / (double) duracion,
+                            resultado.percentilMs(50), resultado.percentilMs(99), resultado.errores());
+                    System.out.println(fila);
+                    filas.add(fila);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-10s %9s %12s %9s %9s %9s%n", "modo", "clientes", "peticiones/s", "p50 ms", "p99 ms", "errores");
+        filas.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext arrancar(boolean virtual, Map<String, String> opciones) {
+        List<String> propiedades = new ArrayList<>();
+        if (opciones.containsKey("datasource-url")) {
+            propiedades.add("spring.datasource.url=" + opciones.get("datasource-url"));
+            propiedades.add("spring.datasource.driver-class-name=");
+            propiedades.add("spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect");
+            propiedades.add("spring.jpa.hibernate.ddl-auto=update");
+        }
+        if (opciones.containsKey("datasource-user")) {
+            propiedades.add("spring.datasource.username=" + opciones.get("datasource-user"));
+        }
+        if (opciones.containsKey("datasource-password")) {
+            propiedades.add("spring.datasource.password=" + opciones.get("datasource-password"));
+        }
+        return new SpringApplicationBuilder(ReservaCanchasApiApplication.class)
+                .profiles(virtual ? new String[] {"loadtest", "virtual"} : new String[] {"loadtest"})
+                .properties(propiedades.toArray(String[]::new))
+                .run();
+    }
+
+    // Canchas, un usuario y DIAS días completos de reservas en fechas lejanas para no chocar con datos reales
+    private static List<Long> sembrar(ConfigurableApplicationContext contexto) {
+        CanchaRepository canchaRepository = contexto.getBean(CanchaRepository.class);
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        ReservaRepository reservaRepository = contexto.getBean(ReservaRepository.class);
+
+        List<Cancha> canchas = new ArrayList<>();
+        for (int i = 0; i < CANCHAS; i++) {
+            canchas.add(new Cancha(null, "Cancha carga " + i, "Fútbol 5", 25000.0, null, "Sector " + i, null, null, null, null));
+        }
+        canchas = canchaRepository.saveAll(canchas);
+
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Carga");
+        usuario.setApellido("Sembrado");
+        usuario.setEmail("sembrado-" + System.nanoTime() + "@carga.local");
+        usuario.setPassword("-");
+        usuario = usuarioRepository.save(usuario);
+
+        LocalDate inicio = LocalDate.of(2100, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+        List<Long> ids = new ArrayList<>();
+        List<Reserva> bloque = new ArrayList<>();
+        for (int dia = 0; dia < DIAS; dia++) {
+            for (Cancha cancha : canchas) {
+                for (int hora = 8; hora < 20; hora++) {
+                    Reserva reserva = new Reserva();
+                    reserva.setCancha(cancha);
+                    reserva.setUsuario(usuario);
+                    reserva.setFechaReserva(inicio.plusDays(dia));
+                    reserva.setHoraInicio(LocalTime.of(hora, 0));
+                    reserva.setHoraFin(LocalTime.of(hora + 1, 0));
+                    bloque.add(reserva);
+                    if (bloque.size() == 1000) {
+                        reservaRepository.saveAll(bloque).forEach(r -> ids.add(r.getId()));
+                        bloque.clear();
+                    }
+                }
+            }
+        }
+        reservaRepository.saveAll(bloque).forEach(r -> ids.add(r.getId()));
+        return ids;
+    }
+
+    private static String obtenerToken(String base) throws IOException, InterruptedException {
+        String email = "carga-" + System.nanoTime() + "@carga.local";
+        String registro = "{\"nombre\":\"Carga\",\"apellido\":\"Prueba\",\"email\":\"" + email
+                + "\",\"password\":\"carga123\",\"identificacion\":\"" + System.nanoTime() + "\",\"telefono\":\"0\"}";
+        String login = "{\"email\":\"" + email + "\",\"password\":\"carga123\"}";
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            http.send(post(base + "/api/auth/register", registro), HttpResponse.BodyHandlers.discarding());
+            HttpResponse<String> respuesta = http.send(post(base + "/api/auth/login", login), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = TOKEN.matcher(respuesta.body());
+            if (respuesta.statusCode() != 200 || !matcher.find()) {
+                throw new IllegalStateException("Login fallido: " + respuesta.statusCode() + " " + respuesta.body());
+            }
+            return matcher.group(1);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * Carga cerrada: cada cliente (un hilo virtual del lado del generador, en ambos modos)
+     * envía una petición, espera la respuesta y envía la siguiente. Solo se registran las
+     * respuestas recibidas después del calentamiento.
+     */
+    private static Latencias medir(String base, String token, List<Long> reservaIds, int clientes,
+            int calentamiento, int duracion) throws InterruptedException {
+        HttpRequest listado = HttpRequest.newBuilder(URI.create(base + "/api/canchas?limit=20"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        Estado estado = new Estado();
+        List<Latencias> porCliente = new ArrayList<>(clientes);
+        List<Thread> hilos = new ArrayList<>(clientes);
+
+        try (HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build()) {
+            for (int i = 0; i < clientes; i++) {
+                Latencias latencias = new Latencias();
+                porCliente.add(latencias);
+                hilos.add(Thread.ofVirtual().start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!estado.fin) {
+                        HttpRequest peticion = random.nextBoolean() ? listado
+                                : HttpRequest.newBuilder(URI.create(base + "/api/reservas/" + reservaIds.get(random.nextInt(reservaIds.size()))))
+                                        .header("Authorization", "Bearer " + token)
+                                        .timeout(Duration.ofSeconds(30))
+                                        .build();
+                        long inicio = System.nanoTime();
+                        boolean correcta;
+                        try {
+                            correcta = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            correcta = false;
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        if (estado.midiendo && !estado.fin) {
+                            if (correcta) {
+                                latencias.registrar(System.nanoTime() - inicio);
+                            } else {
+                                latencias.error();
+                            }
+                        }
+                    }
+                }));
+            }
+
+            Thread.sleep(calentamiento * 1000L);
+            estado.midiendo = true;
+            Thread.sleep(duracion * 1000L);
+            estado.fin = true;
+            for (Thread hilo : hilos) {
+                hilo.join(Duration.ofSeconds(35));
+            }
+        }
+        return Latencias.combinar(porCliente);
+    }
+
+    private static void avisarDescriptores(List<Integer> niveles) {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean so) {
+            int maximo = niveles.stream().mapToInt(Integer::intValue).max().orElse(0);
+            long necesarios = 2L * maximo + 1000;
+            if (so.getMaxFileDescriptorCount() < necesarios) {
+                System.out.printf("Aviso: ulimit -n es %d y %d clientes necesitan ~%d descriptores; "
+                        + "las conexiones que no se puedan abrir se contarán como errores%n",
+                        so.getMaxFileDescriptorCount(), maximo, necesarios);
+            }
+        }
+    }
+
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return opciones;
+    }
+
+    private static final class Estado {
+        volatile boolean midiendo;
+        volatile boolean fin;
+    }
+}
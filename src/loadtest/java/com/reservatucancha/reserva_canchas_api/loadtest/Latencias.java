@@ -0,0 +1,56 @@
+package com.reservatucancha.reserva_canchas_api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencias (en nanosegundos) registradas por un cliente. Cada cliente tiene la suya,
+ * sin sincronización; al terminar se combinan para calcular percentiles.
+ */
+final class Latencias {
+
+    private long[] valores = new long[256];
+    private int tamano;
+    private long errores;
+
+    void registrar(long nanos) {
+        if (tamano == valores.length) {
+            valores = Arrays.copyOf(valores, tamano * 2);
+        }
+        valores[tamano++] = nanos;
+    }
+
+    void error() {
+        errores++;
+    }
+
+    int cantidad() {
+        return tamano;
+    }
+
+    long errores() {
+        return errores;
+    }
+
+    static Latencias combinar(Iterable<Latencias> todas) {
+        Latencias total = new Latencias();
+        for (Latencias parcial : todas) {
+            if (total.tamano + parcial.tamano > total.valores.length) {
+                total.valores = Arrays.copyOf(total.valores, Math.max(total.valores.length * 2, total.tamano + parcial.tamano));
+            }
+            System.arraycopy(parcial.valores, 0, total.valores, total.tamano, parcial.tamano);
+            total.tamano += parcial.tamano;
+            total.errores += parcial.errores;
+        }
+        Arrays.sort(total.valores, 0, total.tamano);
+        return total;
+    }
+
+    // Requiere que las latencias estén ordenadas (ver combinar)
+    double percentilMs(double percentil) {
+        if (tamano == 0) {
+            return Double.NaN;
+        }
+        int posicion = (int) Math.ceil(percentil / 100.0 * tamano) - 1;
+        return valores[Math.max(0, Math.min(posicion, tamano - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,337 @@
+package com.reservatucancha.reserva_canchas_api.loadtest;
+
+import com.reservatucancha.reserva_canchas_api.ReservaCanchasApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga de punta a punta: arranca la aplicación contra una base H2 en disco
+ * (modo PostgreSQL), la siembra con volúmenes realistas y la recorre con una mezcla de
+ * login, consulta de slots, reservas y listados a través de los controladores y el filtro
+ * JWT reales. Informa por endpoint el throughput y los percentiles p50/p95/p99.
+ *
+ * Uso: mvn -Ploadtest -DskipTests verify -Dloadtest.args="--clientes=200 --duracion=60"
+ * Opciones (valores por defecto entre paréntesis):
+ * --clientes (200), --duracion (60) y --calentamiento (10) en segundos, --pausa-ms (0) entre
+ * peticiones de cada cliente, --mezcla (login:2,slots:50,reservar:8,canchas:20,reservas:20),
+ * --canchas (1000), --usuarios (100000), --reservas (5000000), --datos (target/loadtest-db),
+ * --perfiles (perfiles extra, por ejemplo virtual), --salida (archivo CSV con el resumen).
+ *
+ * La primera ejecución siembra la base (varios minutos con 5M reservas); las siguientes
+ * la reutilizan mientras no se borre el directorio de datos.
+ */
+public class PruebaCargaEndToEnd {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    enum Operacion {
+        LOGIN("login", "POST /api/auth/login"),
+        SLOTS("slots", "GET /api/reservas/slots-disponibles"),
+        RESERVAR("reservar", "POST /api/reservas"),
+        CANCHAS("canchas", "GET /api/canchas"),
+        RESERVAS("reservas", "GET /api/reservas");
+
+        final String clave;
+        final String endpoint;
+
+        Operacion(String clave, String endpoint) {
+            this.clave = clave;
+            this.endpoint = endpoint;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        int clientes = entero(opciones, "clientes", 200);
+        int duracion = entero(opciones, "duracion", 60);
+        int calentamiento = entero(opciones, "calentamiento", 10);
+        int pausaMs = entero(opciones, "pausa-ms", 0);
+        int canchas = entero(opciones, "canchas", 1000);
+        int usuarios = entero(opciones, "usuarios", 100_000);
+        int reservas = entero(opciones, "reservas", 5_000_000);
+        Path datos = Path.of(opciones.getOrDefault("datos", "target/loadtest-db")).toAbsolutePath();
+        Operacion[] mezcla = mezcla(opciones.getOrDefault("mezcla", "login:2,slots:50,reservar:8,canchas:20,reservas:20"));
+
+        List<String> perfiles = new ArrayList<>(List.of("loadtest"));
+        if (opciones.containsKey("perfiles")) {
+            perfiles.addAll(List.of(opciones.get("perfiles").split(",")));
+        }
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(ReservaCanchasApiApplication.class)
+                .profiles(perfiles.toArray(String[]::new))
+                // Como argumentos (no .properties(), que son solo valores por defecto) para que
+                // la base en disco reemplace a la H2 en memoria de application-loadtest.properties
+                .run("--spring.datasource.url=jdbc:h2:file:" + datos.resolve("carga")
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.jpa.hibernate.ddl-auto=update")) {
+            SembradoCarga.Datos sembrados = SembradoCarga.sembrar(contexto, canchas, usuarios, reservas, 42L);
+            String base = "http://localhost:" + contexto.getEnvironment().getRequiredProperty("local.server.port");
+
+            Resultado resultado = ejecutar(base, sembrados, clientes, calentamiento, duracion, pausaMs, mezcla);
+            List<String> resumen = resumen(resultado, duracion);
+            System.out.println();
+            System.out.printf("Clientes: %d, duración: %d s, perfiles: %s%n", clientes, duracion, perfiles);
+            resumen.forEach(System.out::println);
+
+            if (opciones.containsKey("salida")) {
+                Path salida = Path.of(opciones.get("salida"));
+                try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(salida))) {
+                    writer.println("endpoint,peticiones,por_segundo,p50_ms,p95_ms,p99_ms,errores");
+                    for (Operacion operacion : Operacion.values()) {
+                        Latencias latencias = resultado.latencias.get(operacion);
+                        writer.printf("%s,%d,%.1f,%.2f,%.2f,%.2f,%d%n", operacion.endpoint, latencias.cantidad(),
+                                latencias.cantidad() / (double) duracion, latencias.percentilMs(50),
+                                latencias.percentilMs(95), latencias.percentilMs(99), latencias.errores());
+                    }
+                }
+            }
+        }
+    }
+
+    record Resultado(Map<Operacion, Latencias> latencias, Map<Operacion, AtomicLongArray> estados) {
+    }
+
+    private static Resultado ejecutar(String base, SembradoCarga.Datos datos, int clientes, int calentamiento,
+            int duracion, int pausaMs, Operacion[] mezcla) throws InterruptedException {
+        Map<Operacion, AtomicLongArray> estados = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            estados.put(operacion, new AtomicLongArray(600));
+        }
+        List<Map<Operacion, Latencias>> porCliente = new ArrayList<>(clientes);
+        List<Thread> hilos = new ArrayList<>(clientes);
+        Estado estado = new Estado();
+
+        try (HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build()) {
+            for (int i = 0; i < clientes; i++) {
+                Map<Operacion, Latencias> latencias = new EnumMap<>(Operacion.class);
+                for (Operacion operacion : Operacion.values()) {
+                    latencias.put(operacion, new Latencias());
+                }
+                porCliente.add(latencias);
+                int usuario = 1 + (i % datos.usuarios());
+                hilos.add(Thread.ofVirtual().start(() -> {
+                    Cliente cliente = new Cliente(http, base, datos, SembradoCarga.email(usuario));
+                    try {
+                        cliente.iniciarSesion();
+                        while (!estado.fin) {
+                            Operacion operacion = mezcla[ThreadLocalRandom.current().nextInt(mezcla.length)];
+                            long inicio = System.nanoTime();
+                            int codigo = cliente.ejecutar(operacion);
+                            long nanos = System.nanoTime() - inicio;
+                            if (estado.midiendo && !estado.fin) {
+                                estados.get(operacion).incrementAndGet(Math.min(codigo, 599));
+                                if (esperado(operacion, codigo)) {
+                                    latencias.get(operacion).registrar(nanos);
+                                } else {
+                                    latencias.get(operacion).error();
+                                }
+                            }
+                            if (pausaMs > 0) {
+                                Thread.sleep(pausaMs);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (IOException e) {
+                        System.out.println("Cliente " + usuario + " no pudo iniciar sesión: " + e.getMessage());
+                    }
+                }));
+            }
+
+            Thread.sleep(calentamiento * 1000L);
+            estado.midiendo = true;
+            Thread.sleep(duracion * 1000L);
+            estado.fin = true;
+            for (Thread hilo : hilos) {
+                hilo.join(Duration.ofSeconds(35));
+            }
+        }
+
+        Map<Operacion, Latencias> combinadas = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            combinadas.put(operacion, Latencias.combinar(porCliente.stream().map(m -> m.get(operacion)).toList()));
+        }
+        return new Resultado(combinadas, estados);
+    }
+
+    // Un 409 al reservar es un resultado normal del negocio (slot tomado), no un error
+    private static boolean esperado(Operacion operacion, int codigo) {
+        return (codigo >= 200 && codigo < 300) || codigo == 304 || (operacion == Operacion.RESERVAR && codigo == 409);
+    }
+
+    private static List<String> resumen(Resultado resultado, int duracion) {
+        List<String> filas = new ArrayList<>();
+        filas.add(String.format("%-38s %10s %10s %9s %9s %9s %8s  %s", "endpoint", "peticiones", "por seg",
+                "p50 ms", "p95 ms", "p99 ms", "errores", "códigos"));
+        for (Operacion operacion : Operacion.values()) {
+            Latencias latencias = resultado.latencias.get(operacion);
+            filas.add(String.format("%-38s %10d %10.1f %9.2f %9.2f %9.2f %8d  %s", operacion.endpoint,
+                    latencias.cantidad(), latencias.cantidad() / (double) duracion, latencias.percentilMs(50),
+                    latencias.percentilMs(95), latencias.percentilMs(99), latencias.errores(),
+                    codigos(resultado.estados.get(operacion))));
+        }
+        return filas;
+    }
+
+    private static String codigos(AtomicLongArray conteo) {
+        StringBuilder texto = new StringBuilder();
+        for (int codigo = 0; codigo < conteo.length(); codigo++) {
+            if (conteo.get(codigo) > 0) {
+                texto.append(texto.isEmpty() ? "" : " ").append(codigo == 0 ? "E/S" : codigo).append('=').append(conteo.get(codigo));
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Un usuario sembrado con su propio token. Las fechas de slots y reservas caen en los
+     * próximos 30 días, que es lo que consulta la aplicación en la práctica.
+     */
+    private static final class Cliente {
+
+        private final HttpClient http;
+        private final String base;
+        private final SembradoCarga.Datos datos;
+        private final String email;
+        private String token;
+        private long usuarioId;
+
+        Cliente(HttpClient http, String base, SembradoCarga.Datos datos, String email) {
+            this.http = http;
+            this.base = base;
+            this.datos = datos;
+            this.email = email;
+        }
+
+        // Reintenta mientras el pool de BCrypt responda 503 (muchos clientes arrancando a la vez)
+        void iniciarSesion() throws IOException, InterruptedException {
+            for (int intento = 0; intento < 100; intento++) {
+                HttpResponse<String> respuesta = login();
+                if (respuesta.statusCode() == 200) {
+                    Matcher token = TOKEN.matcher(respuesta.body());
+                    Matcher id = ID.matcher(respuesta.body());
+                    if (token.find() && id.find()) {
+                        this.token = token.group(1);
+                        this.usuarioId = Long.parseLong(id.group(1));
+                        return;
+                    }
+                }
+                Thread.sleep(500 + ThreadLocalRandom.current().nextInt(1500));
+            }
+            throw new IOException("login rechazado para " + email);
+        }
+
+        int ejecutar(Operacion operacion) throws InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                return switch (operacion) {
+                    case LOGIN -> login().statusCode();
+                    case SLOTS -> get("/api/reservas/slots-disponibles?canchaId=" + cancha(random) + "&fecha=" + fecha(random));
+                    case RESERVAR -> {
+                        int hora = 8 + random.nextInt(12);
+                        String cuerpo = String.format("{\"fechaReserva\":\"%s\",\"horaInicio\":\"%02d:00\",\"horaFin\":\"%02d:00\","
+                                + "\"usuarioId\":%d,\"canchaId\":%d}", fecha(random), hora, hora + 1, usuarioId, cancha(random));
+                        yield http.send(peticion("/api/reservas").header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    }
+                    case CANCHAS -> get("/api/canchas?limit=50&after=" + random.nextInt(Math.max(1, datos.canchaIds().size() - 50)));
+                    case RESERVAS -> get("/api/reservas?limit=50&after=" + random.nextLong(Math.max(1, datos.maximoReservaId())));
+                };
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        private HttpResponse<String> login() throws IOException, InterruptedException {
+            String cuerpo = "{\"email\":\"" + email + "\",\"password\":\"" + SembradoCarga.PASSWORD + "\"}";
+            return http.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private int get(String ruta) throws IOException, InterruptedException {
+            return http.send(peticion(ruta).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private HttpRequest.Builder peticion(String ruta) {
+            return HttpRequest.newBuilder(URI.create(base + ruta))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token);
+        }
+
+        private long cancha(ThreadLocalRandom random) {
+            return datos.canchaIds().get(random.nextInt(datos.canchaIds().size()));
+        }
+
+        private static LocalDate fecha(ThreadLocalRandom random) {
+            return LocalDate.now().plusDays(1 + random.nextInt(30));
+        }
+    }
+
+    // "login:2,slots:50" -> arreglo con cada operación repetida según su peso
+    private static Operacion[] mezcla(String texto) {
+        List<Operacion> pesos = new ArrayList<>();
+        for (String parte : texto.split(",")) {
+            String[] claveValor = parte.trim().split(":");
+            Operacion operacion = null;
+            for (Operacion candidata : Operacion.values()) {
+                if (candidata.clave.equals(claveValor[0])) {
+                    operacion = candidata;
+                }
+            }
+            if (operacion == null) {
+                throw new IllegalArgumentException("Operación desconocida en --mezcla: " + claveValor[0]);
+            }
+            for (int i = 0; i < Integer.parseInt(claveValor[1]); i++) {
+                pesos.add(operacion);
+            }
+        }
+        return pesos.toArray(Operacion[]::new);
+    }
+
+    private static int entero(Map<String, String> opciones, String clave, int porDefecto) {
+        return opciones.containsKey(clave) ? Integer.parseInt(opciones.get(clave)) : porDefecto;
+    }
+
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return opciones;
+    }
+
+    private static final class Estado {
+        volatile boolean midiendo;
+        volatile boolean fin;
+    }
+}
@@ -0,0 +1,205 @@
+package com.reservatucancha.reserva_canchas_api.loadtest;
+
+import com.reservatucancha.reserva_canchas_api.dto.ResultadoImportacionDto;
+import com.reservatucancha.reserva_canchas_api.service.ImportacionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Siembra la base de la prueba de carga con el mismo camino que usa producción para
+ * cargas masivas (ImportacionService), alimentado con CSV generados al vuelo. Cada fase
+ * se salta si la tabla ya tiene el volumen pedido, así una base en disco se reutiliza
+ * entre ejecuciones.
+ */
+final class SembradoCarga {
+
+    static final String PASSWORD = "carga123";
+    static final int DIAS_PASADOS = 600;
+    static final int DIAS_FUTUROS = 90;
+
+    private SembradoCarga() {
+    }
+
+    record Datos(List<Long> canchaIds, int usuarios, long maximoReservaId) {
+    }
+
+    static String email(int usuario) {
+        return "usuario" + usuario + "@carga.local";
+    }
+
+    static Datos sembrar(ConfigurableApplicationContext contexto, int canchas, int usuarios, int reservas, long semilla)
+            throws IOException {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        ImportacionService importacion = contexto.getBean(ImportacionService.class);
+
+        if (contar(jdbc, "cancha") < canchas) {
+            Iterator<String> lineas = new Generador(canchas, i -> "Cancha " + i + ",Fútbol " + (5 + 2 * (i % 3))
+                    + "," + (20000 + 500 * (i % 20)) + ",,Sector " + (i % 40));
+            fase("canchas", importacion, ImportacionService.Tipo.CANCHAS, lineas);
+        }
+
+        if (contar(jdbc, "usuario") < usuarios) {
+            // Todos comparten la misma contraseña: se cifra una sola vez y se importa ya cifrada
+            String hash = contexto.getBean(PasswordEncoder.class).encode(PASSWORD);
+            Iterator<String> lineas = new Generador(usuarios, i -> "Usuario,Carga " + (i + 1) + "," + email(i + 1)
+                    + "," + hash + ",CARGA-" + (i + 1) + ",3000000000");
+            fase("usuarios", importacion, ImportacionService.Tipo.USUARIOS, lineas);
+        }
+
+        List<Long> canchaIds = jdbc.queryForList("select id from cancha order by id limit ?", Long.class, canchas);
+        if (contar(jdbc, "reserva") < reservas) {
+            fase("reservas", importacion, ImportacionService.Tipo.RESERVAS,
+                    new GeneradorReservas(canchaIds, usuarios, reservas, new Random(semilla)));
+        }
+
+        Long maximo = jdbc.queryForObject("select coalesce(max(id), 0) from reserva", Long.class);
+        return new Datos(canchaIds, usuarios, maximo);
+    }
+
+    private static long contar(JdbcTemplate jdbc, String tabla) {
+        return jdbc.queryForObject("select count(*) from " + tabla, Long.class);
+    }
+
+    private static void fase(String nombre, ImportacionService importacion, ImportacionService.Tipo tipo,
+            Iterator<String> lineas) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacionDto resultado = importacion.importar(tipo, new CsvGenerado("encabezado", lineas));
+        System.out.printf("Sembrado de %s: %d filas en %.1f s (%d con error)%n", nombre, resultado.getFilasImportadas(),
+                (System.nanoTime() - inicio) / 1e9, resultado.getFilasConError());
+    }
+
+    // Reader que arma el CSV línea por línea a medida que ImportacionService lo lee
+    private static final class CsvGenerado extends Reader {
+
+        private final Iterator<String> lineas;
+        private String actual;
+        private int posicion;
+
+        CsvGenerado(String encabezado, Iterator<String> lineas) {
+            this.lineas = lineas;
+            this.actual = encabezado + "\n";
+        }
+
+        @Override
+        public int read(char[] destino, int desde, int cantidad) {
+            int copiados = 0;
+            while (copiados < cantidad) {
+                if (posicion == actual.length()) {
+                    if (!lineas.hasNext()) {
+                        return copiados == 0 ? -1 : copiados;
+                    }
+                    actual = lineas.next() + "\n";
+                    posicion = 0;
+                }
+                int n = Math.min(cantidad - copiados, actual.length() - posicion);
+                actual.getChars(posicion, posicion + n, destino, desde + copiados);
+                posicion += n;
+                copiados += n;
+            }
+            return copiados;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class Generador implements Iterator<String> {
+
+        private final int total;
+        private final IntFunction<String> linea;
+        private int siguiente;
+
+        Generador(int total, IntFunction<String> linea) {
+            this.total = total;
+            this.linea = linea;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente < total;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return linea.apply(siguiente++);
+        }
+    }
+
+    /**
+     * Recorre día por día (desde DIAS_PASADOS atrás hasta DIAS_FUTUROS adelante), cancha por
+     * cancha y slot por slot, ocupando cada uno con la probabilidad necesaria para llegar al
+     * volumen pedido. Nunca repite un slot, así no choca con la restricción única.
+     */
+    private static final class GeneradorReservas implements Iterator<String> {
+
+        private final List<Long> canchaIds;
+        private final int usuarios;
+        private final int total;
+        private final Random random;
+        private final double probabilidad;
+        private final LocalDate primerDia = LocalDate.now().minusDays(DIAS_PASADOS);
+        private final int dias = DIAS_PASADOS + DIAS_FUTUROS;
+        private int dia;
+        private int cancha;
+        private int slot = -1;
+        private int generadas;
+        private String pendiente;
+
+        GeneradorReservas(List<Long> canchaIds, int usuarios, int total, Random random) {
+            this.canchaIds = canchaIds;
+            this.usuarios = usuarios;
+            this.total = total;
+            this.random = random;
+            // Un 2% de margen para completar el volumen antes de terminar el rango de días
+            this.probabilidad = Math.min(1.0, 1.02 * total / ((long) canchaIds.size() * 12 * dias));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pendiente == null && generadas < total && avanzar()) {
+                if (random.nextDouble() < probabilidad) {
+                    int hora = 8 + slot;
+                    pendiente = primerDia.plusDays(dia) + "," + String.format("%02d:00,%02d:00", hora, hora + 1)
+                            + "," + canchaIds.get(cancha) + "," + email(1 + random.nextInt(usuarios));
+                    generadas++;
+                }
+            }
+            return pendiente != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String linea = pendiente;
+            pendiente = null;
+            return linea;
+        }
+
+        private boolean avanzar() {
+            if (++slot == 12) {
+                slot = 0;
+                if (++cancha == canchaIds.size()) {
+                    cancha = 0;
+                    dia++;
+                }
+            }
+            return dia < dias;
+        }
+    }
+}
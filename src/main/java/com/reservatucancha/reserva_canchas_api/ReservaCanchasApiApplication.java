@@ -2,8 +2,10 @@ package com.reservatucancha.reserva_canchas_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ReservaCanchasApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,67 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular acotado de muchos productores y un único consumidor, sin locks.
+ *
+ * Cada productor reserva una posición con CAS sobre el contador de productores y después
+ * publica el elemento en ella; el consumidor avanza mientras encuentre posiciones
+ * publicadas. Si el anillo está lleno ofrecer devuelve false en lugar de esperar.
+ */
+final class AnilloEventos<T> {
+
+    private final AtomicReferenceArray<T> elementos;
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicLong productores = new AtomicLong();
+    // Solo lo escribe el consumidor
+    private volatile long consumidor;
+
+    AnilloEventos(int capacidadMinima) {
+        this.capacidad = Integer.highestOneBit(Math.max(2, capacidadMinima - 1)) << 1;
+        this.mascara = capacidad - 1;
+        this.elementos = new AtomicReferenceArray<>(capacidad);
+    }
+
+    boolean ofrecer(T elemento) {
+        long posicion;
+        do {
+            posicion = productores.get();
+            if (posicion - consumidor >= capacidad) {
+                return false;
+            }
+        } while (!productores.compareAndSet(posicion, posicion + 1));
+        elementos.set((int) posicion & mascara, elemento);
+        return true;
+    }
+
+    /**
+     * Siguiente elemento, o null si no hay ninguno publicado todavía. Solo desde el consumidor.
+     */
+    T sacar() {
+        long posicion = consumidor;
+        int indice = (int) posicion & mascara;
+        T elemento = elementos.get(indice);
+        if (elemento == null) {
+            // Vacío, o el productor que reservó esta posición aún no la publicó
+            return null;
+        }
+        elementos.lazySet(indice, null);
+        consumidor = posicion + 1;
+        return elemento;
+    }
+
+    boolean vacio() {
+        return elementos.get((int) consumidor & mascara) == null;
+    }
+
+    int tamano() {
+        return (int) Math.max(0, productores.get() - consumidor);
+    }
+
+    int capacidad() {
+        return capacidad;
+    }
+}
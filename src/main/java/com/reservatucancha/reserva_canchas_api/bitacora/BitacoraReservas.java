@@ -0,0 +1,295 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Bitácora de altas, cambios y bajas de reservas: archivo de solo agregado, en segmentos
+ * de tamaño fijo mapeados en memoria, fuera de la base de datos.
+ *
+ * Los hilos de las peticiones solo dejan el movimiento en un anillo acotado (AnilloEventos);
+ * un único hilo escritor le asigna la secuencia, lo codifica y lo copia al segmento mapeado,
+ * y cada sincronizar-cada fuerza a disco lo escrito. Nadie espera por E/S: si el anillo se
+ * llena el movimiento se descarta y se cuenta en reservas.bitacora.descartados.
+ *
+ * Al arrancar se recorre el último segmento hasta el primer registro inválido y se sigue
+ * desde ahí, así un registro cortado por una caída se sobreescribe. Los segmentos no se
+ * borran: archivarlos o eliminarlos queda a cargo de la operación.
+ */
+@Component
+public class BitacoraReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(BitacoraReservas.class);
+
+    // Espera máxima del escritor sin movimientos antes de revisar si toca sincronizar
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final boolean habilitada;
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final long sincronizarCadaNanos;
+    private final AnilloEventos<Pendiente> anillo;
+    private final ConcurrentSkipListMap<Long, Path> segmentos = new ConcurrentSkipListMap<>();
+    private final LongAdder descartados = new LongAdder();
+    private final Thread escritor;
+
+    // Última secuencia que los lectores pueden ver completa
+    private volatile long ultimaPublicada;
+    private volatile boolean activa = true;
+    private volatile boolean durmiendo;
+
+    // Estado del escritor: después del constructor solo lo usa su hilo
+    private final ByteBuffer registro = ByteBuffer.allocate(FormatoBitacora.MAXIMO_REGISTRO).order(FormatoBitacora.ORDEN);
+    private final CRC32C crc = new CRC32C();
+    private FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int posicion;
+    private int sincronizadoHasta;
+    private long siguienteSecuencia;
+    private long ultimaSincronizacion = System.nanoTime();
+
+    public BitacoraReservas(@Value("${reservas.bitacora.habilitada:true}") boolean habilitada,
+            @Value("${reservas.bitacora.directorio:./data/bitacora}") Path directorio,
+            @Value("${reservas.bitacora.tamano-segmento:64MB}") DataSize tamanoSegmento,
+            @Value("${reservas.bitacora.cola:65536}") int cola,
+            @Value("${reservas.bitacora.sincronizar-cada:1s}") Duration sincronizarCada) {
+        this.habilitada = habilitada;
+        this.directorio = directorio;
+        this.tamanoSegmento = (int) Math.min(Integer.MAX_VALUE, Math.max(tamanoSegmento.toBytes(), 64 * 1024));
+        this.sincronizarCadaNanos = sincronizarCada.toNanos();
+        this.anillo = new AnilloEventos<>(cola);
+        if (!habilitada) {
+            this.escritor = null;
+            return;
+        }
+        try {
+            recuperar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir la bitácora en " + directorio, e);
+        }
+        this.escritor = Thread.ofPlatform().name("bitacora-escritor").daemon().unstarted(this::escribirPendientes);
+        this.escritor.start();
+    }
+
+    /**
+     * Toma el movimiento en el hilo de la petición, con el usuario autenticado como actor.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovimiento(MovimientoReservaEvent movimiento) {
+        if (!habilitada) {
+            return;
+        }
+        if (!anillo.ofrecer(new Pendiente(System.currentTimeMillis(), actorActual(), movimiento))) {
+            descartados.increment();
+            return;
+        }
+        if (durmiendo) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    /**
+     * Lector desde la secuencia indicada (inclusive) hasta lo último escrito hasta ahora.
+     */
+    public LectorBitacora lector(long desde) {
+        long hasta = ultimaPublicada;
+        return new LectorBitacora(segmentos, Math.max(1, desde), hasta);
+    }
+
+    /**
+     * Lector desde la secuencia indicada (inclusive) que recorre a lo sumo maximo registros,
+     * sin pasar de lo último escrito hasta ahora. Su hasta() es la última secuencia que cubre.
+     */
+    public LectorBitacora lector(long desde, long maximo) {
+        long inicio = Math.max(1, desde);
+        long ultima = ultimaPublicada;
+        long hasta = ultima - inicio < maximo ? ultima : inicio + maximo - 1;
+        return new LectorBitacora(segmentos, inicio, hasta);
+    }
+
+    /**
+     * Entrega en orden los eventos desde la secuencia indicada; devuelve la última entregada
+     * (desde - 1 si no había ninguno), para continuar luego desde la siguiente.
+     */
+    public long reproducir(long desde, Consumer<EventoBitacora> consumidor) {
+        LectorBitacora lector = lector(desde);
+        long ultima = desde - 1;
+        EventoBitacora evento;
+        while ((evento = lector.siguiente()) != null) {
+            consumidor.accept(evento);
+            ultima = evento.secuencia();
+        }
+        return ultima;
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    public long ultimaSecuencia() {
+        return ultimaPublicada;
+    }
+
+    public int pendientes() {
+        return anillo.tamano();
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        activa = false;
+        LockSupport.unpark(escritor);
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static String actorActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion != null ? autenticacion.getName() : null;
+    }
+
+    private void escribirPendientes() {
+        while (true) {
+            Pendiente pendiente = anillo.sacar();
+            if (pendiente != null) {
+                escribir(pendiente);
+                continue;
+            }
+            sincronizar(false);
+            if (!activa && anillo.vacio()) {
+                break;
+            }
+            durmiendo = true;
+            if (anillo.vacio() && activa) {
+                LockSupport.parkNanos(this, ESPERA_NANOS);
+            }
+            durmiendo = false;
+        }
+        sincronizar(true);
+        cerrarSegmento();
+    }
+
+    private void escribir(Pendiente pendiente) {
+        try {
+            int longitud = FormatoBitacora.codificar(registro, crc, siguienteSecuencia, pendiente.instante(),
+                    pendiente.actor(), pendiente.movimiento());
+            // Sin segmento abierto (falló la apertura anterior) o sin lugar: se pasa a uno nuevo
+            if (mapa == null || posicion + longitud > mapa.capacity()) {
+                sincronizar(true);
+                cerrarSegmento();
+                abrirSegmento(siguienteSecuencia);
+            }
+            mapa.put(posicion, registro, 0, longitud);
+            posicion += longitud;
+            ultimaPublicada = siguienteSecuencia++;
+        } catch (IOException | RuntimeException e) {
+            descartados.increment();
+            log.error("No se pudo escribir en la bitácora el movimiento {}", pendiente.movimiento(), e);
+        }
+    }
+
+    private void sincronizar(boolean siempre) {
+        if (mapa == null || posicion == sincronizadoHasta) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        if (siempre || ahora - ultimaSincronizacion >= sincronizarCadaNanos) {
+            mapa.force(sincronizadoHasta, posicion - sincronizadoHasta);
+            sincronizadoHasta = posicion;
+            ultimaSincronizacion = ahora;
+        }
+    }
+
+    private void recuperar() throws IOException {
+        Files.createDirectories(directorio);
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(FormatoBitacora::esSegmento)
+                    .forEach(archivo -> segmentos.put(FormatoBitacora.primeraSecuencia(archivo), archivo));
+        }
+        Map.Entry<Long, Path> ultimo = segmentos.lastEntry();
+        if (ultimo == null) {
+            siguienteSecuencia = 1;
+            abrirSegmento(1);
+            return;
+        }
+
+        canal = FileChannel.open(ultimo.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        mapa.order(FormatoBitacora.ORDEN);
+        FormatoBitacora.verificarCabecera(mapa, ultimo.getValue());
+        posicion = FormatoBitacora.CABECERA;
+        long ultimaSecuencia = ultimo.getKey() - 1;
+        int longitud;
+        while ((longitud = FormatoBitacora.longitudValida(mapa, posicion, crc)) > 0) {
+            ultimaSecuencia = FormatoBitacora.secuencia(mapa, posicion);
+            posicion += longitud;
+        }
+        // Restos de un registro que quedó a medias: se limpian para no confundirlos con datos
+        int limpiarHasta = Math.min(mapa.capacity(), posicion + FormatoBitacora.MAXIMO_REGISTRO);
+        for (int i = posicion; i < limpiarHasta; i++) {
+            mapa.put(i, (byte) 0);
+        }
+        sincronizadoHasta = posicion;
+        siguienteSecuencia = ultimaSecuencia + 1;
+        ultimaPublicada = ultimaSecuencia;
+    }
+
+    private void abrirSegmento(long primeraSecuencia) throws IOException {
+        Path archivo = directorio.resolve(FormatoBitacora.nombreSegmento(primeraSecuencia));
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapear en modo escritura extiende el archivo al tamaño del segmento (relleno con ceros)
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        mapa.order(FormatoBitacora.ORDEN);
+        FormatoBitacora.escribirCabecera(mapa, primeraSecuencia);
+        posicion = FormatoBitacora.CABECERA;
+        sincronizadoHasta = 0;
+        segmentos.put(primeraSecuencia, archivo);
+    }
+
+    private void cerrarSegmento() {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el segmento de la bitácora", e);
+        }
+        canal = null;
+        mapa = null;
+    }
+
+    private record Pendiente(long instante, String actor, MovimientoReservaEvent movimiento) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Registro leído de la bitácora: el movimiento, quién lo hizo y cuándo.
+ */
+@Schema(description = "Movimiento de una reserva registrado en la bitácora")
+public record EventoBitacora(
+        @Schema(description = "Posición en la bitácora; crece de a uno sin huecos", example = "1024") long secuencia,
+        @Schema(description = "Momento en que se confirmó el movimiento") Instant instante,
+        MovimientoReservaEvent.Tipo tipo,
+        @Schema(description = "Usuario autenticado que hizo la operación", example = "ana@correo.com") String actor,
+        Long reservaId,
+        Long usuarioId,
+        Long canchaId,
+        LocalDate fecha,
+        LocalTime horaInicio,
+        @Schema(description = "Solo en MODIFICADA: cancha que ocupaba antes") Long canchaAnterior,
+        @Schema(description = "Solo en MODIFICADA: fecha que ocupaba antes") LocalDate fechaAnterior,
+        @Schema(description = "Solo en MODIFICADA: hora que ocupaba antes") LocalTime horaAnterior) {
+}
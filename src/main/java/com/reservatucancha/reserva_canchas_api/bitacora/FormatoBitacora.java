@@ -0,0 +1,185 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binario de los segmentos de la bitácora (little endian).
+ *
+ * Cabecera del segmento (16 bytes): magia, versión y secuencia del primer registro.
+ * Cada registro: longitud del cuerpo (int), CRC32C del cuerpo (int) y el cuerpo:
+ * secuencia, instante en ms, tipo, reserva, usuario, cancha, fecha (día epoch), hora
+ * (minuto del día), el slot anterior en las modificaciones y el actor en UTF-8.
+ * Un archivo mapeado nace en ceros: una longitud 0 marca el final de lo escrito y un CRC
+ * que no coincide, un registro cortado por una caída del proceso.
+ */
+final class FormatoBitacora {
+
+    static final ByteOrder ORDEN = ByteOrder.LITTLE_ENDIAN;
+    static final int MAGIA = 0x41544942; // "BITA"
+    static final int VERSION = 1;
+    static final int CABECERA = 16;
+    static final int ENCABEZADO_REGISTRO = 8;
+    static final int CUERPO_FIJO = 62;
+    static final int ACTOR_MAXIMO = 255;
+    static final int MAXIMO_REGISTRO = ENCABEZADO_REGISTRO + CUERPO_FIJO + ACTOR_MAXIMO;
+
+    private static final String PREFIJO = "reservas-";
+    private static final String EXTENSION = ".bitacora";
+    private static final MovimientoReservaEvent.Tipo[] TIPOS = MovimientoReservaEvent.Tipo.values();
+
+    // Valores que representan null: los IDs empiezan en 1
+    private static final long SIN_ID = 0L;
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+    private static final short SIN_HORA = -1;
+
+    private FormatoBitacora() {
+    }
+
+    static String nombreSegmento(long primeraSecuencia) {
+        return String.format("%s%020d%s", PREFIJO, primeraSecuencia, EXTENSION);
+    }
+
+    static boolean esSegmento(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+    }
+
+    static long primeraSecuencia(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    static void escribirCabecera(ByteBuffer segmento, long primeraSecuencia) {
+        segmento.putInt(0, MAGIA);
+        segmento.putInt(4, VERSION);
+        segmento.putLong(8, primeraSecuencia);
+    }
+
+    static void verificarCabecera(ByteBuffer segmento, Path archivo) {
+        if (segmento.capacity() < CABECERA || segmento.getInt(0) != MAGIA || segmento.getInt(4) != VERSION) {
+            throw new IllegalStateException("El archivo " + archivo + " no es un segmento de bitácora válido");
+        }
+    }
+
+    /**
+     * Arma el registro completo (encabezado y cuerpo) al comienzo de destino y devuelve su tamaño.
+     */
+    static int codificar(ByteBuffer destino, CRC32C crc, long secuencia, long instante, String actor,
+            MovimientoReservaEvent movimiento) {
+        byte[] actorUtf8 = actorUtf8(actor);
+        int cuerpo = CUERPO_FIJO + actorUtf8.length;
+        destino.clear();
+        destino.position(ENCABEZADO_REGISTRO);
+        destino.putLong(secuencia)
+                .putLong(instante)
+                .put((byte) movimiento.tipo().ordinal())
+                .putLong(id(movimiento.reservaId()))
+                .putLong(id(movimiento.usuarioId()))
+                .putLong(id(movimiento.canchaId()))
+                .putInt(fecha(movimiento.fecha()))
+                .putShort(hora(movimiento.horaInicio()))
+                .putLong(id(movimiento.canchaAnterior()))
+                .putInt(fecha(movimiento.fechaAnterior()))
+                .putShort(hora(movimiento.horaAnterior()))
+                .put((byte) actorUtf8.length)
+                .put(actorUtf8);
+        crc.reset();
+        crc.update(destino.array(), ENCABEZADO_REGISTRO, cuerpo);
+        destino.putInt(0, cuerpo);
+        destino.putInt(4, (int) crc.getValue());
+        return ENCABEZADO_REGISTRO + cuerpo;
+    }
+
+    /**
+     * Tamaño del registro que empieza en posicion, o 0 si ahí no hay un registro completo y
+     * con su CRC correcto (fin de lo escrito en el segmento).
+     */
+    static int longitudValida(ByteBuffer segmento, int posicion, CRC32C crc) {
+        if (posicion + ENCABEZADO_REGISTRO > segmento.capacity()) {
+            return 0;
+        }
+        int cuerpo = segmento.getInt(posicion);
+        if (cuerpo < CUERPO_FIJO || cuerpo > CUERPO_FIJO + ACTOR_MAXIMO
+                || posicion + ENCABEZADO_REGISTRO + cuerpo > segmento.capacity()) {
+            return 0;
+        }
+        crc.reset();
+        crc.update(segmento.slice(posicion + ENCABEZADO_REGISTRO, cuerpo));
+        return (int) crc.getValue() == segmento.getInt(posicion + 4) ? ENCABEZADO_REGISTRO + cuerpo : 0;
+    }
+
+    static long secuencia(ByteBuffer segmento, int posicion) {
+        return segmento.getLong(posicion + ENCABEZADO_REGISTRO);
+    }
+
+    // Se llama solo sobre un registro ya validado con longitudValida
+    static EventoBitacora decodificar(ByteBuffer segmento, int posicion) {
+        int p = posicion + ENCABEZADO_REGISTRO;
+        int largoActor = Byte.toUnsignedInt(segmento.get(p + CUERPO_FIJO - 1));
+        byte[] actor = new byte[largoActor];
+        segmento.get(p + CUERPO_FIJO, actor);
+        return new EventoBitacora(
+                segmento.getLong(p),
+                Instant.ofEpochMilli(segmento.getLong(p + 8)),
+                TIPOS[segmento.get(p + 16)],
+                largoActor == 0 ? null : new String(actor, StandardCharsets.UTF_8),
+                id(segmento.getLong(p + 17)),
+                id(segmento.getLong(p + 25)),
+                id(segmento.getLong(p + 33)),
+                fecha(segmento.getInt(p + 41)),
+                hora(segmento.getShort(p + 45)),
+                id(segmento.getLong(p + 47)),
+                fecha(segmento.getInt(p + 55)),
+                hora(segmento.getShort(p + 59)));
+    }
+
+    // Recorta a ACTOR_MAXIMO bytes sin dejar un carácter multibyte a medias
+    private static byte[] actorUtf8(String actor) {
+        if (actor == null) {
+            return new byte[0];
+        }
+        byte[] bytes = actor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= ACTOR_MAXIMO) {
+            return bytes;
+        }
+        int largo = ACTOR_MAXIMO;
+        while (largo > 0 && (bytes[largo] & 0xC0) == 0x80) {
+            largo--;
+        }
+        return Arrays.copyOf(bytes, largo);
+    }
+
+    private static long id(Long id) {
+        return id == null ? SIN_ID : id;
+    }
+
+    private static Long id(long id) {
+        return id == SIN_ID ? null : id;
+    }
+
+    private static int fecha(LocalDate fecha) {
+        return fecha == null ? SIN_FECHA : (int) fecha.toEpochDay();
+    }
+
+    private static LocalDate fecha(int dia) {
+        return dia == SIN_FECHA ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    private static short hora(LocalTime hora) {
+        return hora == null ? SIN_HORA : (short) (hora.getHour() * 60 + hora.getMinute());
+    }
+
+    private static LocalTime hora(short minutos) {
+        return minutos == SIN_HORA ? null : LocalTime.of(minutos / 60, minutos % 60);
+    }
+}
@@ -0,0 +1,97 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Recorre la bitácora en orden de secuencia, mapeando cada segmento en solo lectura.
+ *
+ * Lee hasta la última secuencia publicada al momento de crearlo: lo que se escriba
+ * después se obtiene con otro lector que empiece en la secuencia siguiente. No es
+ * seguro compartirlo entre hilos.
+ */
+public final class LectorBitacora {
+
+    private final NavigableMap<Long, Path> segmentos;
+    private final long desde;
+    private final long hasta;
+    private final CRC32C crc = new CRC32C();
+
+    private Long segmentoActual;
+    private MappedByteBuffer mapa;
+    private int posicion;
+    private boolean terminado;
+
+    LectorBitacora(NavigableMap<Long, Path> segmentos, long desde, long hasta) {
+        this.segmentos = segmentos;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.terminado = desde > hasta || segmentos.isEmpty();
+    }
+
+    /**
+     * Siguiente evento con secuencia mayor o igual a desde, o null al llegar al final.
+     */
+    public EventoBitacora siguiente() {
+        while (!terminado) {
+            if (mapa == null && !abrirSiguienteSegmento()) {
+                terminado = true;
+                break;
+            }
+            int longitud = FormatoBitacora.longitudValida(mapa, posicion, crc);
+            if (longitud == 0) {
+                // Fin de lo escrito en este segmento
+                mapa = null;
+                continue;
+            }
+            long secuencia = FormatoBitacora.secuencia(mapa, posicion);
+            if (secuencia > hasta) {
+                terminado = true;
+                break;
+            }
+            int inicio = posicion;
+            posicion += longitud;
+            if (secuencia >= desde) {
+                return FormatoBitacora.decodificar(mapa, inicio);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Última secuencia que este lector puede devolver.
+     */
+    public long hasta() {
+        return hasta;
+    }
+
+    private boolean abrirSiguienteSegmento() {
+        // El primer segmento es el último que empieza antes de desde; después, en orden
+        Map.Entry<Long, Path> entrada = segmentoActual == null
+                ? segmentos.floorEntry(desde)
+                : segmentos.higherEntry(segmentoActual);
+        if (entrada == null && segmentoActual == null) {
+            entrada = segmentos.firstEntry();
+        }
+        if (entrada == null || entrada.getKey() > hasta) {
+            return false;
+        }
+        segmentoActual = entrada.getKey();
+        try (FileChannel canal = FileChannel.open(entrada.getValue(), StandardOpenOption.READ)) {
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + entrada.getValue(), e);
+        }
+        mapa.order(FormatoBitacora.ORDEN);
+        FormatoBitacora.verificarCabecera(mapa, entrada.getValue());
+        posicion = FormatoBitacora.CABECERA;
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package com.reservatucancha.reserva_canchas_api.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.reservatucancha.reserva_canchas_api.bitacora.BitacoraReservas;
+import com.reservatucancha.reserva_canchas_api.jwt.JwtTokenProvider;
+import com.reservatucancha.reserva_canchas_api.limite.LimitadorTasa;
+import com.reservatucancha.reserva_canchas_api.service.DisponibilidadBroadcaster;
+import com.reservatucancha.reserva_canchas_api.service.HashingExecutor;
+import com.reservatucancha.reserva_canchas_api.service.IdempotenciaService;
+import com.reservatucancha.reserva_canchas_api.service.RetencionSlots;
+import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Gauges de los recursos propios de la aplicación. El pool de conexiones (hikaricp.*),
+ * la JVM y las peticiones HTTP (http.server.requests) los registra Spring Boot.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MeterBinder metricasHashing(HashingExecutor hashingExecutor) {
+        return registry -> {
+            Gauge.builder("seguridad.hashing.cola", hashingExecutor, HashingExecutor::tareasEnCola)
+                    .description("Cifrados de contraseña esperando un hilo del pool")
+                    .register(registry);
+            Gauge.builder("seguridad.hashing.activas", hashingExecutor, HashingExecutor::tareasActivas)
+                    .description("Cifrados de contraseña en curso")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasCaches(UsuarioService usuarioService, JwtTokenProvider tokenProvider) {
+        return registry -> {
+            registrarCache(registry, "principales", usuarioService,
+                    UsuarioService::estadisticasPrincipales, UsuarioService::principalesEnCache);
+            registrarCache(registry, "tokens", tokenProvider,
+                    JwtTokenProvider::estadisticasVerificados, JwtTokenProvider::verificadosEnCache);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasStream(DisponibilidadBroadcaster broadcaster) {
+        return registry -> Gauge.builder("reservas.stream.suscriptores", broadcaster, DisponibilidadBroadcaster::suscriptoresActivos)
+                .description("Suscripciones SSE abiertas")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder metricasIdempotencia(IdempotenciaService idempotenciaService) {
+        return registry -> Gauge.builder("reservas.idempotencia.claves", idempotenciaService, IdempotenciaService::claves)
+                .description("Idempotency-Key con resultado guardado")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder metricasRetenciones(RetencionSlots retencionSlots) {
+        return registry -> Gauge.builder("reservas.retenciones.activas", retencionSlots, RetencionSlots::activas)
+                .description("Slots retenidos temporalmente durante el pago")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder metricasBitacora(BitacoraReservas bitacora) {
+        return registry -> {
+            Gauge.builder("reservas.bitacora.pendientes", bitacora, BitacoraReservas::pendientes)
+                    .description("Movimientos esperando al hilo escritor de la bitácora")
+                    .register(registry);
+            Gauge.builder("reservas.bitacora.secuencia", bitacora, BitacoraReservas::ultimaSecuencia)
+                    .description("Última secuencia escrita en la bitácora")
+                    .register(registry);
+            FunctionCounter.builder("reservas.bitacora.descartados", bitacora, BitacoraReservas::descartados)
+                    .description("Movimientos que no entraron en la bitácora (anillo lleno o error de escritura)")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasLimite(LimitadorTasa limitador) {
+        return registry -> Gauge.builder("limite.buckets", limitador, LimitadorTasa::bucketsActivos)
+                .description("Buckets de límite de peticiones en memoria")
+                .register(registry);
+    }
+
+    // Mismos nombres que CaffeineCacheMetrics, para que sirvan los tableros habituales.
+    // Los meters guardan una referencia débil a la fuente: se pasa el bean, no una lambda suelta
+    private static <T> void registrarCache(MeterRegistry registry, String nombre, T fuente,
+            Function<T, CacheStats> estadisticas, ToLongFunction<T> tamano) {
+        Gauge.builder("cache.size", fuente, f -> tamano.applyAsLong(f)).tag("cache", nombre).register(registry);
+        FunctionCounter.builder("cache.gets", fuente, f -> estadisticas.apply(f).hitCount())
+                .tag("cache", nombre).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", fuente, f -> estadisticas.apply(f).missCount())
+                .tag("cache", nombre).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", fuente, f -> estadisticas.apply(f).evictionCount())
+                .tag("cache", nombre).register(registry);
+    }
+}
@@ -23,7 +23,7 @@ public class OpenApiConfig {
                         .title("API de Reserva de Canchas")
                         .description("Sistema de gestión para reservas de canchas de fútbol. " +
                                 "Permite a los usuarios registrarse, autenticarse y realizar reservas " +
-                                "de canchas en horarios disponibles de 8:00 AM a 8:00 PM.")
+                                "de canchas según el horario de cada una (por defecto de 8:00 AM a 8:00 PM).")
                         .version("v1.0.0")
                         .contact(new Contact()
                                 .name("Equipo de Desarrollo")
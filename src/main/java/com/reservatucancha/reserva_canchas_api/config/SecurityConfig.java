@@ -1,9 +1,18 @@
 package com.reservatucancha.reserva_canchas_api.config;
 
 import com.reservatucancha.reserva_canchas_api.jwt.JwtAuthenticationFilter;
+import com.reservatucancha.reserva_canchas_api.limite.LimitadorTasa;
+import com.reservatucancha.reserva_canchas_api.limite.LimiteProperties;
+import com.reservatucancha.reserva_canchas_api.limite.LimiteTasaFilter;
 import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,6 +26,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(LimiteProperties.class)
 public class SecurityConfig {
 
     private final UsuarioService usuarioService;
@@ -35,16 +45,55 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${seguridad.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength) {
+            // Pide re-cifrar en el login cualquier hash con otra fuerza (mayor o menor); el
+            // login (AuthController) lo guarda mediante UsuarioService.updatePassword
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return fuerza(encodedPassword) != strength;
+            }
+        };
+    }
+
+    // Fuerza de un hash BCrypt "$2a$10$...", o -1 si no tiene ese formato
+    private static int fuerza(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Endpoints de actuator (health, prometheus). Con management.server.port distinto del
+     * de la API, EndpointRequest solo coincide en el puerto de gestión: ahí no corre el filtro
+     * JWT y el acceso se restringe por red (management.server.address / firewall), no por token.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain gestionSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .build();
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, LimitadorTasa limitador, MeterRegistry meterRegistry)
+            throws Exception {
         return http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Los endpoints que devuelven CompletableFuture terminan en un despacho ASYNC;
+                        // la petición ya se autorizó en el despacho original y en este no corre el filtro JWT
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Permitir acceso público a endpoints de autenticación
                         .requestMatchers("/api/auth/**").permitAll()
                         // Permitir acceso público a documentación OpenAPI/Swagger y sus recursos
@@ -62,6 +111,8 @@ public class SecurityConfig {
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // ¡Aquí agregamos el filtro usando el método @Bean!
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+                // Límite de peticiones por usuario (o IP) una vez resuelto el token
+                .addFilterAfter(new LimiteTasaFilter(limitador, meterRegistry), JwtAuthenticationFilter.class)
                 .build();
     }
 
@@ -5,14 +5,21 @@ import com.reservatucancha.reserva_canchas_api.dto.LoginResponseDto;
 import com.reservatucancha.reserva_canchas_api.dto.RegisterDto;
 import com.reservatucancha.reserva_canchas_api.dto.TokenValidationDto;
 import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.exception.ServicioSaturadoException;
 import com.reservatucancha.reserva_canchas_api.jwt.JwtTokenProvider;
+import com.reservatucancha.reserva_canchas_api.jwt.TokenVerificado;
 import com.reservatucancha.reserva_canchas_api.repository.UsuarioRepository;
+import com.reservatucancha.reserva_canchas_api.service.HashingExecutor;
+import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -21,63 +28,144 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final UsuarioService usuarioService;
     private final JwtTokenProvider tokenProvider;
+    private final HashingExecutor hashingExecutor;
+    private final MeterRegistry meterRegistry;
+    // Mismos controles de cuenta que DaoAuthenticationProvider (bloqueada, deshabilitada, vencida)
+    private final UserDetailsChecker verificadorEstado = new AccountStatusUserDetailsChecker();
+    private final String hashSinUsuario;
 
     public AuthController(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
-            AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider) {
+            UsuarioService usuarioService, JwtTokenProvider tokenProvider, HashingExecutor hashingExecutor,
+            MeterRegistry meterRegistry) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
+        this.usuarioService = usuarioService;
+        this.hashSinUsuario = passwordEncoder.encode("usuario-inexistente");
         this.tokenProvider = tokenProvider;
+        this.hashingExecutor = hashingExecutor;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<String> register(@RequestBody RegisterDto registerDto) {
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterDto registerDto) {
         if (usuarioRepository.findByEmail(registerDto.getEmail()).isPresent()) {
-            return new ResponseEntity<>("El email ya está registrado", HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>("El email ya está registrado", HttpStatus.BAD_REQUEST));
         }
 
-        Usuario usuario = new Usuario();
-        usuario.setNombre(registerDto.getNombre());
-        usuario.setApellido(registerDto.getApellido());
-        usuario.setEmail(registerDto.getEmail());
-        usuario.setPassword(passwordEncoder.encode(registerDto.getPassword()));
-        usuario.setIdentificacion(registerDto.getIdentificacion());
-        usuario.setTelefono(registerDto.getTelefono());
-
-        usuarioRepository.save(usuario);
-        return new ResponseEntity<>("Usuario registrado exitosamente", HttpStatus.OK);
+        try {
+            // El cifrado corre en el pool de hashing y el guardado en un hilo virtual después;
+            // el hilo de Tomcat queda libre mientras tanto
+            return hashingExecutor.ejecutar(() -> medirCifrado("registro", () -> passwordEncoder.encode(registerDto.getPassword()), cifrada -> true))
+                    .thenApply(passwordCifrada -> {
+                        Usuario usuario = new Usuario();
+                        usuario.setNombre(registerDto.getNombre());
+                        usuario.setApellido(registerDto.getApellido());
+                        usuario.setEmail(registerDto.getEmail());
+                        usuario.setPassword(passwordCifrada);
+                        usuario.setIdentificacion(registerDto.getIdentificacion());
+                        usuario.setTelefono(registerDto.getTelefono());
+
+                        usuarioRepository.save(usuario);
+                        return new ResponseEntity<>("Usuario registrado exitosamente", HttpStatus.OK);
+                    });
+        } catch (ServicioSaturadoException e) {
+            return CompletableFuture.completedFuture(saturado(e));
+        }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> login(@RequestBody LoginDto loginDto) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginDto.getEmail(), loginDto.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = tokenProvider.generateToken(authentication);
-        
-        // Buscar el usuario para obtener su información completa
-        Usuario usuario = usuarioRepository.findByEmail(loginDto.getEmail())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        
-        LoginResponseDto response = new LoginResponseDto(
-                token,
-                usuario.getId(),
-                usuario.getNombre(),
-                usuario.getApellido(),
-                usuario.getEmail(),
-                "Login exitoso"
-        );
+    public CompletableFuture<ResponseEntity<LoginResponseDto>> login(@RequestBody LoginDto loginDto) {
+        // La búsqueda del usuario va en este hilo y el rehash se guarda en la continuación:
+        // al pool de hashing solo llega BCrypt, así una base lenta no lo deja sin hilos
+        Optional<Usuario> encontrado = usuarioRepository.findByEmail(loginDto.getEmail());
+        try {
+            encontrado.ifPresent(verificadorEstado::check);
+        } catch (AuthenticationException e) {
+            return CompletableFuture.completedFuture(credencialesInvalidas());
+        }
+        // Sin usuario se verifica igual contra un hash fijo, para no revelar por el tiempo
+        // de respuesta qué emails están registrados
+        String hash = encontrado.map(Usuario::getPassword).orElse(hashSinUsuario);
+        try {
+            return hashingExecutor.ejecutar(() -> medirCifrado("login", () -> verificar(loginDto.getPassword(), hash), Verificacion::valida))
+                    .thenApply(verificacion -> {
+                        if (encontrado.isEmpty() || !verificacion.valida()) {
+                            return credencialesInvalidas();
+                        }
+                        Usuario usuario = encontrado.get();
+                        if (verificacion.rehash() != null) {
+                            // La fuerza de BCrypt cambió: se guarda el hash nuevo (ver SecurityConfig.passwordEncoder)
+                            usuario = (Usuario) usuarioService.updatePassword(usuario, verificacion.rehash());
+                        }
+                        String token = tokenProvider.generateToken(
+                                UsernamePasswordAuthenticationToken.authenticated(usuario, null, usuario.getAuthorities()));
+
+                        LoginResponseDto response = new LoginResponseDto(
+                                token,
+                                usuario.getId(),
+                                usuario.getNombre(),
+                                usuario.getApellido(),
+                                usuario.getEmail(),
+                                "Login exitoso"
+                        );
+
+                        return new ResponseEntity<>(response, HttpStatus.OK);
+                    });
+        } catch (ServicioSaturadoException e) {
+            return CompletableFuture.completedFuture(saturado(e));
+        }
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+    // Lo único que corre en el pool de hashing durante el login: verificar y, si hace falta, re-cifrar
+    private Verificacion verificar(String password, String hash) {
+        if (password == null || !passwordEncoder.matches(password, hash)) {
+            return new Verificacion(false, null);
+        }
+        return new Verificacion(true, passwordEncoder.upgradeEncoding(hash) ? passwordEncoder.encode(password) : null);
+    }
+
+    private record Verificacion(boolean valida, String rehash) {
+    }
+
+    private static ResponseEntity<LoginResponseDto> credencialesInvalidas() {
+        return new ResponseEntity<>(new LoginResponseDto(null, null, null, null, null, "Credenciales inválidas"),
+                HttpStatus.UNAUTHORIZED);
+    }
+
+    // Tiempo de BCrypt ya dentro del pool (sin la espera en la cola, que mide seguridad.hashing.cola)
+    private <T> T medirCifrado(String operacion, Supplier<T> tarea, Predicate<T> exitoso) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "fallo";
+        try {
+            T valor = tarea.get();
+            resultado = exitoso.test(valor) ? "exito" : "fallo";
+            return valor;
+        } finally {
+            muestra.stop(Timer.builder("seguridad.bcrypt")
+                    .description("Tiempo de cifrado y verificación de contraseñas")
+                    .tag("operacion", operacion)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static <T> ResponseEntity<T> saturado(ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getReintentarEnSegundos()))
+                .build();
     }
 
     @GetMapping("/verify-token")
@@ -91,18 +179,15 @@ public class AuthController {
             // Extraer el token del header (remover "Bearer ")
             String token = authHeader.substring(7);
 
-            // Validar el token
-            if (!tokenProvider.validateToken(token)) {
-                return ResponseEntity.ok(new TokenValidationDto(false, "Token inválido o malformado"));
-            }
-
-            // Verificar si el token ha expirado
-            if (tokenProvider.isTokenExpired(token)) {
-                return ResponseEntity.ok(new TokenValidationDto(false, "Token expirado"));
+            // Validar el token: firma, formato y expiración en un solo parseo
+            Optional<TokenVerificado> verificado = tokenProvider.verificar(token);
+            if (verificado.isEmpty()) {
+                return ResponseEntity.ok(new TokenValidationDto(false, "Token inválido, malformado o expirado"));
             }
 
             // Si llega aquí, el token es válido
-            String username = tokenProvider.getUsernameFromJwt(token);
+            TokenVerificado claims = verificado.get();
+            String username = claims.username();
             
             // Buscar el usuario para obtener su ID
             Usuario usuario = usuarioRepository.findByEmail(username)
@@ -113,8 +198,8 @@ public class AuthController {
                 usuario.getId(),
                 usuario.getNombre(),
                 usuario.getEmail(),
-                tokenProvider.getIssuedAtFromToken(token),
-                tokenProvider.getExpirationDateFromToken(token),
+                claims.issuedAt(),
+                claims.expiration(),
                 token,
                 "Token válido"
             );
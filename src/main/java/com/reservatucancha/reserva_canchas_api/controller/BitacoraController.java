@@ -0,0 +1,99 @@
+package com.reservatucancha.reserva_canchas_api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reservatucancha.reserva_canchas_api.bitacora.BitacoraReservas;
+import com.reservatucancha.reserva_canchas_api.bitacora.EventoBitacora;
+import com.reservatucancha.reserva_canchas_api.bitacora.LectorBitacora;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/bitacora")
+@Tag(name = "Bitácora", description = "Historial de altas, modificaciones y bajas de reservas")
+public class BitacoraController {
+
+    private final BitacoraReservas bitacora;
+    private final ObjectMapper objectMapper;
+    // Emails que pueden leer los movimientos de todos; el resto solo ve los que hizo
+    private final Set<String> administradores;
+    // Registros que recorre como máximo una petición, coincidan o no con el usuario
+    private final int maximoLeidos;
+
+    public BitacoraController(BitacoraReservas bitacora, ObjectMapper objectMapper,
+            @Value("${reservas.administradores:}") Set<String> administradores,
+            @Value("${reservas.bitacora.maximo-leidos:10000}") int maximoLeidos) {
+        this.bitacora = bitacora;
+        this.objectMapper = objectMapper;
+        this.administradores = administradores;
+        this.maximoLeidos = maximoLeidos;
+    }
+
+    @Operation(summary = "Leer la bitácora", description = "Devuelve en NDJSON (un evento JSON por línea) los movimientos de reservas "
+            +
+            "desde la secuencia indicada, en orden. Cada petición recorre a lo sumo reservas.bitacora.maximo-leidos registros "
+            +
+            "y el encabezado X-Bitacora-Hasta indica la última secuencia recorrida. Para seguir leyendo, volver a pedir con "
+            +
+            "desde = X-Bitacora-Hasta + 1, o con desde = última secuencia recibida + 1 si se recibieron limit eventos. "
+            +
+            "Solo los administradores (reservas.administradores) ven los movimientos de todos; "
+            +
+            "cualquier otro usuario recibe únicamente los que hizo él.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Eventos leídos exitosamente", content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = EventoBitacora.class))),
+            @ApiResponse(responseCode = "404", description = "La bitácora está deshabilitada", content = @Content)
+    })
+    @GetMapping
+    public void leer(
+            @Parameter(description = "Primera secuencia a devolver (inclusive)", example = "1") @RequestParam(defaultValue = "1") long desde,
+            @Parameter(description = "Cantidad máxima de eventos; sin indicar se devuelven todos los del tramo recorrido") @RequestParam(required = false) Integer limit,
+            @Parameter(hidden = true) Principal principal,
+            HttpServletResponse response) throws IOException {
+        if (!bitacora.habilitada()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "La bitácora está deshabilitada");
+            return;
+        }
+
+        LectorBitacora lector = bitacora.lector(desde, maximoLeidos);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/x-ndjson");
+        response.setHeader("X-Bitacora-Hasta", String.valueOf(lector.hasta()));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        SequenceWriter ndjson = objectMapper.writerFor(EventoBitacora.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        String actor = principal == null ? "" : principal.getName();
+        boolean todos = administradores.contains(actor);
+        long restantes = limit == null || limit < 1 ? Long.MAX_VALUE : limit;
+        EventoBitacora evento;
+        while (restantes > 0 && (evento = lector.siguiente()) != null) {
+            if (todos || actor.equals(evento.actor())) {
+                ndjson.write(evento);
+                restantes--;
+            }
+        }
+        ndjson.flush();
+        writer.flush();
+    }
+}
@@ -1,5 +1,6 @@
 package com.reservatucancha.reserva_canchas_api.controller;
 
+import com.reservatucancha.reserva_canchas_api.dto.PaginaDto;
 import com.reservatucancha.reserva_canchas_api.entity.Cancha;
 import com.reservatucancha.reserva_canchas_api.service.CanchaService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,10 +10,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.reservatucancha.reserva_canchas_api.service.CatalogoCanchas;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -26,48 +30,81 @@ public class CanchaController {
         this.canchaService = canchaService;
     }
 
-    @Operation(summary = "Obtener todas las canchas", description = "Retorna una lista de todas las canchas disponibles en el sistema")
+    @Operation(summary = "Obtener canchas paginadas", description = "Retorna las canchas disponibles ordenadas por ID, paginadas por cursor. "
+            +
+            "Para la siguiente página enviar en 'after' el valor de 'siguienteCursor' de la respuesta. " +
+            "La respuesta incluye un ETag con la versión del catálogo; con If-None-Match se responde 304 si no cambió.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de canchas obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cancha.class)))
+            @ApiResponse(responseCode = "200", description = "Página de canchas obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginaDto.class))),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag enviado", content = @Content)
     })
     @GetMapping
-    public List<Cancha> getAllCanchas() {
-        return canchaService.findAll();
+    public ResponseEntity<PaginaDto<Cancha>> getAllCanchas(
+            @Parameter(description = "Cursor: ID de la última cancha recibida (exclusivo)", example = "20") @RequestParam(required = false) Long after,
+            @Parameter(description = "Cantidad de canchas por página (máximo 500)", example = "50") @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        CatalogoCanchas catalogo = canchaService.getCatalogo();
+        if (webRequest.checkNotModified(catalogo.etag())) {
+            return noModificado(catalogo);
+        }
+        int limite = PaginaDto.normalizarLimite(limit);
+        return conVersion(catalogo).body(PaginaDto.desde(catalogo.pagina(after, limite), limite, Cancha::getId, cancha -> cancha));
     }
 
-    @Operation(summary = "Obtener cancha por ID", description = "Retorna los detalles de una cancha específica por su ID")
+    @Operation(summary = "Obtener cancha por ID", description = "Retorna los detalles de una cancha específica por su ID. " +
+            "Admite If-None-Match con el ETag de la versión del catálogo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cancha encontrada", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cancha.class))),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag enviado", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cancha no encontrada", content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<Cancha> getCanchaById(
-            @Parameter(description = "ID único de la cancha", required = true) @PathVariable Long id) {
-        Optional<Cancha> optionalCancha = canchaService.findById(id);
+            @Parameter(description = "ID único de la cancha", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
+        CatalogoCanchas catalogo = canchaService.getCatalogo();
+        Optional<Cancha> optionalCancha = catalogo.buscar(id);
         if (optionalCancha.isPresent()) {
-            return ResponseEntity.ok(optionalCancha.get());
+            if (webRequest.checkNotModified(catalogo.etag())) {
+                return noModificado(catalogo);
+            }
+            return conVersion(catalogo).body(optionalCancha.get());
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Crear nueva cancha", description = "Registra una nueva cancha en el sistema")
+    // no-cache: el cliente puede guardar la respuesta pero debe revalidarla con el ETag
+    private static ResponseEntity.BodyBuilder conVersion(CatalogoCanchas catalogo) {
+        return ResponseEntity.ok().eTag(catalogo.etag()).cacheControl(CacheControl.noCache());
+    }
+
+    private static <T> ResponseEntity<T> noModificado(CatalogoCanchas catalogo) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalogo.etag()).cacheControl(CacheControl.noCache()).build();
+    }
+
+    @Operation(summary = "Crear nueva cancha", description = "Registra una nueva cancha en el sistema. "
+            + "El horario (apertura, cierre, duración del slot y días cerrados) es opcional; sin él se usa 8:00 a 20:00 en slots de 60 minutos.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cancha creada exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cancha.class))),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos u horario inválido", content = @Content)
     })
     @PostMapping
     public ResponseEntity<Cancha> createCancha(
             @Parameter(description = "Datos de la nueva cancha", required = true) @RequestBody Cancha cancha) {
-        Cancha savedCancha = canchaService.save(cancha);
-        return ResponseEntity.ok(savedCancha);
+        try {
+            Cancha savedCancha = canchaService.save(cancha);
+            return ResponseEntity.ok(savedCancha);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     @Operation(summary = "Actualizar cancha", description = "Actualiza los datos de una cancha existente")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cancha actualizada exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cancha.class))),
             @ApiResponse(responseCode = "404", description = "Cancha no encontrada", content = @Content),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos u horario inválido", content = @Content)
     })
     @PutMapping("/{id}")
     public ResponseEntity<Cancha> updateCancha(
@@ -79,8 +116,16 @@ public class CanchaController {
             existingCancha.setNombre(canchaDetails.getNombre());
             existingCancha.setTipoCancha(canchaDetails.getTipoCancha());
             existingCancha.setPrecioPorHora(canchaDetails.getPrecioPorHora());
-            Cancha updatedCancha = canchaService.save(existingCancha);
-            return ResponseEntity.ok(updatedCancha);
+            existingCancha.setHoraApertura(canchaDetails.getHoraApertura());
+            existingCancha.setHoraCierre(canchaDetails.getHoraCierre());
+            existingCancha.setDuracionSlotMinutos(canchaDetails.getDuracionSlotMinutos());
+            existingCancha.setDiasCerrados(canchaDetails.getDiasCerrados());
+            try {
+                Cancha updatedCancha = canchaService.save(existingCancha);
+                return ResponseEntity.ok(updatedCancha);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,71 @@
+package com.reservatucancha.reserva_canchas_api.controller;
+
+import com.reservatucancha.reserva_canchas_api.dto.ResultadoImportacionDto;
+import com.reservatucancha.reserva_canchas_api.service.ImportacionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/import")
+@Tag(name = "Importación", description = "Carga masiva de datos desde archivos CSV")
+public class ImportacionController {
+
+    private final ImportacionService importacionService;
+    // Emails que pueden importar; la misma lista que ve la bitácora completa
+    private final Set<String> administradores;
+
+    public ImportacionController(ImportacionService importacionService,
+            @Value("${reservas.administradores:}") Set<String> administradores) {
+        this.importacionService = importacionService;
+        this.administradores = administradores;
+    }
+
+    @Operation(summary = "Importar CSV", description = "Importa canchas, usuarios o reservas desde un CSV enviado como cuerpo de la petición (text/csv). "
+            +
+            "La primera línea es el encabezado. Columnas: canchas = nombre,tipoCancha,precioPorHora,imagenUrl,ubicacion; "
+            +
+            "usuarios = nombre,apellido,email,password,identificacion,telefono; "
+            +
+            "reservas = fechaReserva,horaInicio,horaFin,canchaId,emailUsuario. "
+            +
+            "Solo para administradores (reservas.administradores); las reservas de slots retenidos se rechazan.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación finalizada; el resumen incluye las filas rechazadas", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoImportacionDto.class))),
+            @ApiResponse(responseCode = "400", description = "Tipo de importación no soportado", content = @Content),
+            @ApiResponse(responseCode = "403", description = "El usuario no es administrador", content = @Content)
+    })
+    @PostMapping(value = "/{tipo}", consumes = { "text/csv", "text/plain" })
+    public ResponseEntity<ResultadoImportacionDto> importar(
+            @Parameter(description = "Qué se importa: canchas, usuarios o reservas", required = true) @PathVariable String tipo,
+            InputStream csv,
+            @Parameter(hidden = true) Principal principal) throws IOException {
+        if (principal == null || !administradores.contains(principal.getName())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ImportacionService.Tipo tipoImportacion;
+        try {
+            tipoImportacion = ImportacionService.Tipo.valueOf(tipo.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResultadoImportacionDto resultado = importacionService.importar(tipoImportacion,
+                new InputStreamReader(csv, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(resultado);
+    }
+}
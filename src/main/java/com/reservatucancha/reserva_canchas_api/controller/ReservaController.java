@@ -1,8 +1,28 @@
 package com.reservatucancha.reserva_canchas_api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reservatucancha.reserva_canchas_api.dto.DisponibilidadDto;
+import com.reservatucancha.reserva_canchas_api.dto.PaginaDto;
 import com.reservatucancha.reserva_canchas_api.dto.ReservaDto;
+import com.reservatucancha.reserva_canchas_api.dto.ResultadoSerieDto;
+import com.reservatucancha.reserva_canchas_api.dto.RetencionDto;
+import com.reservatucancha.reserva_canchas_api.dto.SerieReservaDto;
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
 import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.exception.ClaveIdempotenciaReutilizadaException;
+import com.reservatucancha.reserva_canchas_api.exception.RetencionVencidaException;
+import com.reservatucancha.reserva_canchas_api.exception.ServicioSaturadoException;
+import com.reservatucancha.reserva_canchas_api.exception.SlotNoDisponibleException;
+import com.reservatucancha.reserva_canchas_api.service.DisponibilidadBroadcaster;
+import com.reservatucancha.reserva_canchas_api.service.EstadoDia;
+import com.reservatucancha.reserva_canchas_api.service.GrillaSlots;
+import com.reservatucancha.reserva_canchas_api.service.IdempotenciaService;
 import com.reservatucancha.reserva_canchas_api.service.ReservaService;
+import com.reservatucancha.reserva_canchas_api.service.ResultadoSerie;
+import com.reservatucancha.reserva_canchas_api.service.RetencionSlots;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +30,33 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,20 +65,44 @@ import java.util.stream.Collectors;
 public class ReservaController {
 
     private final ReservaService reservaService;
+    private final ObjectMapper objectMapper;
+    private final DisponibilidadBroadcaster broadcaster;
+    private final IdempotenciaService idempotenciaService;
 
-    public ReservaController(ReservaService reservaService) {
+    public ReservaController(ReservaService reservaService, ObjectMapper objectMapper, DisponibilidadBroadcaster broadcaster,
+            IdempotenciaService idempotenciaService) {
         this.reservaService = reservaService;
+        this.objectMapper = objectMapper;
+        this.broadcaster = broadcaster;
+        this.idempotenciaService = idempotenciaService;
     }
 
-    @Operation(summary = "Obtener todas las reservas", description = "Retorna una lista de todas las reservas registradas en el sistema")
+    @Operation(summary = "Obtener reservas paginadas", description = "Retorna las reservas ordenadas por ID, paginadas por cursor. "
+            +
+            "Para la siguiente página enviar en 'after' el valor de 'siguienteCursor' de la respuesta. " +
+            "Con 'desde' y 'hasta' solo se listan las reservas de ese rango de fechas, ordenadas por fecha e ID; " +
+            "la siguiente página se pide con 'after' y 'afterFecha' ('siguienteCursor' y 'siguienteFecha').")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de reservas obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class)))
+            @ApiResponse(responseCode = "200", description = "Página de reservas obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginaDto.class))),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas inválido", content = @Content)
     })
     @GetMapping
-    public List<ReservaDto> getAllReservas() {
-        return reservaService.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<PaginaDto<ReservaDto>> getAllReservas(
+            @Parameter(description = "Cursor: ID de la última reserva recibida (exclusivo)", example = "150") @RequestParam(required = false) Long after,
+            @Parameter(description = "Cursor con 'desde' y 'hasta': fecha de la última reserva recibida (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterFecha,
+            @Parameter(description = "Cantidad de reservas por página (máximo 500)", example = "50") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Primer día del rango (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Último día del rango, inclusive (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        int limite = PaginaDto.normalizarLimite(limit);
+        try {
+            List<ReservaDto> filas = reservaService.findPagina(after, afterFecha, desde, hasta, limite);
+            if (desde == null && hasta == null) {
+                return ResponseEntity.ok(PaginaDto.desde(filas, limite, ReservaDto::getId, reserva -> reserva));
+            }
+            return ResponseEntity.ok(PaginaDto.desde(filas, limite, ReservaDto::getId, ReservaDto::getFechaReserva, reserva -> reserva));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     @Operation(summary = "Obtener reserva por ID", description = "Retorna los detalles de una reserva específica por su ID")
@@ -56,107 +121,449 @@ public class ReservaController {
 
     @Operation(summary = "Obtener horarios disponibles", description = "Retorna los slots de tiempo disponibles para una cancha en una fecha específica. "
             +
-            "Los horarios disponibles son de 8:00 AM a 8:00 PM en slots de 1 hora.")
+            "Los horarios salen de la grilla de la cancha (por defecto de 8:00 a 20:00 en slots de 60 minutos); los días en que no abre no hay slots. " +
+            "El ETag es la versión de la ocupación de ese día; con If-None-Match se responde 304 si no cambió. " +
+            "La cancha debe existir y la fecha no puede pasar del horizonte de reservas (reservas.disponibilidad.horizonte-dias).")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Slots disponibles obtenidos exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = String.class))),
+            @ApiResponse(responseCode = "304", description = "La disponibilidad no cambió desde el ETag enviado", content = @Content),
             @ApiResponse(responseCode = "400", description = "Parámetros inválidos", content = @Content)
     })
     @GetMapping("/slots-disponibles")
     public ResponseEntity<List<String>> getSlotsDisponibles(
             @Parameter(description = "ID de la cancha para consultar disponibilidad", required = true) @RequestParam Long canchaId,
-            @Parameter(description = "Fecha para consultar disponibilidad (formato: YYYY-MM-DD)", required = true) @RequestParam String fecha) {
+            @Parameter(description = "Fecha para consultar disponibilidad (formato: YYYY-MM-DD)", required = true) @RequestParam String fecha,
+            WebRequest webRequest) {
         try {
             LocalDate fechaParsed = LocalDate.parse(fecha);
-            List<String> slots = reservaService.getSlotsDisponibles(canchaId, fechaParsed);
-            return ResponseEntity.ok(slots);
+            EstadoDia estado = reservaService.getEstadoDisponibilidad(canchaId, fechaParsed);
+            if (webRequest.checkNotModified(estado.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(estado.etag()).cacheControl(CacheControl.noCache()).build();
+            }
+            List<String> slots = reservaService.slotsLibres(canchaId, estado.mascara());
+            return ResponseEntity.ok().eTag(estado.etag()).cacheControl(CacheControl.noCache()).body(slots);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(List.of());
         }
     }
 
-    @Operation(summary = "Obtener reservas por usuario", description = "Retorna todas las reservas realizadas por un usuario específico")
+    @Operation(summary = "Obtener matriz de disponibilidad", description = "Retorna la ocupación de varias canchas en un rango de fechas en una sola llamada. "
+            +
+            "Cada cancha trae su grilla y un arreglo con una máscara por día (desde 'desde'); el bit i indica que el slot i de su grilla no está disponible. "
+            +
+            "Máximo " + ReservaService.MAXIMO_DIAS_MATRIZ + " días y " + ReservaService.MAXIMO_CANCHAS_MATRIZ + " canchas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matriz obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = DisponibilidadDto.class))),
+            @ApiResponse(responseCode = "400", description = "Rango o lista de canchas inválidos", content = @Content)
+    })
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<DisponibilidadDto> getDisponibilidad(
+            @Parameter(description = "Primer día del rango (formato: YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Último día del rango, inclusive (formato: YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "IDs de las canchas separados por coma", required = true, example = "1,2,3") @RequestParam Set<Long> canchaIds) {
+        try {
+            Map<Long, long[]> ocupacion = reservaService.getMatrizDisponibilidad(desde, hasta, canchaIds);
+            Map<Long, DisponibilidadDto.Grilla> grillas = new LinkedHashMap<>();
+            for (Long canchaId : ocupacion.keySet()) {
+                GrillaSlots grilla = reservaService.grilla(canchaId);
+                grillas.put(canchaId, new DisponibilidadDto.Grilla(grilla.getApertura(), grilla.getDuracionMinutos(), grilla.getTotalSlots()));
+            }
+            return ResponseEntity.ok(new DisponibilidadDto(desde, hasta, grillas, ocupacion));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Suscribirse a cambios de disponibilidad", description = "Abre un stream Server-Sent Events para una cancha y fecha. "
+            +
+            "El primer evento ('estado') trae la máscara de slots ocupados y su versión; después llegan 'slot-ocupado' y 'slot-liberado' " +
+            "a medida que se confirman reservas y cancelaciones, y un comentario de heartbeat cada 15 segundos. " +
+            "Si el cliente no consume a tiempo se cierra el stream; al reconectarse recibe de nuevo el estado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream abierto", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "400", description = "Cancha inexistente o fecha fuera del horizonte de reservas", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de suscripciones abiertas", content = @Content)
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDisponibilidad(
+            @Parameter(description = "ID de la cancha", required = true) @RequestParam Long canchaId,
+            @Parameter(description = "Fecha a observar (formato: YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        try {
+            return ResponseEntity.ok(broadcaster.suscribir(canchaId, fecha));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (ServicioSaturadoException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getReintentarEnSegundos()))
+                    .build();
+        }
+    }
+
+    @Operation(summary = "Exportar reservas", description = "Exporta las reservas filtradas en formato NDJSON (una reserva JSON por línea) o CSV. "
+            +
+            "Las filas se escriben en la respuesta a medida que se leen de la base de datos, sin cargarlas todas en memoria.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada exitosamente", content = {
+                    @Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv") }),
+            @ApiResponse(responseCode = "400", description = "Formato no soportado", content = @Content)
+    })
+    @GetMapping("/export")
+    public void exportReservas(
+            @Parameter(description = "Fecha inicial, inclusive (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final, inclusive (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "ID de la cancha") @RequestParam(required = false) Long canchaId,
+            @Parameter(description = "Formato de salida: ndjson o csv", example = "ndjson") @RequestParam(defaultValue = "ndjson") String formato,
+            HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        if (!csv && !"ndjson".equalsIgnoreCase(formato)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Formato no soportado: " + formato);
+            return;
+        }
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"reservas." + (csv ? "csv" : "ndjson") + "\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            if (csv) {
+                writer.write("id,fechaReserva,horaInicio,horaFin,usuarioId,canchaId\n");
+                reservaService.exportar(desde, hasta, canchaId, reserva -> escribirCsv(writer, reserva));
+            } else {
+                // Sin flush por fila: el buffer se vacía al llenarse
+                SequenceWriter ndjson = objectMapper.writerFor(ReservaDto.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer);
+                reservaService.exportar(desde, hasta, canchaId, reserva -> escribirJson(ndjson, reserva));
+                ndjson.flush();
+            }
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void escribirCsv(Writer writer, ReservaDto reserva) {
+        try {
+            writer.write(reserva.getId() + "," + reserva.getFechaReserva() + "," + reserva.getHoraInicio() + ","
+                    + reserva.getHoraFin() + "," + reserva.getUsuarioId() + "," + reserva.getCanchaId() + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribirJson(SequenceWriter ndjson, ReservaDto reserva) {
+        try {
+            ndjson.write(reserva);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Operation(summary = "Obtener reservas por usuario", description = "Retorna las reservas realizadas por un usuario específico, en orden cronológico. "
+            +
+            "Con proximas=true solo las que todavía no empezaron.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reservas del usuario obtenidas exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
             @ApiResponse(responseCode = "400", description = "ID de usuario inválido", content = @Content)
     })
     @GetMapping("/usuario/{usuarioId}")
     public ResponseEntity<List<ReservaDto>> getReservasByUsuario(
-            @Parameter(description = "ID único del usuario", required = true) @PathVariable Long usuarioId) {
+            @Parameter(description = "ID único del usuario", required = true) @PathVariable Long usuarioId,
+            @Parameter(description = "Solo reservas futuras", example = "false") @RequestParam(defaultValue = "false") boolean proximas) {
         try {
-            List<ReservaDto> reservasUsuario = reservaService.findAll().stream()
-                    .filter(reserva -> reserva.getUsuario().getId().equals(usuarioId))
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(reservasUsuario);
+            return ResponseEntity.ok(reservaService.findByUsuario(usuarioId, proximas));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(List.of());
         }
     }
 
+    @Operation(summary = "Obtener reservas por cancha", description = "Retorna la agenda de una cancha entre dos fechas, en orden cronológico. "
+            +
+            "Por defecto desde hoy y por " + ReservaService.MAXIMO_DIAS_LISTADO + " días, que es también el rango máximo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservas de la cancha obtenidas exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas inválido", content = @Content)
+    })
+    @GetMapping("/cancha/{canchaId}")
+    public ResponseEntity<List<ReservaDto>> getReservasByCancha(
+            @Parameter(description = "ID único de la cancha", required = true) @PathVariable Long canchaId,
+            @Parameter(description = "Primer día del rango (formato: YYYY-MM-DD); por defecto hoy") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Último día del rango, inclusive (formato: YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : LocalDate.now();
+        LocalDate fin = hasta != null ? hasta : inicio.plusDays(ReservaService.MAXIMO_DIAS_LISTADO - 1);
+        try {
+            return ResponseEntity.ok(reservaService.findByCancha(canchaId, inicio, fin));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @Operation(summary = "Crear nueva reserva", description = "Registra una nueva reserva en el sistema. " +
-            "Las reservas solo pueden realizarse entre las 8:00 AM y 8:00 PM.")
+            "Cada reserva ocupa exactamente un slot de la grilla de la cancha (por defecto de 8:00 a 20:00 en slots de 60 minutos). " +
+            "Con el header Idempotency-Key un reintento devuelve la respuesta original sin repetir la operación.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Reserva creada exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o horario no disponible", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o fuera del horario permitido", content = @Content),
+            @ApiResponse(responseCode = "409", description = "El horario ya está reservado para esa cancha", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<ReservaDto> createReserva(
-            @Parameter(description = "Datos de la nueva reserva", required = true) @RequestBody ReservaDto reservaDto) {
+    public CompletableFuture<ResponseEntity<ReservaDto>> createReserva(
+            @Parameter(description = "Clave única del intento, para reintentos seguros", example = "3f6c1a2e-8d4b-4f7a-9c1e-2b5d7e9a0c13") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Datos de la nueva reserva", required = true) @RequestBody ReservaDto reservaDto,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("POST", reservaDto), () -> crear(reservaDto, actor(principal)));
+    }
+
+    private ResponseEntity<ReservaDto> crear(ReservaDto reservaDto, String actor) {
         try {
             Reserva reserva = convertToEntity(reservaDto);
-            Reserva savedReserva = reservaService.save(reserva);
+            Reserva savedReserva = reservaService.save(reserva, actor);
             return new ResponseEntity<>(convertToDto(savedReserva), HttpStatus.CREATED);
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Crear varias reservas", description = "Registra en una sola operación varias reservas (por ejemplo horas consecutivas o varias canchas). "
+            +
+            "Se crean todas o ninguna; máximo 200 por lote. " +
+            "Con el header Idempotency-Key un reintento devuelve la respuesta original sin repetir la operación.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Reservas creadas exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
+            @ApiResponse(responseCode = "400", description = "Alguna reserva tiene datos inválidos o está fuera del horario permitido", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Alguno de los horarios ya está reservado", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
+    })
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<ReservaDto>>> createReservas(
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Reservas a crear", required = true) @RequestBody List<ReservaDto> reservasDto,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("POST /batch", reservasDto), () -> crearLote(reservasDto));
+    }
+
+    private ResponseEntity<List<ReservaDto>> crearLote(List<ReservaDto> reservasDto) {
+        try {
+            List<Reserva> savedReservas = reservaService.saveAll(convertToEntities(reservasDto));
+            return new ResponseEntity<>(savedReservas.stream().map(this::convertToDto).toList(), HttpStatus.CREATED);
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Crear una serie de reservas recurrentes", description = "Reserva el mismo slot (cancha y hora) cada semana o cada dos semanas, "
+            +
+            "hasta una fecha o durante una cantidad de repeticiones; máximo 200 reservas por serie. Todas las fechas se verifican con "
+            +
+            "una sola consulta y se insertan en una transacción. Con aceptarParcial se crean las fechas libres y se informan las ocupadas. "
+            +
+            "Con el header Idempotency-Key un reintento devuelve la respuesta original sin repetir la operación.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Serie creada (completa, o parcial si se pidió aceptarParcial)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoSerieDto.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, fuera del horario permitido o serie demasiado larga", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Alguna fecha está ocupada (o todas, con aceptarParcial)", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
+    })
+    @PostMapping("/series")
+    public CompletableFuture<ResponseEntity<ResultadoSerieDto>> createSerie(
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Serie a crear", required = true) @RequestBody SerieReservaDto serieDto,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("POST /series", serieDto), () -> crearSerie(serieDto));
+    }
+
+    private ResponseEntity<ResultadoSerieDto> crearSerie(SerieReservaDto serieDto) {
+        try {
+            if (serieDto.getCanchaId() == null || serieDto.getUsuarioId() == null || serieDto.getFechaInicio() == null
+                    || serieDto.getHoraInicio() == null || serieDto.getFrecuencia() == null) {
+                throw new IllegalArgumentException("Se deben indicar canchaId, usuarioId, fechaInicio, horaInicio y frecuencia");
+            }
+            ReservaDto primera = new ReservaDto(null, serieDto.getFechaInicio(), serieDto.getHoraInicio(),
+                    reservaService.grilla(serieDto.getCanchaId()).fin(serieDto.getHoraInicio()), serieDto.getUsuarioId(),
+                    serieDto.getCanchaId());
+            ResultadoSerie resultado = reservaService.saveSerie(convertToEntity(primera), serieDto.getFrecuencia().getDias(),
+                    serieDto.getHasta(), serieDto.getRepeticiones(), serieDto.isAceptarParcial());
+            ResultadoSerieDto resultadoDto = new ResultadoSerieDto(
+                    resultado.creadas().stream().map(this::convertToDto).toList(), resultado.fechasEnConflicto());
+            // Con aceptarParcial y todas las fechas ocupadas no se creó nada: es un conflicto
+            HttpStatus estado = resultado.creadas().isEmpty() ? HttpStatus.CONFLICT : HttpStatus.CREATED;
+            return new ResponseEntity<>(resultadoDto, estado);
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
-    @Operation(summary = "Actualizar reserva", description = "Actualiza los datos de una reserva existente")
+    @Operation(summary = "Actualizar reserva", description = "Actualiza los datos de una reserva existente. " + "Con el header Idempotency-Key un reintento devuelve la respuesta original sin repetir la operación.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reserva actualizada exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
             @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos", content = @Content),
+            @ApiResponse(responseCode = "409", description = "El nuevo horario ya está reservado para esa cancha", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
     })
     @PutMapping("/{id}")
-    public ResponseEntity<ReservaDto> updateReserva(
+    public CompletableFuture<ResponseEntity<ReservaDto>> updateReserva(
             @Parameter(description = "ID único de la reserva a actualizar", required = true) @PathVariable Long id,
-            @Parameter(description = "Nuevos datos de la reserva", required = true) @RequestBody ReservaDto reservaDto) {
-        Optional<Reserva> optionalReserva = reservaService.findById(id);
-        if (optionalReserva.isPresent()) {
-            Reserva existingReserva = optionalReserva.get();
-            // Refactor: Actualizamos los nuevos campos de fecha y hora.
-            existingReserva.setFechaReserva(reservaDto.getFechaReserva());
-            existingReserva.setHoraInicio(reservaDto.getHoraInicio());
-            existingReserva.setHoraFin(reservaDto.getHoraFin());
-            existingReserva.setCancha(reservaService.findCanchaById(reservaDto.getCanchaId()).get());
-            existingReserva.setUsuario(reservaService.findUsuarioById(reservaDto.getUsuarioId()).get());
-
-            Reserva updatedReserva = reservaService.save(existingReserva);
-            return ResponseEntity.ok(convertToDto(updatedReserva));
-        } else {
-            return ResponseEntity.notFound().build();
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Nuevos datos de la reserva", required = true) @RequestBody ReservaDto reservaDto,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("PUT", id, reservaDto), () -> actualizar(id, reservaDto));
+    }
+
+    private ResponseEntity<ReservaDto> actualizar(Long id, ReservaDto reservaDto) {
+        try {
+            Reserva datos = convertToEntity(reservaDto);
+            return reservaService.update(id, datos)
+                    .map(updatedReserva -> ResponseEntity.ok(convertToDto(updatedReserva)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
-    @Operation(summary = "Eliminar reserva", description = "Elimina una reserva del sistema")
+    @Operation(summary = "Eliminar reserva", description = "Elimina una reserva del sistema. " + "Con el header Idempotency-Key un reintento devuelve la respuesta original sin repetir la operación.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Reserva eliminada exitosamente"),
-            @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteReserva(
-            @Parameter(description = "ID único de la reserva a eliminar", required = true) @PathVariable Long id) {
-        if (reservaService.findById(id).isPresent()) {
-            reservaService.deleteById(id);
+    public CompletableFuture<ResponseEntity<Void>> deleteReserva(
+            @Parameter(description = "ID único de la reserva a eliminar", required = true) @PathVariable Long id,
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("DELETE", id), () -> eliminar(id));
+    }
+
+    private ResponseEntity<Void> eliminar(Long id) {
+        if (reservaService.deleteById(id)) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @Operation(summary = "Retener un slot", description = "Reserva temporalmente un slot (cancha, fecha, hora de inicio) mientras se completa el pago, "
+            +
+            "sin crear la reserva. Mientras dure, el slot figura ocupado para los demás; se convierte en reserva con "
+            +
+            "POST /holds/{id}/confirmar. Cada usuario puede tener pocas retenciones activas a la vez.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Slot retenido", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RetencionDto.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos, duración fuera de rango o demasiadas retenciones activas", content = @Content),
+            @ApiResponse(responseCode = "409", description = "El slot ya está reservado o retenido", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
+    })
+    @PostMapping("/holds")
+    public CompletableFuture<ResponseEntity<RetencionDto>> createRetencion(
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Slot a retener", required = true) @RequestBody RetencionDto retencionDto,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("POST /holds", retencionDto),
+                () -> retener(retencionDto, actor(principal)));
+    }
+
+    private ResponseEntity<RetencionDto> retener(RetencionDto retencionDto, String actor) {
+        try {
+            if (retencionDto.getCanchaId() == null || retencionDto.getFechaReserva() == null
+                    || retencionDto.getHoraInicio() == null || retencionDto.getUsuarioId() == null) {
+                throw new IllegalArgumentException("Se deben indicar canchaId, fechaReserva, horaInicio y usuarioId");
+            }
+            ReservaDto slot = new ReservaDto(null, retencionDto.getFechaReserva(), retencionDto.getHoraInicio(),
+                    reservaService.grilla(retencionDto.getCanchaId()).fin(retencionDto.getHoraInicio()),
+                    retencionDto.getUsuarioId(), retencionDto.getCanchaId());
+            Duration duracion = retencionDto.getMinutos() == null ? null : Duration.ofMinutes(retencionDto.getMinutos());
+            RetencionSlots.Retencion retencion = reservaService.retener(convertToEntity(slot), actor, duracion);
+            return new ResponseEntity<>(convertToDto(retencion), HttpStatus.CREATED);
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Confirmar una retención", description = "Convierte la retención en una reserva en un solo paso: el slot no queda libre "
+            +
+            "en ningún momento. Solo puede confirmarla quien la creó y antes de que venza.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Reserva creada a partir de la retención", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReservaDto.class))),
+            @ApiResponse(responseCode = "400", description = "El usuario o la cancha de la retención ya no existen", content = @Content),
+            @ApiResponse(responseCode = "409", description = "El horario fue reservado por otra vía", content = @Content),
+            @ApiResponse(responseCode = "410", description = "La retención no existe, venció o fue cancelada", content = @Content),
+            @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra petición", content = @Content)
+    })
+    @PostMapping("/holds/{id}/confirmar")
+    public CompletableFuture<ResponseEntity<ReservaDto>> confirmarRetencion(
+            @Parameter(description = "ID de la retención", required = true) @PathVariable String id,
+            @Parameter(description = "Clave única del intento, para reintentos seguros") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal) {
+        return idempotente(idempotencyKey, principal, List.of("POST /holds/confirmar", id),
+                () -> confirmar(id, actor(principal)));
+    }
+
+    private ResponseEntity<ReservaDto> confirmar(String id, String actor) {
+        try {
+            return new ResponseEntity<>(convertToDto(reservaService.confirmarRetencion(id, actor)), HttpStatus.CREATED);
+        } catch (RetencionVencidaException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.GONE);
+        } catch (SlotNoDisponibleException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Cancelar una retención", description = "Libera el slot retenido antes de que venza.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Retención cancelada"),
+            @ApiResponse(responseCode = "410", description = "La retención no existe, venció o ya fue cancelada", content = @Content)
+    })
+    @DeleteMapping("/holds/{id}")
+    public ResponseEntity<Void> deleteRetencion(
+            @Parameter(description = "ID de la retención", required = true) @PathVariable String id,
+            @Parameter(hidden = true) Principal principal) {
+        try {
+            return reservaService.cancelarRetencion(id, actor(principal))
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (RetencionVencidaException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.GONE);
+        }
+    }
+
+    private static String actor(Principal principal) {
+        return principal == null ? "" : principal.getName();
+    }
+
+    // Sin Idempotency-Key ejecuta directamente; con clave, un reintento (o un duplicado
+    // concurrente) recibe la respuesta de la primera ejecución
+    private <T> CompletableFuture<ResponseEntity<T>> idempotente(String idempotencyKey, Principal principal,
+            Object huella, Supplier<ResponseEntity<T>> operacion) {
+        try {
+            return idempotenciaService.ejecutar(idempotencyKey, actor(principal), huella, operacion);
+        } catch (ClaveIdempotenciaReutilizadaException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST));
+        }
+    }
+
     // Refactor: Los métodos de conversión ahora usan los campos de fecha y hora
     // separados
-    private ReservaDto convertToDto(Reserva reserva) {
+    ReservaDto convertToDto(Reserva reserva) {
         ReservaDto reservaDto = new ReservaDto();
         reservaDto.setId(reserva.getId());
         reservaDto.setFechaReserva(reserva.getFechaReserva());
@@ -167,7 +574,12 @@ public class ReservaController {
         return reservaDto;
     }
 
-    private Reserva convertToEntity(ReservaDto reservaDto) {
+    private static RetencionDto convertToDto(RetencionSlots.Retencion retencion) {
+        return new RetencionDto(retencion.getId(), retencion.getCanchaId(), retencion.getFecha(), retencion.getHoraInicio(),
+                retencion.getUsuarioId(), null, retencion.getVenceEn());
+    }
+
+    Reserva convertToEntity(ReservaDto reservaDto) {
         Reserva reserva = new Reserva();
         reserva.setId(reservaDto.getId());
         reserva.setFechaReserva(reservaDto.getFechaReserva());
@@ -179,4 +591,35 @@ public class ReservaController {
                 .orElseThrow(() -> new IllegalArgumentException("Cancha no encontrada")));
         return reserva;
     }
+
+    // Resuelve usuarios y canchas del lote con una consulta por tipo en lugar de dos por reserva
+    private List<Reserva> convertToEntities(List<ReservaDto> reservasDto) {
+        Set<Long> usuarioIds = reservasDto.stream().map(ReservaDto::getUsuarioId).collect(Collectors.toSet());
+        Set<Long> canchaIds = reservasDto.stream().map(ReservaDto::getCanchaId).collect(Collectors.toSet());
+        if (usuarioIds.contains(null) || canchaIds.contains(null)) {
+            throw new IllegalArgumentException("Cada reserva debe indicar usuarioId y canchaId");
+        }
+        Map<Long, Usuario> usuarios = reservaService.findUsuariosById(usuarioIds).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        Map<Long, Cancha> canchas = reservaService.findCanchasById(canchaIds).stream()
+                .collect(Collectors.toMap(Cancha::getId, Function.identity()));
+
+        return reservasDto.stream().map(reservaDto -> {
+            Reserva reserva = new Reserva();
+            reserva.setFechaReserva(reservaDto.getFechaReserva());
+            reserva.setHoraInicio(reservaDto.getHoraInicio());
+            reserva.setHoraFin(reservaDto.getHoraFin());
+            Usuario usuario = usuarios.get(reservaDto.getUsuarioId());
+            if (usuario == null) {
+                throw new IllegalArgumentException("Usuario no encontrado: " + reservaDto.getUsuarioId());
+            }
+            Cancha cancha = canchas.get(reservaDto.getCanchaId());
+            if (cancha == null) {
+                throw new IllegalArgumentException("Cancha no encontrada: " + reservaDto.getCanchaId());
+            }
+            reserva.setUsuario(usuario);
+            reserva.setCancha(cancha);
+            return reserva;
+        }).toList();
+    }
 }
\ No newline at end of file
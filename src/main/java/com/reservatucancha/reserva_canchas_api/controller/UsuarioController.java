@@ -1,5 +1,6 @@
 package com.reservatucancha.reserva_canchas_api.controller;
 
+import com.reservatucancha.reserva_canchas_api.dto.PaginaDto;
 import com.reservatucancha.reserva_canchas_api.entity.Usuario;
 import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,7 +13,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -26,13 +26,18 @@ public class UsuarioController {
         this.usuarioService = usuarioService;
     }
 
-    @Operation(summary = "Obtener todos los usuarios", description = "Retorna una lista de todos los usuarios registrados en el sistema")
+    @Operation(summary = "Obtener usuarios paginados", description = "Retorna los usuarios registrados ordenados por ID, paginados por cursor. "
+            +
+            "Para la siguiente página enviar en 'after' el valor de 'siguienteCursor' de la respuesta.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Usuario.class)))
+            @ApiResponse(responseCode = "200", description = "Página de usuarios obtenida exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginaDto.class)))
     })
     @GetMapping
-    public List<Usuario> getAllUsuarios() {
-        return usuarioService.findAll();
+    public PaginaDto<Usuario> getAllUsuarios(
+            @Parameter(description = "Cursor: ID del último usuario recibido (exclusivo)", example = "150") @RequestParam(required = false) Long after,
+            @Parameter(description = "Cantidad de usuarios por página (máximo 500)", example = "50") @RequestParam(required = false) Integer limit) {
+        int limite = PaginaDto.normalizarLimite(limit);
+        return PaginaDto.desde(usuarioService.findPagina(after, limite), limite, Usuario::getId, usuario -> usuario);
     }
 
     @Operation(summary = "Obtener usuario por ID", description = "Retorna los detalles de un usuario específico por su ID")
@@ -0,0 +1,45 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Matriz de ocupación de varias canchas en un rango de fechas, codificada como máscaras de bits")
+public class DisponibilidadDto {
+
+    @Schema(description = "Primer día del rango (posición 0 de cada arreglo)", example = "2025-03-10")
+    private LocalDate desde;
+
+    @Schema(description = "Último día del rango, inclusive", example = "2025-03-16")
+    private LocalDate hasta;
+
+    @Schema(description = "Por cada ID de cancha, su grilla de slots (cada cancha puede tener su propio horario)")
+    private Map<Long, Grilla> grillas;
+
+    @Schema(description = "Por cada ID de cancha, una máscara por día: el bit i en 1 indica que el slot i de la grilla "
+            + "(el que empieza a apertura + i * duracionMinutos) no está disponible. Los días en que la cancha no abre "
+            + "tienen todos los bits en 1", example = "{\"1\": [0, 5, 4095], \"2\": [0, 0, 128]}")
+    private Map<Long, long[]> ocupacion;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Grilla {
+        @Schema(description = "Hora de inicio del slot 0", example = "08:00")
+        private LocalTime apertura;
+
+        @Schema(description = "Duración de cada slot en minutos", example = "60")
+        private int duracionMinutos;
+
+        @Schema(description = "Cantidad de slots por día (hasta 64)", example = "12")
+        private int totalSlots;
+    }
+}
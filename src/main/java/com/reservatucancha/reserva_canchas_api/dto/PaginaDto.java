@@ -0,0 +1,64 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de resultados paginada por cursor (keyset)")
+public class PaginaDto<T> {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    @Schema(description = "Elementos de la página, ordenados por ID ascendente (por fecha e ID si se filtró por fechas)")
+    private List<T> contenido;
+
+    @Schema(description = "Cantidad máxima de elementos solicitada", example = "50")
+    private int limite;
+
+    @Schema(description = "Valor a enviar en 'after' para pedir la siguiente página; null si no hay más", example = "150")
+    private Long siguienteCursor;
+
+    @Schema(description = "Solo en listados por rango de fechas: valor a enviar en 'afterFecha' junto con 'after'", example = "2024-12-15")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate siguienteFecha;
+
+    /**
+     * Arma la página a partir de una consulta que pidió limite + 1 filas: la fila
+     * extra solo indica que existe una página siguiente.
+     */
+    public static <E, T> PaginaDto<T> desde(List<E> filas, int limite, Function<E, Long> id, Function<E, T> mapper) {
+        boolean hayMas = filas.size() > limite;
+        List<E> pagina = hayMas ? filas.subList(0, limite) : filas;
+        Long siguienteCursor = hayMas ? id.apply(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaDto<>(pagina.stream().map(mapper).toList(), limite, siguienteCursor, null);
+    }
+
+    /**
+     * Igual que desde, para páginas ordenadas por (fecha, ID): el cursor es el par de la última fila.
+     */
+    public static <E, T> PaginaDto<T> desde(List<E> filas, int limite, Function<E, Long> id, Function<E, LocalDate> fecha,
+            Function<E, T> mapper) {
+        PaginaDto<T> pagina = desde(filas, limite, id, mapper);
+        if (pagina.getSiguienteCursor() != null) {
+            pagina.setSiguienteFecha(fecha.apply(filas.get(limite - 1)));
+        }
+        return pagina;
+    }
+
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null || limite < 1) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+}
@@ -0,0 +1,39 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resumen de una importación masiva desde CSV")
+public class ResultadoImportacionDto {
+
+    @Schema(description = "Filas de datos leídas (sin contar el encabezado)", example = "100000")
+    private long filasLeidas;
+
+    @Schema(description = "Filas insertadas", example = "99990")
+    private long filasImportadas;
+
+    @Schema(description = "Filas rechazadas", example = "10")
+    private long filasConError;
+
+    @Schema(description = "Detalle de las filas rechazadas (se reportan como máximo 1000)")
+    private List<ErrorFila> errores = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        @Schema(description = "Número de línea en el archivo (el encabezado es la línea 1)", example = "42")
+        private long linea;
+
+        @Schema(description = "Motivo del rechazo", example = "Usuario no encontrado: ana@correo.com")
+        private String mensaje;
+    }
+}
@@ -0,0 +1,23 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de crear una serie de reservas recurrentes")
+public class ResultadoSerieDto {
+
+    @Schema(description = "Reservas creadas, en orden de fecha")
+    private List<ReservaDto> reservas = new ArrayList<>();
+
+    @Schema(description = "Fechas de la serie que no se crearon porque el slot ya estaba reservado o retenido")
+    private List<LocalDate> fechasEnConflicto = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Retención temporal de un slot mientras se completa el pago")
+public class RetencionDto {
+
+    @Schema(description = "ID de la retención, para confirmarla o cancelarla", example = "0b6f8a52-3c1d-4e8f-9a7b-2d4c6e8f0a1b", accessMode = Schema.AccessMode.READ_ONLY)
+    private String id;
+
+    @Schema(description = "ID de la cancha", example = "1")
+    private Long canchaId;
+
+    @Schema(description = "Fecha del slot", example = "2024-12-15")
+    private LocalDate fechaReserva;
+
+    @Schema(description = "Hora de inicio del slot (formato 24h)", example = "14:00")
+    private LocalTime horaInicio;
+
+    @Schema(description = "ID del usuario para el que se creará la reserva", example = "1")
+    private Long usuarioId;
+
+    @Schema(description = "Minutos que dura la retención; si se omite se usa el valor configurado", example = "5")
+    private Integer minutos;
+
+    @Schema(description = "Momento en que vence la retención si no se confirma", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant venceEn;
+}
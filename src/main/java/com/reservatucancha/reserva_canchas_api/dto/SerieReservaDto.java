@@ -0,0 +1,56 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Serie de reservas recurrentes del mismo slot (por ejemplo, todos los martes a las 19:00)")
+public class SerieReservaDto {
+
+    @Schema(description = "ID de la cancha", example = "1")
+    private Long canchaId;
+
+    @Schema(description = "ID del usuario que realiza las reservas", example = "1")
+    private Long usuarioId;
+
+    @Schema(description = "Fecha de la primera reserva; las siguientes caen el mismo día de la semana", example = "2024-12-03")
+    private LocalDate fechaInicio;
+
+    @Schema(description = "Hora de inicio de cada reserva (formato 24h)", example = "19:00")
+    private LocalTime horaInicio;
+
+    @Schema(description = "Cada cuánto se repite", example = "SEMANAL")
+    private Frecuencia frecuencia;
+
+    @Schema(description = "Última fecha posible de la serie (inclusive); se indica esta o 'repeticiones'", example = "2025-04-15")
+    private LocalDate hasta;
+
+    @Schema(description = "Cantidad de reservas de la serie; se indica esta o 'hasta'", example = "20")
+    private Integer repeticiones;
+
+    @Schema(description = "Si es true se crean las fechas libres y se informan las ocupadas; si es false (por defecto) "
+            + "cualquier fecha ocupada rechaza toda la serie", example = "false")
+    private boolean aceptarParcial;
+
+    public enum Frecuencia {
+        SEMANAL(7),
+        QUINCENAL(14);
+
+        private final int dias;
+
+        Frecuencia(int dias) {
+            this.dias = dias;
+        }
+
+        public int getDias() {
+            return dias;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.LocalTime;
+
 @Data // Genera getters, setters, toString, equals y hashCode de Lombok
 @NoArgsConstructor // Genera un constructor sin argumentos de Lombok
 @AllArgsConstructor // Genera un constructor con todos los argumentos de Lombok
@@ -39,4 +41,21 @@ public class Cancha {
     @Schema(description = "Ubicación física de la cancha", example = "Sector Norte, Cancha #1")
     private String ubicacion;
 
+    // Horario de la cancha; los valores nulos toman el horario por defecto (ver GrillaSlots)
+    @Column(name = "hora_apertura")
+    @Schema(description = "Hora de apertura; por defecto 08:00", example = "06:00")
+    private LocalTime horaApertura;
+
+    @Column(name = "hora_cierre")
+    @Schema(description = "Hora de cierre (fin del último slot); por defecto 20:00, 00:00 indica medianoche", example = "23:00")
+    private LocalTime horaCierre;
+
+    @Column(name = "duracion_slot_minutos")
+    @Schema(description = "Duración de cada slot en minutos; por defecto 60", example = "30")
+    private Integer duracionSlotMinutos;
+
+    @Column(name = "dias_cerrados")
+    @Schema(description = "Días de la semana en que no abre, separados por coma (MONDAY ... SUNDAY)", example = "SUNDAY")
+    private String diasCerrados;
+
 }
\ No newline at end of file
@@ -11,11 +11,27 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reserva")
+@Table(name = "reserva", uniqueConstraints = {
+        // Un slot solo puede reservarse una vez; también sirve de índice para consultar por cancha y fecha
+        @UniqueConstraint(name = Reserva.UK_SLOT, columnNames = { "cancha_id", "fecha_reserva", "hora_inicio" })
+}, indexes = {
+        // Listado por usuario ya ordenado por fecha y hora
+        @Index(name = "idx_reserva_usuario_fecha", columnList = "usuario_id, fecha_reserva, hora_inicio"),
+        // Listado y paginación por rango de fechas sobre todas las canchas, con cursor (fecha, id)
+        @Index(name = "idx_reserva_fecha_id", columnList = "fecha_reserva, id")
+})
 public class Reserva {
 
+    public static final String UK_SLOT = "uk_reserva_cancha_fecha_hora";
+    public static final String SECUENCIA = "reserva_seq";
+    public static final int IDS_POR_BLOQUE = 50;
+
+    // Secuencia con asignación por bloques (pooled): Hibernate reserva 50 IDs por consulta
+    // y puede agrupar los INSERT en lotes JDBC, cosa que IDENTITY impide.
+    // SecuenciaReservas la alinea con los IDs existentes al arrancar
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SECUENCIA)
+    @SequenceGenerator(name = SECUENCIA, sequenceName = SECUENCIA, allocationSize = IDS_POR_BLOQUE)
     private Long id;
 
     @Column(name = "fecha_reserva")
@@ -0,0 +1,12 @@
+package com.reservatucancha.reserva_canchas_api.exception;
+
+/**
+ * Se lanza cuando se reutiliza una Idempotency-Key con una petición distinta de la
+ * original (otro endpoint u otro cuerpo); se responde 422.
+ */
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ClaveIdempotenciaReutilizadaException(String message) {
+        super(message);
+    }
+}
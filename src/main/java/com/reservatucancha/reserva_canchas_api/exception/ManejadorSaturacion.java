@@ -0,0 +1,32 @@
+package com.reservatucancha.reserva_canchas_api.exception;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Traduce el agotamiento del pool de conexiones en un 503 con Retry-After.
+ * Con hilos virtuales no hay límite de hilos de Tomcat: el pool de Hikari es el que
+ * limita cuántas peticiones llegan a la base de datos, y las que esperan más de
+ * spring.datasource.hikari.connection-timeout se rechazan aquí en lugar de acumularse.
+ */
+@RestControllerAdvice
+public class ManejadorSaturacion {
+
+    private final long reintentarEnSegundos;
+
+    public ManejadorSaturacion(@Value("${base-datos.retry-after-segundos:2}") long reintentarEnSegundos) {
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<String> poolAgotado(CannotCreateTransactionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEnSegundos))
+                .body("Base de datos saturada, intente nuevamente");
+    }
+}
@@ -0,0 +1,12 @@
+package com.reservatucancha.reserva_canchas_api.exception;
+
+/**
+ * Se lanza al confirmar o cancelar una retención de slot que ya no está activa
+ * (venció, se canceló o no es del usuario); se responde 410.
+ */
+public class RetencionVencidaException extends RuntimeException {
+
+    public RetencionVencidaException(String message) {
+        super(message);
+    }
+}
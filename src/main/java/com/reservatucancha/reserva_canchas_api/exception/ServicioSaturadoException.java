@@ -0,0 +1,19 @@
+package com.reservatucancha.reserva_canchas_api.exception;
+
+/**
+ * Se lanza cuando un recurso acotado (por ejemplo el pool de cifrado de contraseñas)
+ * no admite más trabajo; se responde 503 con Retry-After.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
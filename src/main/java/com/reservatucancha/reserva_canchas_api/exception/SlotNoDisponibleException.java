@@ -0,0 +1,15 @@
+package com.reservatucancha.reserva_canchas_api.exception;
+
+/**
+ * Se lanza cuando el slot (cancha, fecha, hora de inicio) ya está reservado.
+ */
+public class SlotNoDisponibleException extends RuntimeException {
+
+    public SlotNoDisponibleException(String message) {
+        super(message);
+    }
+
+    public SlotNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
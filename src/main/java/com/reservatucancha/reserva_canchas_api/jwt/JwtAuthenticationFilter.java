@@ -2,6 +2,8 @@
 package com.reservatucancha.reserva_canchas_api.jwt;
 
 import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,11 +16,14 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Optional;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private JwtTokenProvider tokenProvider;
     private UsuarioService usuarioService;
+    private Timer tiempoVerificacion;
+    private Timer tiempoUsuario;
 
     @Autowired
     public void setTokenProvider(JwtTokenProvider tokenProvider) {
@@ -30,16 +35,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         this.usuarioService = usuarioService;
     }
 
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.tiempoVerificacion = tiempo(meterRegistry, "verificacion");
+        this.tiempoUsuario = tiempo(meterRegistry, "usuario");
+    }
+
+    // Parseo/verificación del token y carga del principal, por separado
+    private static Timer tiempo(MeterRegistry registry, String fase) {
+        return Timer.builder("seguridad.jwt")
+                .description("Tiempo del filtro JWT por fase")
+                .tag("fase", fase)
+                .register(registry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         String token = getJwtFromRequest(request);
 
-        if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
-            String username = tokenProvider.getUsernameFromJwt(token);
+        // Una sola verificación por petición (o ninguna si el token ya está en caché)
+        Optional<TokenVerificado> verificado = StringUtils.hasText(token)
+                ? tiempoVerificacion.record(() -> tokenProvider.verificar(token))
+                : Optional.empty();
+        if (verificado.isPresent()) {
+            String username = verificado.get().username();
 
-            UserDetails userDetails = usuarioService.loadUserByUsername(username);
+            // Desde la caché de principales: sin consulta a la base en estado estable
+            UserDetails userDetails = tiempoUsuario.record(() -> usuarioService.loadPrincipal(username));
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,21 +1,65 @@
 package com.reservatucancha.reserva_canchas_api.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
     private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
 
+    // El parser es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
     private final long JWT_EXPIRATION = 604800000L; // 7 días en milisegundos
 
+    private static final int TOKENS_EN_CACHE = 10000;
+
+    // Tokens ya verificados, por digest SHA-256; cada entrada vence junto con el token
+    private final Cache<String, TokenVerificado> verificados = Caffeine.newBuilder()
+            .maximumSize(TOKENS_EN_CACHE)
+            .expireAfter(new Expiry<String, TokenVerificado>() {
+                @Override
+                public long expireAfterCreate(String digest, TokenVerificado token, long currentTime) {
+                    if (token.expiration() == null) {
+                        return Long.MAX_VALUE;
+                    }
+                    long restante = token.expiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(restante, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, TokenVerificado token, long currentTime,
+                        long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String digest, TokenVerificado token, long currentTime,
+                        long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
         Date currentDate = new Date();
@@ -31,49 +75,79 @@ public class JwtTokenProvider {
         return token;
     }
 
-    public String getUsernameFromJwt(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    /**
+     * Verifica firma y vigencia del token una sola vez y devuelve sus claims.
+     * Si el mismo token se verificó hace poco se responde desde la caché sin parsearlo.
+     * Vacío si el token es inválido, está malformado o expiró.
+     */
+    public Optional<TokenVerificado> verificar(String token) {
+        String digest = digest(token);
+        TokenVerificado verificado = verificados.getIfPresent(digest);
+        if (verificado == null) {
+            verificado = parsear(token);
+            if (verificado == null) {
+                return Optional.empty();
+            }
+            verificados.put(digest, verificado);
+        }
+        return verificado.isExpired() ? Optional.empty() : Optional.of(verificado);
     }
-    
-    public boolean validateToken(String token) {
+
+    public CacheStats estadisticasVerificados() {
+        return verificados.stats();
+    }
+
+    public long verificadosEnCache() {
+        return verificados.estimatedSize();
+    }
+
+    /**
+     * Parseo y verificación de firma sin pasar por la caché; null si el token no es válido.
+     */
+    public TokenVerificado parsear(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new TokenVerificado(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration());
         } catch (Exception e) {
-            // Aquí puedes registrar el error si el token no es válido
+            return null;
         }
-        return false;
+    }
+
+    public String getUsernameFromJwt(String token) {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+    
+    public boolean validateToken(String token) {
+        return verificar(token).isPresent();
     }
     
     public Claims getClaimsFromToken(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             return null;
         }
     }
     
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims != null ? claims.getExpiration() : null;
+        return verificar(token).map(TokenVerificado::expiration).orElse(null);
     }
     
     public Date getIssuedAtFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims != null ? claims.getIssuedAt() : null;
+        return verificar(token).map(TokenVerificado::issuedAt).orElse(null);
     }
     
     public boolean isTokenExpired(String token) {
         Date expiration = getExpirationDateFromToken(token);
         return expiration != null && expiration.before(new Date());
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
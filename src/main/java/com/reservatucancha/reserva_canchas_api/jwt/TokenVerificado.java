@@ -0,0 +1,13 @@
+package com.reservatucancha.reserva_canchas_api.jwt;
+
+import java.util.Date;
+
+/**
+ * Claims de un token cuya firma ya fue verificada.
+ */
+public record TokenVerificado(String username, Date issuedAt, Date expiration) {
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,122 @@
+package com.reservatucancha.reserva_canchas_api.limite;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks implementado como GCRA (generic cell rate algorithm): cada
+ * bucket es un único AtomicLong con el "tiempo teórico de llegada" (TAT) de la próxima
+ * petición. Admitir una petición es un compareAndSet que lo adelanta un intervalo
+ * (periodo / capacidad); se rechaza si eso lo deja más de una ráfaga completa por
+ * delante del reloj. Equivale a un bucket de capacidad fichas que se rellena de a una
+ * por intervalo, sin hilo de recarga ni timestamps por ficha.
+ *
+ * Los buckets viven en una caché acotada que descarta los inactivos; un bucket que se
+ * descarta vuelve lleno, que es el estado al que habría llegado de todos modos.
+ */
+@Component
+public class LimitadorTasa {
+
+    private final boolean habilitado;
+    private final List<Regla> reglas;
+    private final Cache<String, AtomicLong> buckets;
+
+    public LimitadorTasa(LimiteProperties propiedades) {
+        this.habilitado = propiedades.habilitado();
+        PathPatternParser parser = new PathPatternParser();
+        this.reglas = propiedades.rutas().stream()
+                .map(regla -> new Regla(regla, parser.parse(regla.patron())))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(propiedades.maximoBuckets())
+                .expireAfterAccess(propiedades.inactividad())
+                // Mantenimiento en el hilo de la petición: evita despertar un hilo del
+                // ForkJoinPool común en cada acceso, que costaba más que el propio límite
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Regla compilada: intervalo entre peticiones y tolerancia de ráfaga en nanosegundos.
+     */
+    public static final class Regla {
+        private final String nombre;
+        private final String metodo;
+        private final PathPattern patron;
+        private final LimiteProperties.Clave por;
+        private final long intervalo;
+        private final long rafaga;
+
+        Regla(LimiteProperties.Regla regla, PathPattern patron) {
+            if (regla.capacidad() < 1 || regla.periodo() == null || regla.periodo().isZero() || regla.periodo().isNegative()) {
+                throw new IllegalArgumentException("Regla de límite '" + regla.nombre() + "': capacidad y periodo deben ser positivos");
+            }
+            this.nombre = regla.nombre();
+            this.metodo = regla.metodo();
+            this.patron = patron;
+            this.por = regla.por();
+            this.intervalo = Math.max(1, regla.periodo().toNanos() / regla.capacidad());
+            this.rafaga = intervalo * regla.capacidad();
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public LimiteProperties.Clave por() {
+            return por;
+        }
+
+        boolean coincide(String metodoPeticion, PathContainer ruta) {
+            return (metodo.isEmpty() || metodo.equalsIgnoreCase(metodoPeticion)) && patron.matches(ruta);
+        }
+    }
+
+    public boolean habilitado() {
+        return habilitado && !reglas.isEmpty();
+    }
+
+    /**
+     * Primera regla que aplica a la petición, o null si ninguna.
+     */
+    public Regla buscar(String metodo, String ruta) {
+        PathContainer contenedor = PathContainer.parsePath(ruta);
+        for (Regla regla : reglas) {
+            if (regla.coincide(metodo, contenedor)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Consume una ficha del bucket (regla, clave). Devuelve 0 si se admite la petición o
+     * los nanosegundos a esperar hasta que haya una ficha disponible.
+     */
+    public long intentar(Regla regla, String clave) {
+        long ahora = System.nanoTime();
+        AtomicLong tat = buckets.get(regla.nombre + '|' + clave, c -> new AtomicLong(ahora));
+        while (true) {
+            long actual = tat.get();
+            long siguiente = Math.max(actual, ahora) + regla.intervalo;
+            long espera = siguiente - regla.rafaga - ahora;
+            if (espera > 0) {
+                return espera;
+            }
+            if (tat.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    public long bucketsActivos() {
+        return buckets.estimatedSize();
+    }
+}
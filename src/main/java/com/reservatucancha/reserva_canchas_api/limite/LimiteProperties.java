@@ -0,0 +1,40 @@
+package com.reservatucancha.reserva_canchas_api.limite;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Presupuestos de peticiones por ruta (prefijo "limite" en application.properties).
+ * Las reglas se evalúan en orden y se aplica la primera que coincide con el método y la ruta.
+ */
+@ConfigurationProperties(prefix = "limite")
+public record LimiteProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("100000") long maximoBuckets,
+        @DefaultValue("10m") Duration inactividad,
+        @DefaultValue List<Regla> rutas) {
+
+    /**
+     * capacidad peticiones por periodo, admitidas también todas juntas como ráfaga.
+     * metodo vacío coincide con cualquiera; el patrón usa la sintaxis de PathPattern.
+     */
+    public record Regla(
+            String nombre,
+            @DefaultValue("") String metodo,
+            String patron,
+            int capacidad,
+            Duration periodo,
+            @DefaultValue("USUARIO") Clave por) {
+    }
+
+    /**
+     * USUARIO: un bucket por usuario autenticado (por IP si la petición es anónima).
+     * IP: por dirección del cliente. GLOBAL: un solo bucket para la ruta (descarte de carga).
+     */
+    public enum Clave {
+        USUARIO, IP, GLOBAL
+    }
+}
@@ -0,0 +1,90 @@
+package com.reservatucancha.reserva_canchas_api.limite;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica LimitadorTasa después de JwtAuthenticationFilter, cuando ya se conoce el usuario.
+ * Al exceder el presupuesto responde 429 con Retry-After sin llegar al controlador.
+ *
+ * No se registra como bean: si lo fuera, Spring Boot también lo montaría como filtro del
+ * servlet, delante de la cadena de seguridad, y vería todas las peticiones como anónimas.
+ */
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private static final byte[] CUERPO = "Demasiadas peticiones, intente nuevamente más tarde".getBytes(StandardCharsets.UTF_8);
+
+    private final LimitadorTasa limitador;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> rechazos = new ConcurrentHashMap<>();
+
+    public LimiteTasaFilter(LimitadorTasa limitador, MeterRegistry meterRegistry) {
+        this.limitador = limitador;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limitador.habilitado();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitadorTasa.Regla regla = limitador.buscar(request.getMethod(), request.getRequestURI());
+        if (regla != null) {
+            long espera = limitador.intentar(regla, clave(regla, request));
+            if (espera > 0) {
+                rechazar(regla, espera, response);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clave(LimitadorTasa.Regla regla, HttpServletRequest request) {
+        switch (regla.por()) {
+            case GLOBAL:
+                return "*";
+            case USUARIO:
+                Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+                if (autenticacion != null && autenticacion.isAuthenticated()
+                        && !(autenticacion instanceof AnonymousAuthenticationToken)) {
+                    return "u:" + autenticacion.getName();
+                }
+                // Sin usuario se limita por IP
+            default:
+                // Detrás de un proxy, server.forward-headers-strategy hace que sea la IP del cliente
+                return "ip:" + request.getRemoteAddr();
+        }
+    }
+
+    private void rechazar(LimitadorTasa.Regla regla, long esperaNanos, HttpServletResponse response) throws IOException {
+        rechazos.computeIfAbsent(regla.nombre(), nombre -> Counter.builder("limite.rechazadas")
+                .description("Peticiones rechazadas con 429 por regla de límite")
+                .tag("regla", nombre)
+                .register(meterRegistry)).increment();
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getOutputStream().write(CUERPO);
+    }
+}
@@ -1,9 +1,21 @@
 package com.reservatucancha.reserva_canchas_api.repository;
 
 import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CanchaRepository extends JpaRepository<Cancha, Long> {
+
+    @Query("select c.id from Cancha c where c.id in :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // Paginación por cursor sobre la clave primaria
+    List<Cancha> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.reservatucancha.reserva_canchas_api.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Proyección del horario completo de una reserva, para ubicarla en la grilla de su cancha
+ * aunque se haya hecho con otro horario (ver GrillaSlots.cubiertos).
+ */
+public record HorarioOcupado(Long canchaId, LocalDate fechaReserva, LocalTime horaInicio, LocalTime horaFin) {
+}
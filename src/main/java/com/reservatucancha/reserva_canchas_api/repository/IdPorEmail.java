@@ -0,0 +1,7 @@
+package com.reservatucancha.reserva_canchas_api.repository;
+
+/**
+ * Proyección mínima para resolver usuarios por email.
+ */
+public record IdPorEmail(String email, Long id) {
+}
@@ -1,9 +1,111 @@
 package com.reservatucancha.reserva_canchas_api.repository;
 
+import com.reservatucancha.reserva_canchas_api.dto.ReservaDto;
 import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
-}
\ No newline at end of file
+
+    // Listados: proyección directa a ReservaDto en una sola sentencia, sin cargar entidades
+    // ni tocar las asociaciones LAZY (los IDs salen de las columnas usuario_id y cancha_id)
+    String SELECT_DTO = "select new com.reservatucancha.reserva_canchas_api.dto.ReservaDto("
+            + "r.id, r.fechaReserva, r.horaInicio, r.horaFin, r.usuario.id, r.cancha.id) from Reserva r ";
+
+    // Lectura de una reserva siempre contra la base de datos: una proyección no pasa por el
+    // contexto de persistencia, que con open-in-view puede tener la entidad de antes del lock
+    @Query(SELECT_DTO + "where r.id = :id")
+    Optional<ReservaDto> findDtoById(@Param("id") Long id);
+
+    // Baja por ID en una sola sentencia; devuelve 0 si otra baja ya la eliminó
+    @Transactional
+    @Modifying
+    @Query("delete from Reserva r where r.id = :id")
+    int eliminarPorId(@Param("id") Long id);
+
+    // Paginación por cursor: rango sobre la clave primaria, el costo no depende de la profundidad
+    @Query(SELECT_DTO + "where r.id > :after order by r.id")
+    List<ReservaDto> findPagina(@Param("after") Long after, Limit limit);
+
+    // Paginación restringida a un rango de fechas, con cursor (fecha, id) en el orden del índice
+    // idx_reserva_fecha_id: arranca en la fecha del cursor y corta en el límite, sin ordenar.
+    // Solo se descartan las filas del día del cursor con ID menor o igual
+    @Query(SELECT_DTO + "where r.fechaReserva >= :fecha and r.fechaReserva <= :hasta "
+            + "and (r.fechaReserva > :fecha or r.id > :after) order by r.fechaReserva, r.id")
+    List<ReservaDto> findPaginaEnRango(@Param("fecha") LocalDate fecha, @Param("after") Long after,
+            @Param("hasta") LocalDate hasta, Limit limit);
+
+    // Reservas de un usuario en orden cronológico (índice idx_reserva_usuario_fecha, sin ordenar en memoria)
+    @Query(SELECT_DTO + "where r.usuario.id = :usuarioId order by r.fechaReserva, r.horaInicio")
+    List<ReservaDto> findByUsuario(@Param("usuarioId") Long usuarioId);
+
+    // Solo las que todavía no empezaron: días posteriores a hoy, o de hoy desde la hora indicada
+    @Query(SELECT_DTO + "where r.usuario.id = :usuarioId "
+            + "and (r.fechaReserva > :hoy or (r.fechaReserva = :hoy and r.horaInicio >= :ahora)) "
+            + "order by r.fechaReserva, r.horaInicio")
+    List<ReservaDto> findProximasByUsuario(@Param("usuarioId") Long usuarioId, @Param("hoy") LocalDate hoy,
+            @Param("ahora") LocalTime ahora);
+
+    // Agenda de una cancha en un rango de fechas (recorre el índice único en orden)
+    @Query(SELECT_DTO + "where r.cancha.id = :canchaId and r.fechaReserva between :desde and :hasta "
+            + "order by r.fechaReserva, r.horaInicio")
+    List<ReservaDto> findByCanchaEnRango(@Param("canchaId") Long canchaId, @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta);
+
+    // Horarios ocupados de una cancha en un día (carga del índice de disponibilidad)
+    @Query("select new com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado("
+            + "r.cancha.id, r.fechaReserva, r.horaInicio, r.horaFin) "
+            + "from Reserva r where r.cancha.id = :canchaId and r.fechaReserva = :fecha")
+    List<HorarioOcupado> findHorariosByCanchaAndFecha(@Param("canchaId") Long canchaId,
+            @Param("fecha") LocalDate fecha);
+
+    // Horarios ocupados de un conjunto de canchas y fechas en una sola consulta (usa el índice único)
+    @Query("select new com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado("
+            + "r.cancha.id, r.fechaReserva, r.horaInicio, r.horaFin) "
+            + "from Reserva r where r.cancha.id in :canchaIds and r.fechaReserva in :fechas")
+    List<HorarioOcupado> findHorariosOcupados(@Param("canchaIds") Collection<Long> canchaIds,
+            @Param("fechas") Collection<LocalDate> fechas);
+
+    // Fechas de una serie en las que alguna reserva se superpone con el horario [horaInicio, horaFin),
+    // en una sola consulta sobre el índice único
+    @Query("select distinct r.fechaReserva from Reserva r where r.cancha.id = :canchaId "
+            + "and r.fechaReserva in :fechas and r.horaInicio < :horaFin and r.horaFin > :horaInicio")
+    List<LocalDate> findFechasOcupadas(@Param("canchaId") Long canchaId, @Param("horaInicio") LocalTime horaInicio,
+            @Param("horaFin") LocalTime horaFin, @Param("fechas") Collection<LocalDate> fechas);
+
+    // Horarios ocupados de varias canchas en un rango de fechas (matriz de disponibilidad)
+    @Query("select new com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado("
+            + "r.cancha.id, r.fechaReserva, r.horaInicio, r.horaFin) "
+            + "from Reserva r where r.cancha.id in :canchaIds and r.fechaReserva between :desde and :hasta")
+    List<HorarioOcupado> findHorariosOcupadosEnRango(@Param("canchaIds") Collection<Long> canchaIds,
+            @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Exportación: proyección directa a DTO leída con cursor del servidor (fetch size),
+    // sin entidades administradas ni asociaciones LAZY. Los filtros nulos se ignoran.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.reservatucancha.reserva_canchas_api.dto.ReservaDto("
+            + "r.id, r.fechaReserva, r.horaInicio, r.horaFin, r.usuario.id, r.cancha.id) "
+            + "from Reserva r "
+            + "where (:desde is null or r.fechaReserva >= :desde) "
+            + "and (:hasta is null or r.fechaReserva <= :hasta) "
+            + "and (:canchaId is null or r.cancha.id = :canchaId) "
+            + "order by r.id")
+    Stream<ReservaDto> streamParaExportar(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+            @Param("canchaId") Long canchaId);
+}
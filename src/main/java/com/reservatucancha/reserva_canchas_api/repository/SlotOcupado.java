@@ -0,0 +1,10 @@
+package com.reservatucancha.reserva_canchas_api.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Proyección de las columnas que identifican el slot de una reserva.
+ */
+public record SlotOcupado(Long canchaId, LocalDate fechaReserva, LocalTime horaInicio) {
+}
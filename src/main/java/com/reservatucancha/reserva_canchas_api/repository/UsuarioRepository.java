@@ -1,9 +1,14 @@
 package com.reservatucancha.reserva_canchas_api.repository;
 
 import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     // Este método es crucial para la autenticación
     Optional<Usuario> findByEmail(String email);
+
+    // Resolución de muchos emails en una sola consulta (importación masiva)
+    @Query("select new com.reservatucancha.reserva_canchas_api.repository.IdPorEmail(u.email, u.id) "
+            + "from Usuario u where u.email in :emails")
+    List<IdPorEmail> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    // Paginación por cursor sobre la clave primaria
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa dentro del proceso las altas, cambios y bajas de reservas de un mismo
+ * día de una cancha. Usa un arreglo fijo de locks (lock striping): cada
+ * (cancha, fecha) cae siempre en el mismo lock y días o canchas distintos
+ * casi nunca comparten uno, así que no se bloquean entre sí.
+ */
+@Component
+public class BloqueoSlots {
+
+    // Potencia de dos para poder calcular el índice con una máscara
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public BloqueoSlots() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción con el lock del día de la cancha tomado.
+     */
+    public <T> T ejecutar(Long canchaId, LocalDate fecha, Supplier<T> accion) {
+        ReentrantLock lock = locks[stripe(canchaId, fecha)];
+        lock.lock();
+        try {
+            return accion.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción con los locks de todos los días indicados. Se toman en orden
+     * ascendente de índice para que dos operaciones nunca se bloqueen mutuamente.
+     */
+    public <T> T ejecutar(Collection<ClaveDia> claves, Supplier<T> accion) {
+        int[] indices = claves.stream()
+                .mapToInt(clave -> stripe(clave.canchaId(), clave.fecha()))
+                .sorted()
+                .distinct()
+                .toArray();
+        int tomados = 0;
+        try {
+            for (int indice : indices) {
+                locks[indice].lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                locks[indices[i]].unlock();
+            }
+        }
+    }
+
+    static int stripe(Long canchaId, LocalDate fecha) {
+        long h = canchaId * 0x9E3779B97F4A7C15L + fecha.toEpochDay();
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return (int) h & (STRIPES - 1);
+    }
+}
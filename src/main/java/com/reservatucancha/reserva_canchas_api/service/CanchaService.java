@@ -2,33 +2,119 @@ package com.reservatucancha.reserva_canchas_api.service;
 
 import com.reservatucancha.reserva_canchas_api.entity.Cancha;
 import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class CanchaService {
 
     private final CanchaRepository canchaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CanchaService(CanchaRepository canchaRepository) {
+    // Catálogo en memoria para las lecturas públicas. La versión arranca en el instante de
+    // inicio para que un reinicio nunca reutilice un ETag anterior.
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final ReentrantLock cambios = new ReentrantLock();
+    private volatile CatalogoCanchas catalogo;
+
+    public CanchaService(CanchaRepository canchaRepository, ApplicationEventPublisher eventPublisher) {
         this.canchaRepository = canchaRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Catálogo vigente; solo consulta la base de datos la primera vez o tras un cambio.
+     * La recarga y las escrituras se excluyen entre sí, así una misma versión nunca
+     * corresponde a dos contenidos distintos.
+     */
+    public CatalogoCanchas getCatalogo() {
+        CatalogoCanchas actual = catalogo;
+        if (actual != null && actual.version() == version.get()) {
+            return actual;
+        }
+        cambios.lock();
+        try {
+            actual = catalogo;
+            long vigente = version.get();
+            if (actual == null || actual.version() != vigente) {
+                actual = CatalogoCanchas.de(vigente, canchaRepository.findAll());
+                catalogo = actual;
+            }
+            return actual;
+        } finally {
+            cambios.unlock();
+        }
+    }
+
+    /**
+     * Grilla de slots de la cancha según el catálogo vigente (la de por defecto si no existe).
+     */
+    public GrillaSlots grilla(Long canchaId) {
+        return getCatalogo().grilla(canchaId);
+    }
+
+    /**
+     * Descarta el catálogo en memoria (por ejemplo tras una importación por JDBC).
+     */
+    public void invalidarCatalogo() {
+        version.incrementAndGet();
     }
 
     public List<Cancha> findAll() {
         return canchaRepository.findAll();
     }
 
+    /**
+     * Devuelve hasta limite + 1 elementos con ID mayor que el cursor; el elemento
+     * extra indica que hay una página siguiente.
+     */
+    public List<Cancha> findPagina(Long after, int limite) {
+        return canchaRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limite + 1));
+    }
+
+    public List<Cancha> findAllById(Iterable<Long> ids) {
+        return canchaRepository.findAllById(ids);
+    }
+
     public Optional<Cancha> findById(Long id) {
         return canchaRepository.findById(id);
     }
 
+    /**
+     * Guarda la cancha. Lanza IllegalArgumentException si el horario no es válido; si cambia
+     * la grilla de una cancha existente se avisa con HorarioCanchaCambiadoEvent.
+     */
     public Cancha save(Cancha cancha) {
-        return canchaRepository.save(cancha);
+        GrillaSlots nueva = GrillaSlots.de(cancha);
+        GrillaSlots anterior = cancha.getId() == null ? nueva : grilla(cancha.getId());
+        Cancha guardada;
+        cambios.lock();
+        try {
+            guardada = canchaRepository.save(cancha);
+        } finally {
+            version.incrementAndGet();
+            cambios.unlock();
+        }
+        // Las grillas compiladas se comparten, así que distinta instancia es distinto horario
+        if (nueva != anterior) {
+            eventPublisher.publishEvent(new HorarioCanchaCambiadoEvent(guardada.getId()));
+        }
+        return guardada;
     }
 
     public void deleteById(Long id) {
-        canchaRepository.deleteById(id);
+        cambios.lock();
+        try {
+            canchaRepository.deleteById(id);
+        } finally {
+            version.incrementAndGet();
+            cambios.unlock();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Copia inmutable del catálogo de canchas junto con su versión. La versión cambia con
+ * cada alta, modificación o baja, así que sirve como ETag fuerte de cualquier vista
+ * del catálogo (listado paginado o cancha individual). Trae además la grilla de slots
+ * de cada cancha, compilada una sola vez por versión.
+ */
+public record CatalogoCanchas(long version, NavigableMap<Long, Cancha> canchas, Map<Long, GrillaSlots> grillas) {
+
+    public static CatalogoCanchas de(long version, List<Cancha> canchas) {
+        TreeMap<Long, Cancha> porId = new TreeMap<>();
+        Map<Long, GrillaSlots> grillas = new HashMap<>();
+        for (Cancha cancha : canchas) {
+            porId.put(cancha.getId(), cancha);
+            GrillaSlots grilla = GrillaSlots.de(cancha);
+            if (grilla != GrillaSlots.POR_DEFECTO) {
+                grillas.put(cancha.getId(), grilla);
+            }
+        }
+        return new CatalogoCanchas(version, Collections.unmodifiableNavigableMap(porId), Map.copyOf(grillas));
+    }
+
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+
+    public Optional<Cancha> buscar(Long id) {
+        return Optional.ofNullable(canchas.get(id));
+    }
+
+    /**
+     * Grilla de slots de la cancha; la de por defecto si no tiene horario propio o no existe.
+     */
+    public GrillaSlots grilla(Long id) {
+        return id == null ? GrillaSlots.POR_DEFECTO : grillas.getOrDefault(id, GrillaSlots.POR_DEFECTO);
+    }
+
+    /**
+     * Mismo contrato que CanchaService.findPagina: hasta limite + 1 canchas con ID mayor
+     * que el cursor.
+     */
+    public List<Cancha> pagina(Long after, int limite) {
+        List<Cancha> pagina = new ArrayList<>(Math.min(limite + 1, canchas.size()));
+        for (Cancha cancha : canchas.tailMap(after == null ? 0L : after, false).values()) {
+            if (pagina.size() > limite) {
+                break;
+            }
+            pagina.add(cancha);
+        }
+        return pagina;
+    }
+}
@@ -0,0 +1,9 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import java.time.LocalDate;
+
+/**
+ * Identifica el día de una cancha: unidad de bloqueo y de disponibilidad.
+ */
+public record ClaveDia(Long canchaId, LocalDate fecha) {
+}
@@ -0,0 +1,237 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservatucancha.reserva_canchas_api.exception.ServicioSaturadoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reparte por Server-Sent Events los cambios de slots a quienes miran un día de una cancha.
+ *
+ * Un suscriptor inactivo solo ocupa su SseEmitter (petición asíncrona, sin hilo) y una cola
+ * acotada. Cada evento se serializa una sola vez y se encola en los suscriptores del día;
+ * el envío lo hace un hilo virtual por suscriptor solo mientras tenga eventos pendientes,
+ * así un cliente lento no frena a los demás. Si su cola se llena se lo desconecta: al
+ * reconectarse recibe el estado completo del día.
+ */
+@Component
+public class DisponibilidadBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final DisponibilidadIndex disponibilidadIndex;
+    private final BloqueoSlots bloqueoSlots;
+    private final RetencionSlots retencionSlots;
+    private final int maximoSuscriptores;
+    private final int capacidadCola;
+    private final long timeoutMs;
+
+    private final ConcurrentHashMap<ClaveDia, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+
+    public DisponibilidadBroadcaster(ObjectMapper objectMapper, DisponibilidadIndex disponibilidadIndex, BloqueoSlots bloqueoSlots,
+            RetencionSlots retencionSlots,
+            @Value("${reservas.stream.maximo-suscriptores:50000}") int maximoSuscriptores,
+            @Value("${reservas.stream.cola:32}") int capacidadCola,
+            @Value("${reservas.stream.timeout:30m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.disponibilidadIndex = disponibilidadIndex;
+        this.bloqueoSlots = bloqueoSlots;
+        this.retencionSlots = retencionSlots;
+        this.maximoSuscriptores = maximoSuscriptores;
+        this.capacidadCola = capacidadCola;
+        this.timeoutMs = timeout.toMillis();
+    }
+
+    /**
+     * Abre la suscripción al día y le envía como primer evento ("estado") la ocupación actual.
+     * El registro y la lectura del estado se hacen con el lock del día, el mismo bajo el que
+     * ReservaService publica los cambios: ningún cambio queda entre el estado y los eventos.
+     * Lanza IllegalArgumentException si la cancha no existe o la fecha pasa del horizonte.
+     */
+    public SseEmitter suscribir(Long canchaId, LocalDate fecha) {
+        disponibilidadIndex.verificarConsulta(canchaId, fecha);
+        if (total.incrementAndGet() > maximoSuscriptores) {
+            total.decrementAndGet();
+            throw new ServicioSaturadoException("Demasiadas suscripciones abiertas, intente nuevamente", 5);
+        }
+        ClaveDia clave = new ClaveDia(canchaId, fecha);
+        Suscriptor suscriptor = new Suscriptor(clave, new SseEmitter(timeoutMs), capacidadCola);
+        suscriptor.emitter.onCompletion(() -> quitar(suscriptor));
+        suscriptor.emitter.onTimeout(() -> quitar(suscriptor));
+        suscriptor.emitter.onError(error -> quitar(suscriptor));
+
+        bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+            // El alta va dentro de compute: quitar descarta el conjunto vacío con computeIfPresent
+            // y así nadie se agrega a un conjunto que ya salió del mapa
+            suscriptores.compute(clave, (c, delDia) -> {
+                Set<Suscriptor> conjunto = delDia != null ? delDia : ConcurrentHashMap.newKeySet();
+                conjunto.add(suscriptor);
+                return conjunto;
+            });
+            EstadoDia estadoDia = disponibilidadIndex.estado(canchaId, fecha);
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("canchaId", canchaId);
+            estado.put("fecha", fecha);
+            // Los slots retenidos y los días cerrados se muestran ocupados, como en /slots-disponibles
+            GrillaSlots grilla = disponibilidadIndex.grilla(canchaId);
+            estado.put("ocupados", estadoDia.mascara() | retencionSlots.mascara(canchaId, fecha) | grilla.cerrados(fecha));
+            estado.put("apertura", grilla.getApertura());
+            estado.put("duracionSlotMinutos", grilla.getDuracionMinutos());
+            estado.put("totalSlots", grilla.getTotalSlots());
+            estado.put("version", estadoDia.version());
+            encolar(suscriptor, evento("estado", estado));
+            return null;
+        });
+        return suscriptor.emitter;
+    }
+
+    // Con fallbackExecution también se recibe cuando se publica fuera de una transacción
+    // (ReservaService publica después de que el repositorio hizo commit)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotCambiado(SlotCambiadoEvent evento) {
+        Set<Suscriptor> delDia = suscriptores.get(new ClaveDia(evento.canchaId(), evento.fecha()));
+        if (delDia == null || delDia.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> frame = evento(evento.ocupado() ? "slot-ocupado" : "slot-liberado", evento);
+        for (Suscriptor suscriptor : delDia) {
+            encolar(suscriptor, frame);
+        }
+    }
+
+    /**
+     * Tras una carga masiva no hubo eventos por slot: se cierran todas las suscripciones y
+     * cada cliente, al reconectarse, recibe el estado completo del día.
+     */
+    @EventListener
+    public void onReservasImportadas(ReservasImportadasEvent evento) {
+        suscriptores.values().forEach(delDia -> delDia.forEach(this::descartar));
+    }
+
+    /**
+     * Comentario periódico para que proxies y navegadores no corten conexiones inactivas
+     * y para detectar las que ya se cerraron del otro lado.
+     */
+    @Scheduled(fixedRateString = "${reservas.stream.heartbeat-ms:15000}")
+    public void enviarHeartbeat() {
+        for (Set<Suscriptor> delDia : suscriptores.values()) {
+            for (Suscriptor suscriptor : delDia) {
+                encolar(suscriptor, heartbeat);
+            }
+        }
+    }
+
+    public int suscriptoresActivos() {
+        return total.get();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscriptores.values().forEach(delDia -> delDia.forEach(suscriptor -> suscriptor.emitter.complete()));
+        envios.shutdown();
+    }
+
+    private Set<DataWithMediaType> evento(String nombre, Object datos) {
+        try {
+            return SseEmitter.event()
+                    .id(String.valueOf(secuencia.incrementAndGet()))
+                    .name(nombre)
+                    .data(objectMapper.writeValueAsString(datos), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void encolar(Suscriptor suscriptor, Set<DataWithMediaType> frame) {
+        if (suscriptor.cerrado) {
+            return;
+        }
+        if (!suscriptor.cola.offer(frame)) {
+            // Consumidor lento: se descarta en lugar de acumular eventos sin límite
+            descartar(suscriptor);
+            return;
+        }
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> drenar(suscriptor));
+        }
+    }
+
+    // Un solo envío activo por suscriptor, así los eventos llegan en el orden en que se encolaron
+    private void drenar(Suscriptor suscriptor) {
+        do {
+            Set<DataWithMediaType> frame;
+            while ((frame = suscriptor.cola.poll()) != null) {
+                try {
+                    suscriptor.emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    descartar(suscriptor);
+                    return;
+                }
+            }
+            suscriptor.enviando.set(false);
+        } while (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true));
+    }
+
+    private void descartar(Suscriptor suscriptor) {
+        if (quitar(suscriptor)) {
+            suscriptor.emitter.complete();
+        }
+    }
+
+    private boolean quitar(Suscriptor suscriptor) {
+        if (suscriptor.cerrado) {
+            return false;
+        }
+        suscriptor.cerrado = true;
+        suscriptor.cola.clear();
+        // Baja y descarte del conjunto vacío en un solo paso atómico sobre la clave
+        suscriptores.computeIfPresent(suscriptor.clave, (c, delDia) -> {
+            if (delDia.remove(suscriptor)) {
+                total.decrementAndGet();
+            }
+            return delDia.isEmpty() ? null : delDia;
+        });
+        return true;
+    }
+
+    private static final class Suscriptor {
+        final ClaveDia clave;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> cola;
+        final AtomicBoolean enviando = new AtomicBoolean();
+        volatile boolean cerrado;
+
+        Suscriptor(ClaveDia clave, SseEmitter emitter, int capacidadCola) {
+            this.clave = clave;
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        }
+    }
+}
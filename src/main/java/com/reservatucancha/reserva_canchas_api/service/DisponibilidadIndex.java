@@ -0,0 +1,201 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado;
+import com.reservatucancha.reserva_canchas_api.repository.ReservaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de ocupación por cancha y fecha.
+ * Cada día se guarda como una máscara de bits: el bit i indica que el slot i de la
+ * grilla de la cancha (ver GrillaSlots) está reservado. Se carga de forma perezosa desde
+ * la base de datos y se mantiene actualizado con cada alta o baja de reserva.
+ * Cada día lleva además una versión que cambia con cada modificación (ver EstadoDia).
+ *
+ * Es acotado: guarda a lo sumo maximo días y descarta los que no se consultan durante
+ * inactividad. Un día descartado solo vuelve a costar una consulta al pedirse otra vez.
+ */
+@Component
+public class DisponibilidadIndex {
+
+    private final ReservaRepository reservaRepository;
+    private final BloqueoSlots bloqueoSlots;
+    private final CanchaService canchaService;
+    private final int horizonteDias;
+
+    // (cancha, fecha) -> máscara de slots ocupados y versión
+    private final Cache<ClaveDia, EstadoDia> ocupacion;
+
+    // Fuente de versiones; arranca en el instante de inicio para no repetir versiones tras un reinicio
+    private final AtomicLong versiones = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    public DisponibilidadIndex(ReservaRepository reservaRepository, BloqueoSlots bloqueoSlots, CanchaService canchaService,
+            @Value("${reservas.disponibilidad.maximo-dias:200000}") long maximo,
+            @Value("${reservas.disponibilidad.inactividad:1h}") Duration inactividad,
+            @Value("${reservas.disponibilidad.horizonte-dias:365}") int horizonteDias) {
+        this.reservaRepository = reservaRepository;
+        this.bloqueoSlots = bloqueoSlots;
+        this.canchaService = canchaService;
+        this.horizonteDias = horizonteDias;
+        this.ocupacion = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterAccess(inactividad)
+                .build();
+    }
+
+    /**
+     * Grilla con la que se arman las máscaras de la cancha.
+     */
+    public GrillaSlots grilla(Long canchaId) {
+        return canchaService.grilla(canchaId);
+    }
+
+    /**
+     * Valida una consulta pública de disponibilidad antes de que cargue el día: la cancha debe
+     * existir en el catálogo y la fecha no puede pasar del horizonte de reservas. Lanza
+     * IllegalArgumentException si no es así.
+     */
+    public void verificarConsulta(Long canchaId, LocalDate fecha) {
+        if (canchaId == null || canchaService.getCatalogo().buscar(canchaId).isEmpty()) {
+            throw new IllegalArgumentException("Cancha no encontrada: " + canchaId);
+        }
+        if (fecha.isAfter(LocalDate.now().plusDays(horizonteDias))) {
+            throw new IllegalArgumentException("Solo se consulta la disponibilidad de los próximos " + horizonteDias + " días");
+        }
+    }
+
+    /**
+     * Máscara de slots ocupados de la cancha en la fecha. Solo consulta la base de
+     * datos la primera vez que se pide ese día.
+     */
+    public long ocupados(Long canchaId, LocalDate fecha) {
+        return estado(canchaId, fecha).mascara();
+    }
+
+    /**
+     * Máscara y versión del día, leídas juntas. Misma carga perezosa que ocupados.
+     */
+    public EstadoDia estado(Long canchaId, LocalDate fecha) {
+        ClaveDia clave = new ClaveDia(canchaId, fecha);
+        EstadoDia estado = ocupacion.getIfPresent(clave);
+        if (estado != null) {
+            return estado;
+        }
+        // La consulta no se hace dentro de get(clave, loader): ese método retiene un monitor
+        // y fijaría el hilo virtual a su carrier durante el JDBC. En su lugar se carga bajo
+        // el lock del día, el mismo que toman las altas y bajas antes de tocar el índice.
+        return bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+            EstadoDia actual = ocupacion.getIfPresent(clave);
+            if (actual != null) {
+                return actual;
+            }
+            GrillaSlots grilla = grilla(canchaId);
+            EstadoDia cargado = new EstadoDia(cargar(canchaId, fecha, grilla), versiones.incrementAndGet());
+            if (grilla(canchaId) != grilla) {
+                // Cambió el horario durante la carga y onHorarioCambiado pudo no ver este día: se
+                // vuelve a cargar con la grilla nueva en lugar de guardar una máscara de la anterior
+                return estado(canchaId, fecha);
+            }
+            ocupacion.put(clave, cargado);
+            return cargado;
+        });
+    }
+
+    /**
+     * Estado del día solo si ya está en memoria; null si habría que consultar la base de datos.
+     */
+    public EstadoDia consultar(Long canchaId, LocalDate fecha) {
+        return ocupacion.getIfPresent(new ClaveDia(canchaId, fecha));
+    }
+
+    /**
+     * Indica si el slot que empieza a esa hora está ocupado según el índice.
+     */
+    public boolean estaOcupado(Long canchaId, LocalDate fecha, LocalTime horaInicio) {
+        long bit = grilla(canchaId).bit(horaInicio);
+        return bit != 0 && (ocupados(canchaId, fecha) & bit) != 0;
+    }
+
+    /**
+     * Marca como ocupados los slots que pisa el horario [horaInicio, horaFin). Si el día aún
+     * no está en memoria no hace nada: la próxima carga lo leerá de la base de datos.
+     */
+    public void ocupar(Long canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        long bits = grilla(canchaId).cubiertos(horaInicio, horaFin);
+        if (bits == 0) {
+            return;
+        }
+        ocupacion.asMap().computeIfPresent(new ClaveDia(canchaId, fecha),
+                (clave, estado) -> new EstadoDia(estado.mascara() | bits, versiones.incrementAndGet()));
+    }
+
+    /**
+     * Marca como libres los slots que pisaba el horario.
+     */
+    public void liberar(Long canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        long bits = grilla(canchaId).cubiertos(horaInicio, horaFin);
+        if (bits == 0) {
+            return;
+        }
+        ocupacion.asMap().computeIfPresent(new ClaveDia(canchaId, fecha),
+                (clave, estado) -> new EstadoDia(estado.mascara() & ~bits, versiones.incrementAndGet()));
+    }
+
+    /**
+     * Renueva la versión del día sin cambiar la máscara, para cambios que afectan la
+     * disponibilidad fuera del índice (retenciones temporales, ver RetencionSlots).
+     */
+    public void marcarCambio(Long canchaId, LocalDate fecha) {
+        ocupacion.asMap().computeIfPresent(new ClaveDia(canchaId, fecha),
+                (clave, estado) -> new EstadoDia(estado.mascara(), versiones.incrementAndGet()));
+    }
+
+    /**
+     * Descarta todo el contenido del índice (por ejemplo tras cargas masivas).
+     */
+    public void invalidar() {
+        ocupacion.invalidateAll();
+    }
+
+    /**
+     * Descarta los días cargados de la cancha: sus máscaras se armaron con la grilla anterior.
+     * Cada día se quita con el lock del día tomado; una carga en curso que no llegó a guardarse
+     * nota el cambio de grilla en estado y recarga.
+     */
+    @EventListener
+    public void onHorarioCambiado(HorarioCanchaCambiadoEvent evento) {
+        List<ClaveDia> deLaCancha = ocupacion.asMap().keySet().stream()
+                .filter(clave -> clave.canchaId().equals(evento.canchaId()))
+                .toList();
+        for (ClaveDia clave : deLaCancha) {
+            bloqueoSlots.ejecutar(clave.canchaId(), clave.fecha(), () -> ocupacion.asMap().remove(clave));
+        }
+    }
+
+    /**
+     * Elimina los días anteriores a hoy; si se vuelven a consultar se recargan.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictarFechasPasadas() {
+        LocalDate hoy = LocalDate.now();
+        ocupacion.asMap().keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+    }
+
+    private long cargar(Long canchaId, LocalDate fecha, GrillaSlots grilla) {
+        long mascara = 0L;
+        for (HorarioOcupado horario : reservaRepository.findHorariosByCanchaAndFecha(canchaId, fecha)) {
+            mascara |= grilla.cubiertos(horario.horaInicio(), horario.horaFin());
+        }
+        return mascara;
+    }
+}
@@ -0,0 +1,12 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+/**
+ * Ocupación de una cancha en un día junto con su versión. La versión sale de un contador
+ * global del índice, así que crece con cada cambio y también al recargar el día.
+ */
+public record EstadoDia(long mascara, long version) {
+
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+}
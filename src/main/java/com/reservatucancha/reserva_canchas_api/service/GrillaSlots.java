@@ -0,0 +1,258 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grilla de slots de una cancha ya compilada: apertura, largo del slot, cantidad de slots
+ * (hasta 64, uno por bit de una máscara long) y días de la semana en que no abre.
+ *
+ * Es inmutable y se comparte: las canchas con el mismo horario usan la misma instancia
+ * (ver de). Ubicar una hora en la grilla, validar una reserva o calcular qué slots pisa
+ * un horario son cuentas y operaciones de bits, sin crear objetos.
+ */
+public final class GrillaSlots {
+
+    public static final int MAXIMO_SLOTS = 64;
+    public static final LocalTime APERTURA_POR_DEFECTO = LocalTime.of(8, 0);
+    public static final LocalTime CIERRE_POR_DEFECTO = LocalTime.of(20, 0);
+    public static final int DURACION_POR_DEFECTO = 60;
+
+    // Hasta esta cantidad de slots se precalcula la lista de libres de cada máscara posible
+    private static final int MAXIMO_SLOTS_PRECALCULADOS = 12;
+
+    private static final ConcurrentHashMap<Horario, GrillaSlots> COMPILADAS = new ConcurrentHashMap<>();
+
+    public static final GrillaSlots POR_DEFECTO = compilar(APERTURA_POR_DEFECTO, CIERRE_POR_DEFECTO, DURACION_POR_DEFECTO, 0);
+
+    private final LocalTime apertura;
+    private final LocalTime cierre;
+    private final int aperturaMinutos;
+    private final int duracionMinutos;
+    private final int totalSlots;
+    private final int diasCerrados;
+    private final long todos;
+    private final String[] etiquetas;
+    private final List<String>[] libresPorMascara;
+
+    private record Horario(LocalTime apertura, LocalTime cierre, int duracionMinutos, int diasCerrados) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private GrillaSlots(Horario horario) {
+        this.apertura = horario.apertura();
+        this.aperturaMinutos = apertura.getHour() * 60 + apertura.getMinute();
+        this.duracionMinutos = horario.duracionMinutos();
+        int cierreMinutos = horario.cierre().equals(LocalTime.MIDNIGHT) ? 24 * 60
+                : horario.cierre().getHour() * 60 + horario.cierre().getMinute();
+        this.totalSlots = (cierreMinutos - aperturaMinutos) / duracionMinutos;
+        // El cierre efectivo es el fin del último slot completo
+        this.cierre = apertura.plusMinutes((long) totalSlots * duracionMinutos);
+        this.diasCerrados = horario.diasCerrados();
+        this.todos = totalSlots == 64 ? -1L : (1L << totalSlots) - 1;
+
+        this.etiquetas = new String[totalSlots];
+        for (int i = 0; i < totalSlots; i++) {
+            LocalTime inicio = apertura.plusMinutes((long) i * duracionMinutos);
+            etiquetas[i] = inicio + " - " + inicio.plusMinutes(duracionMinutos);
+        }
+        if (totalSlots <= MAXIMO_SLOTS_PRECALCULADOS) {
+            libresPorMascara = new List[1 << totalSlots];
+            for (int mascara = 0; mascara < libresPorMascara.length; mascara++) {
+                List<String> libres = new ArrayList<>(totalSlots);
+                for (int slot = 0; slot < totalSlots; slot++) {
+                    if ((mascara & (1 << slot)) == 0) {
+                        libres.add(etiquetas[slot]);
+                    }
+                }
+                libresPorMascara[mascara] = List.copyOf(libres);
+            }
+        } else {
+            libresPorMascara = null;
+        }
+    }
+
+    /**
+     * Grilla del horario de la cancha; los campos sin valor toman el horario por defecto
+     * (8:00 a 20:00 en slots de 60 minutos, todos los días). Lanza IllegalArgumentException
+     * si el horario no es válido.
+     */
+    public static GrillaSlots de(Cancha cancha) {
+        LocalTime apertura = cancha.getHoraApertura() != null ? cancha.getHoraApertura() : APERTURA_POR_DEFECTO;
+        LocalTime cierre = cancha.getHoraCierre() != null ? cancha.getHoraCierre() : CIERRE_POR_DEFECTO;
+        int duracion = cancha.getDuracionSlotMinutos() != null ? cancha.getDuracionSlotMinutos() : DURACION_POR_DEFECTO;
+        return compilar(apertura, cierre, duracion, diasCerrados(cancha.getDiasCerrados()));
+    }
+
+    private static GrillaSlots compilar(LocalTime apertura, LocalTime cierre, int duracionMinutos, int diasCerrados) {
+        if (apertura.getSecond() != 0 || apertura.getNano() != 0 || cierre.getSecond() != 0 || cierre.getNano() != 0) {
+            throw new IllegalArgumentException("La apertura y el cierre deben indicarse en horas y minutos");
+        }
+        if (duracionMinutos < 5 || duracionMinutos > 24 * 60) {
+            throw new IllegalArgumentException("La duración del slot debe estar entre 5 y 1440 minutos");
+        }
+        if (!cierre.equals(LocalTime.MIDNIGHT) && !cierre.isAfter(apertura)) {
+            throw new IllegalArgumentException("La hora de cierre debe ser posterior a la de apertura");
+        }
+        int minutos = (cierre.equals(LocalTime.MIDNIGHT) ? 24 * 60 : cierre.toSecondOfDay() / 60) - apertura.toSecondOfDay() / 60;
+        if (minutos < duracionMinutos) {
+            throw new IllegalArgumentException("Entre la apertura y el cierre debe caber al menos un slot");
+        }
+        if (minutos / duracionMinutos > MAXIMO_SLOTS) {
+            throw new IllegalArgumentException("Un día no puede tener más de " + MAXIMO_SLOTS + " slots");
+        }
+        if (diasCerrados == 0x7F) {
+            throw new IllegalArgumentException("La cancha debe abrir al menos un día de la semana");
+        }
+        return COMPILADAS.computeIfAbsent(new Horario(apertura, cierre, duracionMinutos, diasCerrados), GrillaSlots::new);
+    }
+
+    // "SATURDAY,SUNDAY" -> bits 5 y 6 (lunes es el bit 0)
+    private static int diasCerrados(String dias) {
+        int mascara = 0;
+        if (dias == null || dias.isBlank()) {
+            return mascara;
+        }
+        for (String dia : dias.split(",")) {
+            if (dia.isBlank()) {
+                continue;
+            }
+            try {
+                mascara |= 1 << DayOfWeek.valueOf(dia.trim().toUpperCase()).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Día no válido en diasCerrados: " + dia.trim());
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * Posición del slot que empieza a la hora dada, o -1 si no coincide con un inicio de la grilla.
+     */
+    public int slot(LocalTime horaInicio) {
+        if (horaInicio.getSecond() != 0 || horaInicio.getNano() != 0) {
+            return -1;
+        }
+        int desdeApertura = horaInicio.getHour() * 60 + horaInicio.getMinute() - aperturaMinutos;
+        if (desdeApertura < 0 || desdeApertura % duracionMinutos != 0) {
+            return -1;
+        }
+        int slot = desdeApertura / duracionMinutos;
+        return slot < totalSlots ? slot : -1;
+    }
+
+    /**
+     * Bit del slot que empieza a la hora dada, o 0 si no pertenece a la grilla.
+     */
+    public long bit(LocalTime horaInicio) {
+        int slot = slot(horaInicio);
+        return slot < 0 ? 0L : 1L << slot;
+    }
+
+    /**
+     * Slots que se superponen con el horario [inicio, fin). Sirve para reservas hechas con
+     * otra grilla (antes de un cambio de horario), que pueden pisar más de un slot o ninguno.
+     */
+    public long cubiertos(LocalTime inicio, LocalTime fin) {
+        int desde = inicio.toSecondOfDay() - aperturaMinutos * 60;
+        int hasta = (fin.equals(LocalTime.MIDNIGHT) || fin.isBefore(inicio) ? 24 * 3600 : fin.toSecondOfDay()) - aperturaMinutos * 60;
+        int largo = duracionMinutos * 60;
+        if (hasta <= 0 || desde >= totalSlots * largo || hasta <= desde) {
+            return 0L;
+        }
+        int primero = Math.max(0, Math.floorDiv(desde, largo));
+        int ultimo = Math.min(totalSlots - 1, Math.ceilDiv(hasta, largo) - 1);
+        return (-1L >>> (63 - ultimo)) & (-1L << primero);
+    }
+
+    /**
+     * false si la cancha no abre ese día de la semana.
+     */
+    public boolean abre(LocalDate fecha) {
+        return (diasCerrados & (1 << fecha.getDayOfWeek().ordinal())) == 0;
+    }
+
+    /**
+     * Slots que no se pueden reservar ese día por horario: todos si la cancha no abre, si no ninguno.
+     */
+    public long cerrados(LocalDate fecha) {
+        return abre(fecha) ? 0L : todos;
+    }
+
+    /**
+     * Slots libres de una máscara de ocupación, como "08:00 - 09:00"; la lista es inmutable.
+     * Con pocos slots sale de una tabla precalculada; si no, es una vista sobre la máscara.
+     */
+    public List<String> libres(long ocupados) {
+        if (libresPorMascara != null) {
+            return libresPorMascara[(int) (ocupados & todos)];
+        }
+        return new SlotsLibres(etiquetas, ~ocupados & todos);
+    }
+
+    /**
+     * Hora de fin de la reserva que empieza a la hora dada (un slot).
+     */
+    public LocalTime fin(LocalTime horaInicio) {
+        return horaInicio.plusMinutes(duracionMinutos);
+    }
+
+    public LocalTime getApertura() {
+        return apertura;
+    }
+
+    public LocalTime getCierre() {
+        return cierre;
+    }
+
+    public LocalTime getUltimoInicio() {
+        return apertura.plusMinutes((long) (totalSlots - 1) * duracionMinutos);
+    }
+
+    public int getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public int getTotalSlots() {
+        return totalSlots;
+    }
+
+    public long todos() {
+        return todos;
+    }
+
+    // Vista de solo lectura de las etiquetas cuyos bits están en 1
+    private static final class SlotsLibres extends AbstractList<String> {
+        private final String[] etiquetas;
+        private final long libres;
+
+        SlotsLibres(String[] etiquetas, long libres) {
+            this.etiquetas = etiquetas;
+            this.libres = libres;
+        }
+
+        @Override
+        public String get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException(indice);
+            }
+            long restantes = libres;
+            for (int i = 0; i < indice; i++) {
+                restantes &= restantes - 1;
+            }
+            return etiquetas[Long.numberOfTrailingZeros(restantes)];
+        }
+
+        @Override
+        public int size() {
+            return Long.bitCount(libres);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.exception.ServicioSaturadoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para el cifrado y la verificación de contraseñas (BCrypt).
+ * Saca ese trabajo de los hilos de Tomcat para que una avalancha de logins no deje
+ * sin hilos a los endpoints baratos; cuando la cola se llena rechaza de inmediato.
+ * Lo que se encadena al resultado (guardar el usuario, firmar el token) corre en hilos
+ * virtuales aparte: el pool solo hace BCrypt y no queda esperando a la base de datos.
+ */
+@Component
+public class HashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService continuaciones = Executors.newVirtualThreadPerTaskExecutor();
+    private final long reintentarEnSegundos;
+
+    public HashingExecutor(@Value("${seguridad.hashing.hilos:0}") int hilos,
+            @Value("${seguridad.hashing.cola:200}") int cola,
+            @Value("${seguridad.hashing.retry-after-segundos:2}") long reintentarEnSegundos) {
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), hilosConNombre(), new ThreadPoolExecutor.AbortPolicy());
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    /**
+     * Encola la tarea; si el pool y su cola están llenos lanza ServicioSaturadoException
+     * sin esperar. El future se completa fuera del pool, así los thenApply del llamador
+     * no ocupan sus hilos.
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, executor)
+                    .thenApplyAsync(Function.identity(), continuaciones);
+        } catch (RejectedExecutionException e) {
+            throw new ServicioSaturadoException("Servicio de autenticación saturado, intente nuevamente", reintentarEnSegundos);
+        }
+    }
+
+    public int tareasEnCola() {
+        return executor.getQueue().size();
+    }
+
+    public int tareasActivas() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+        continuaciones.shutdown();
+    }
+
+    private static ThreadFactory hilosConNombre() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "hashing-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
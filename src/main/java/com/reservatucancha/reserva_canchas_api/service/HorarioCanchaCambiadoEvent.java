@@ -0,0 +1,8 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+/**
+ * Cambió el horario (la grilla de slots) de una cancha: las máscaras de ocupación armadas
+ * con la grilla anterior ya no sirven.
+ */
+public record HorarioCanchaCambiadoEvent(Long canchaId) {
+}
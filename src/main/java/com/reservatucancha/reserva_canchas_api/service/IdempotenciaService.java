@@ -0,0 +1,83 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reservatucancha.reserva_canchas_api.exception.ClaveIdempotenciaReutilizadaException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de las operaciones enviadas con Idempotency-Key, para que un reintento
+ * reciba la respuesta original sin volver a ejecutarla.
+ *
+ * Cada clave guarda un CompletableFuture: la primera petición lo registra con putIfAbsent
+ * (sin bloquear la caché mientras ejecuta) y las duplicadas concurrentes reciben ese mismo
+ * futuro, que se completa cuando termina la original. Si la operación falla con una
+ * excepción la clave se descarta y el próximo reintento vuelve a ejecutarla.
+ * El almacén es local al proceso y acotado en tamaño y tiempo.
+ */
+@Component
+public class IdempotenciaService {
+
+    public static final int LARGO_MAXIMO_CLAVE = 255;
+
+    private final Cache<String, Entrada> resultados;
+
+    public IdempotenciaService(@Value("${reservas.idempotencia.maximo:50000}") long maximo,
+            @Value("${reservas.idempotencia.ttl:24h}") Duration ttl) {
+        this.resultados = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // La huella identifica la petición (endpoint y cuerpo); con ella se detecta una clave reutilizada
+    private record Entrada(Object huella, CompletableFuture<Object> resultado) {
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por (usuario, clave). Sin clave la ejecuta siempre.
+     * Lanza IllegalArgumentException si la clave no es válida y
+     * ClaveIdempotenciaReutilizadaException si ya se usó con otra petición.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> ejecutar(String clave, String usuario, Object huella, Supplier<T> operacion) {
+        if (clave == null) {
+            return CompletableFuture.completedFuture(operacion.get());
+        }
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new IllegalArgumentException("Idempotency-Key debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres");
+        }
+
+        // Por usuario: la clave de un cliente no puede devolver la respuesta de otro
+        String id = usuario + "\n" + clave;
+        Entrada nueva = new Entrada(huella, new CompletableFuture<>());
+        Entrada existente = resultados.asMap().putIfAbsent(id, nueva);
+        if (existente != null) {
+            if (!existente.huella().equals(huella)) {
+                throw new ClaveIdempotenciaReutilizadaException(
+                        "La Idempotency-Key ya se usó con una petición distinta");
+            }
+            // Copia: quien espera no puede completar el futuro compartido
+            return (CompletableFuture<T>) existente.resultado().copy();
+        }
+
+        try {
+            T valor = operacion.get();
+            nueva.resultado().complete(valor);
+            return CompletableFuture.completedFuture(valor);
+        } catch (RuntimeException | Error e) {
+            resultados.asMap().remove(id, nueva);
+            nueva.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long claves() {
+        return resultados.estimatedSize();
+    }
+}
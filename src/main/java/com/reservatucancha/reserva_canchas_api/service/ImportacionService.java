@@ -0,0 +1,463 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.dto.ResultadoImportacionDto;
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.IdPorEmail;
+import com.reservatucancha.reserva_canchas_api.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Carga masiva de canchas, usuarios y reservas históricas desde CSV.
+ * El archivo se lee en bloques; cada bloque se parsea y valida en paralelo,
+ * los usuarios se resuelven con una consulta por bloque y las filas se insertan
+ * con lotes JDBC, reportando el error de cada fila rechazada.
+ *
+ * Columnas esperadas (la primera línea es el encabezado y se ignora):
+ * - canchas: nombre,tipoCancha,precioPorHora,imagenUrl,ubicacion
+ * - usuarios: nombre,apellido,email,password,identificacion,telefono
+ *   (password en texto plano o ya cifrado con BCrypt; un hash que empiece con $2 debe estar bien formado)
+ * - reservas: fechaReserva,horaInicio,horaFin,canchaId,emailUsuario
+ *
+ * Las sentencias usan SQL de PostgreSQL (on conflict do nothing, nextval('...')); H2 solo
+ * sirve con MODE=PostgreSQL, como en el perfil loadtest.
+ *
+ * Las reservas importadas no pasan por ReservaService: no quedan en la bitácora de
+ * movimientos (es una carga de históricos, no un movimiento) y, en lugar de un evento por
+ * fila, al final se invalida el índice de disponibilidad y se publica un único
+ * ReservasImportadasEvent. Sí respetan las retenciones activas: cada bloque se inserta con
+ * los locks de sus días tomados y se rechazan las filas de slots retenidos.
+ */
+@Service
+public class ImportacionService {
+
+    public enum Tipo { CANCHAS, USUARIOS, RESERVAS }
+
+    private static final int FILAS_POR_BLOQUE = 5000;
+    private static final int FILAS_POR_TAREA = 500;
+    private static final int LOTE_JDBC = 1000;
+    private static final int MAXIMO_ERRORES_REPORTADOS = 1000;
+    // Mismo formato que acepta BCryptPasswordEncoder: versión, costo y 53 caracteres de sal y hash
+    private static final Pattern HASH_BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private static final String INSERT_CANCHA = "insert into cancha (nombre, tipo_cancha, precio_por_hora, imagen_url, ubicacion) "
+            + "values (?, ?, ?, ?, ?)";
+    private static final String INSERT_USUARIO = "insert into usuario (nombre, apellido, email, password, identificacion, telefono) "
+            + "values (?, ?, ?, ?, ?, ?) on conflict do nothing";
+    private static final String INSERT_RESERVA = "insert into reserva (id, fecha_reserva, hora_inicio, hora_fin, cancha_id, usuario_id) "
+            + "values (?, ?, ?, ?, ?, ?) on conflict do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UsuarioRepository usuarioRepository;
+    private final CanchaRepository canchaRepository;
+    private final CanchaService canchaService;
+    private final ReservaService reservaService;
+    private final DisponibilidadIndex disponibilidadIndex;
+    private final BloqueoSlots bloqueoSlots;
+    private final RetencionSlots retencionSlots;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    public ImportacionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            UsuarioRepository usuarioRepository, CanchaRepository canchaRepository, CanchaService canchaService, ReservaService reservaService,
+            DisponibilidadIndex disponibilidadIndex, BloqueoSlots bloqueoSlots, RetencionSlots retencionSlots,
+            PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.usuarioRepository = usuarioRepository;
+        this.canchaRepository = canchaRepository;
+        this.canchaService = canchaService;
+        this.reservaService = reservaService;
+        this.disponibilidadIndex = disponibilidadIndex;
+        this.bloqueoSlots = bloqueoSlots;
+        this.retencionSlots = retencionSlots;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        workers.shutdown();
+    }
+
+    public ResultadoImportacionDto importar(Tipo tipo, Reader reader) throws IOException {
+        ResultadoImportacionDto resultado = new ResultadoImportacionDto();
+        BufferedReader lector = new BufferedReader(reader, 64 * 1024);
+        long numeroLinea = 1;
+        if (lector.readLine() == null) {
+            return resultado;
+        }
+
+        List<Linea> bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+        String texto;
+        while ((texto = lector.readLine()) != null) {
+            numeroLinea++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            bloque.add(new Linea(numeroLinea, texto));
+            if (bloque.size() == FILAS_POR_BLOQUE) {
+                procesarBloque(tipo, bloque, resultado);
+                bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+            }
+        }
+        if (!bloque.isEmpty()) {
+            procesarBloque(tipo, bloque, resultado);
+        }
+
+        if (tipo == Tipo.CANCHAS && resultado.getFilasImportadas() > 0) {
+            canchaService.invalidarCatalogo();
+        }
+        if (tipo == Tipo.RESERVAS && resultado.getFilasImportadas() > 0) {
+            // Las reservas entraron sin pasar por ReservaService
+            disponibilidadIndex.invalidar();
+            eventPublisher.publishEvent(new ReservasImportadasEvent(resultado.getFilasImportadas()));
+        }
+        return resultado;
+    }
+
+    private void procesarBloque(Tipo tipo, List<Linea> bloque, ResultadoImportacionDto resultado) {
+        resultado.setFilasLeidas(resultado.getFilasLeidas() + bloque.size());
+        switch (tipo) {
+            case CANCHAS -> escribirCanchas(parsear(bloque, this::parsearCancha, resultado), resultado);
+            case USUARIOS -> escribirUsuarios(parsear(bloque, this::parsearUsuario, resultado), resultado);
+            case RESERVAS -> escribirReservas(parsear(bloque, this::parsearReserva, resultado), resultado);
+        }
+    }
+
+    /**
+     * Parsea y valida el bloque repartiéndolo entre los workers. Devuelve solo las
+     * filas válidas; las inválidas quedan registradas en el resultado.
+     */
+    private <T> List<Fila<T>> parsear(List<Linea> bloque, Function<List<String>, T> parser,
+            ResultadoImportacionDto resultado) {
+        List<CompletableFuture<List<Fila<T>>>> tareas = new ArrayList<>();
+        for (int desde = 0; desde < bloque.size(); desde += FILAS_POR_TAREA) {
+            List<Linea> parte = bloque.subList(desde, Math.min(desde + FILAS_POR_TAREA, bloque.size()));
+            tareas.add(CompletableFuture.supplyAsync(() -> {
+                List<Fila<T>> filas = new ArrayList<>(parte.size());
+                for (Linea linea : parte) {
+                    try {
+                        filas.add(new Fila<>(linea.numero(), parser.apply(campos(linea.texto())), null));
+                    } catch (RuntimeException e) {
+                        filas.add(new Fila<>(linea.numero(), null, mensaje(e)));
+                    }
+                }
+                return filas;
+            }, workers));
+        }
+
+        List<Fila<T>> validas = new ArrayList<>(bloque.size());
+        for (CompletableFuture<List<Fila<T>>> tarea : tareas) {
+            for (Fila<T> fila : tarea.join()) {
+                if (fila.error() == null) {
+                    validas.add(fila);
+                } else {
+                    rechazar(resultado, fila.linea(), fila.error());
+                }
+            }
+        }
+        return validas;
+    }
+
+    private Cancha parsearCancha(List<String> campos) {
+        exigirColumnas(campos, 5);
+        Cancha cancha = new Cancha();
+        cancha.setNombre(obligatorio(campos.get(0), "nombre"));
+        cancha.setTipoCancha(campos.get(1));
+        cancha.setPrecioPorHora(Double.parseDouble(obligatorio(campos.get(2), "precioPorHora")));
+        cancha.setImagenURL(campos.get(3));
+        cancha.setUbicacion(campos.get(4));
+        return cancha;
+    }
+
+    private Usuario parsearUsuario(List<String> campos) {
+        exigirColumnas(campos, 6);
+        Usuario usuario = new Usuario();
+        usuario.setNombre(campos.get(0));
+        usuario.setApellido(campos.get(1));
+        usuario.setEmail(obligatorio(campos.get(2), "email"));
+        String password = obligatorio(campos.get(3), "password");
+        // Las contraseñas ya cifradas se respetan; el resto se cifra aquí, en el worker
+        if (password.startsWith("$2") && !HASH_BCRYPT.matcher(password).matches()) {
+            throw new IllegalArgumentException("La columna password parece un hash BCrypt pero no está bien formada");
+        }
+        usuario.setPassword(password.startsWith("$2") ? password : passwordEncoder.encode(password));
+        usuario.setIdentificacion(campos.get(4));
+        usuario.setTelefono(campos.get(5));
+        return usuario;
+    }
+
+    private ReservaImportada parsearReserva(List<String> campos) {
+        exigirColumnas(campos, 5);
+        Reserva reserva = new Reserva();
+        reserva.setFechaReserva(LocalDate.parse(obligatorio(campos.get(0), "fechaReserva")));
+        reserva.setHoraInicio(LocalTime.parse(obligatorio(campos.get(1), "horaInicio")));
+        reserva.setHoraFin(LocalTime.parse(obligatorio(campos.get(2), "horaFin")));
+        Long canchaId = Long.parseLong(obligatorio(campos.get(3), "canchaId"));
+        // Con la grilla de la cancha según el catálogo vigente (la de por defecto si aún no existe)
+        reservaService.validarHorarios(reserva, canchaId);
+        return new ReservaImportada(reserva.getFechaReserva(), reserva.getHoraInicio(), reserva.getHoraFin(),
+                canchaId, obligatorio(campos.get(4), "emailUsuario"));
+    }
+
+    private void escribirCanchas(List<Fila<Cancha>> filas, ResultadoImportacionDto resultado) {
+        int[] actualizadas = insertar(INSERT_CANCHA, filas, (ps, cancha) -> {
+            ps.setString(1, cancha.getNombre());
+            ps.setString(2, cancha.getTipoCancha());
+            ps.setDouble(3, cancha.getPrecioPorHora());
+            ps.setString(4, cancha.getImagenURL());
+            ps.setString(5, cancha.getUbicacion());
+        }, resultado);
+        contar(filas, actualizadas, "No se pudo insertar la cancha", resultado);
+    }
+
+    private void escribirUsuarios(List<Fila<Usuario>> filas, ResultadoImportacionDto resultado) {
+        int[] actualizadas = insertar(INSERT_USUARIO, filas, (ps, usuario) -> {
+            ps.setString(1, usuario.getNombre());
+            ps.setString(2, usuario.getApellido());
+            ps.setString(3, usuario.getEmail());
+            ps.setString(4, usuario.getPassword());
+            ps.setString(5, usuario.getIdentificacion());
+            ps.setString(6, usuario.getTelefono());
+        }, resultado);
+        contar(filas, actualizadas, "El email o la identificación ya están registrados", resultado);
+    }
+
+    private void escribirReservas(List<Fila<ReservaImportada>> filas, ResultadoImportacionDto resultado) {
+        // Una consulta por bloque para emails y otra para canchas, en lugar de una por fila
+        Set<String> emails = filas.stream().map(fila -> fila.valor().emailUsuario()).collect(Collectors.toSet());
+        Map<String, Long> usuarios = new HashMap<>();
+        for (IdPorEmail usuario : usuarioRepository.findIdsByEmailIn(emails)) {
+            usuarios.put(usuario.email(), usuario.id());
+        }
+        Set<Long> canchas = new HashSet<>(canchaRepository.findIdsExistentes(
+                filas.stream().map(fila -> fila.valor().canchaId()).collect(Collectors.toSet())));
+
+        List<Fila<ReservaImportada>> resueltas = new ArrayList<>(filas.size());
+        for (Fila<ReservaImportada> fila : filas) {
+            ReservaImportada reserva = fila.valor();
+            if (!usuarios.containsKey(reserva.emailUsuario())) {
+                rechazar(resultado, fila.linea(), "Usuario no encontrado: " + reserva.emailUsuario());
+            } else if (!canchas.contains(reserva.canchaId())) {
+                rechazar(resultado, fila.linea(), "Cancha no encontrada: " + reserva.canchaId());
+            } else {
+                resueltas.add(fila);
+            }
+        }
+
+        Set<ClaveDia> dias = resueltas.stream()
+                .map(fila -> new ClaveDia(fila.valor().canchaId(), fila.valor().fechaReserva()))
+                .collect(Collectors.toSet());
+        // Con los locks de los días tomados, igual que ReservaService.saveAll: una retención
+        // no puede tomarse entre la verificación y el insert
+        bloqueoSlots.ejecutar(dias, () -> {
+            List<Fila<ReservaImportada>> libres = new ArrayList<>(resueltas.size());
+            for (Fila<ReservaImportada> fila : resueltas) {
+                ReservaImportada reserva = fila.valor();
+                if (retencionSlots.estaRetenido(reserva.canchaId(), reserva.fechaReserva(), reserva.horaInicio())) {
+                    rechazar(resultado, fila.linea(), "El horario está retenido por otro usuario");
+                } else {
+                    libres.add(fila);
+                }
+            }
+
+            long[] ids = reservarIds(libres.size());
+            List<Fila<ReservaImportada>> conIds = new ArrayList<>(libres.size());
+            for (int i = 0; i < libres.size(); i++) {
+                Fila<ReservaImportada> fila = libres.get(i);
+                conIds.add(new Fila<>(fila.linea(),
+                        fila.valor().conIds(ids[i], usuarios.get(fila.valor().emailUsuario())), null));
+            }
+
+            int[] actualizadas = insertar(INSERT_RESERVA, conIds, (ps, reserva) -> {
+                ps.setLong(1, reserva.id());
+                ps.setDate(2, Date.valueOf(reserva.fechaReserva()));
+                ps.setTime(3, Time.valueOf(reserva.horaInicio()));
+                ps.setTime(4, Time.valueOf(reserva.horaFin()));
+                ps.setLong(5, reserva.canchaId());
+                ps.setLong(6, reserva.usuarioId());
+            }, resultado);
+            contar(conIds, actualizadas, "El horario ya está reservado para esa cancha", resultado);
+            return null;
+        });
+    }
+
+    // Reserva IDs de la secuencia por bloques, igual que el optimizador pooled de Hibernate:
+    // nextval = n entrega n - 49 .. n
+    private long[] reservarIds(int cantidad) {
+        long[] ids = new long[cantidad];
+        for (int i = 0; i < cantidad; i += Reserva.IDS_POR_BLOQUE) {
+            long maximo = siguienteValor();
+            if (maximo < Reserva.IDS_POR_BLOQUE) {
+                // Primer valor de una secuencia nueva: el bloque tendría IDs menores que 1
+                // (en ese caso Hibernate también pide un segundo valor)
+                maximo = siguienteValor();
+            }
+            for (int j = 0; j < Reserva.IDS_POR_BLOQUE && i + j < cantidad; j++) {
+                ids[i + j] = maximo - Reserva.IDS_POR_BLOQUE + 1 + j;
+            }
+        }
+        return ids;
+    }
+
+    private long siguienteValor() {
+        return jdbcTemplate.queryForObject("select nextval('" + Reserva.SECUENCIA + "')", Long.class);
+    }
+
+    /**
+     * Inserta las filas del bloque en lotes JDBC dentro de una transacción y devuelve
+     * las filas afectadas por cada sentencia, en el mismo orden. Si el bloque falla
+     * por completo devuelve null y todas sus filas se reportan con el error.
+     */
+    private <T> int[] insertar(String sql, List<Fila<T>> filas, ParametrosFila<T> parametros,
+            ResultadoImportacionDto resultado) {
+        if (filas.isEmpty()) {
+            return new int[0];
+        }
+        int[][] porLote;
+        try {
+            porLote = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(sql,
+                    filas, LOTE_JDBC, (ps, fila) -> parametros.asignar(ps, fila.valor())));
+        } catch (DataAccessException e) {
+            String mensaje = "Error al insertar el bloque: " + e.getMostSpecificCause().getMessage();
+            filas.forEach(fila -> rechazar(resultado, fila.linea(), mensaje));
+            return null;
+        }
+        int[] actualizadas = new int[filas.size()];
+        int i = 0;
+        for (int[] lote : porLote) {
+            for (int filasAfectadas : lote) {
+                actualizadas[i++] = filasAfectadas;
+            }
+        }
+        return actualizadas;
+    }
+
+    private <T> void contar(List<Fila<T>> filas, int[] actualizadas, String motivo, ResultadoImportacionDto resultado) {
+        if (actualizadas == null) {
+            return;
+        }
+        for (int i = 0; i < filas.size(); i++) {
+            if (actualizadas[i] > 0 || actualizadas[i] == Statement.SUCCESS_NO_INFO) {
+                resultado.setFilasImportadas(resultado.getFilasImportadas() + 1);
+            } else {
+                rechazar(resultado, filas.get(i).linea(), motivo);
+            }
+        }
+    }
+
+    private static void rechazar(ResultadoImportacionDto resultado, long linea, String mensaje) {
+        resultado.setFilasConError(resultado.getFilasConError() + 1);
+        if (resultado.getErrores().size() < MAXIMO_ERRORES_REPORTADOS) {
+            resultado.getErrores().add(new ResultadoImportacionDto.ErrorFila(linea, mensaje));
+        }
+    }
+
+    private static void exigirColumnas(List<String> campos, int cantidad) {
+        if (campos.size() < cantidad) {
+            throw new IllegalArgumentException("Se esperaban " + cantidad + " columnas y hay " + campos.size());
+        }
+    }
+
+    private static String obligatorio(String valor, String columna) {
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("La columna " + columna + " es obligatoria");
+        }
+        return valor.trim();
+    }
+
+    private static String mensaje(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Separa una línea CSV respetando campos entre comillas dobles ("" escapa una comilla).
+     * Los campos vacíos se devuelven como null.
+     */
+    static List<String> campos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.isEmpty() ? null : actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.isEmpty() ? null : actual.toString());
+        return campos;
+    }
+
+    private record Linea(long numero, String texto) {
+    }
+
+    private record Fila<T>(long linea, T valor, String error) {
+    }
+
+    private record ReservaImportada(LocalDate fechaReserva, LocalTime horaInicio, LocalTime horaFin,
+            Long canchaId, String emailUsuario, Long id, Long usuarioId) {
+
+        ReservaImportada(LocalDate fechaReserva, LocalTime horaInicio, LocalTime horaFin, Long canchaId,
+                String emailUsuario) {
+            this(fechaReserva, horaInicio, horaFin, canchaId, emailUsuario, null, null);
+        }
+
+        ReservaImportada conIds(Long id, Long usuarioId) {
+            return new ReservaImportada(fechaReserva, horaInicio, horaFin, canchaId, emailUsuario, id, usuarioId);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParametrosFila<T> {
+        void asignar(PreparedStatement ps, T valor) throws SQLException;
+    }
+}
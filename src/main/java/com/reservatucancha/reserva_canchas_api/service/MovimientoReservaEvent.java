@@ -0,0 +1,17 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Evento de dominio: una reserva se creó, se modificó o se eliminó. ReservaService lo publica
+ * una vez confirmada la escritura; en una modificación los campos "anterior" traen el slot
+ * que ocupaba antes (en las demás son null).
+ */
+public record MovimientoReservaEvent(Tipo tipo, Long reservaId, Long usuarioId, Long canchaId, LocalDate fecha,
+        LocalTime horaInicio, Long canchaAnterior, LocalDate fechaAnterior, LocalTime horaAnterior) {
+
+    public enum Tipo {
+        CREADA, MODIFICADA, ELIMINADA
+    }
+}
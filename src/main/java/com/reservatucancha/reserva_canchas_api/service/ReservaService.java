@@ -1,19 +1,48 @@
 package com.reservatucancha.reserva_canchas_api.service;
 
+import com.reservatucancha.reserva_canchas_api.dto.ReservaDto;
 import com.reservatucancha.reserva_canchas_api.entity.Reserva;
 import com.reservatucancha.reserva_canchas_api.entity.Cancha;
 import com.reservatucancha.reserva_canchas_api.entity.Usuario;
+import com.reservatucancha.reserva_canchas_api.exception.SlotNoDisponibleException;
+import com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado;
 import com.reservatucancha.reserva_canchas_api.repository.ReservaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.SlotOcupado;
 import com.reservatucancha.reserva_canchas_api.service.CanchaService;
 import com.reservatucancha.reserva_canchas_api.service.UsuarioService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ReservaService {
@@ -21,29 +50,602 @@ public class ReservaService {
     private final ReservaRepository reservaRepository;
     private final CanchaService canchaService;
     private final UsuarioService usuarioService;
+    private final DisponibilidadIndex disponibilidadIndex;
+    private final BloqueoSlots bloqueoSlots;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RetencionSlots retencionSlots;
+
+    // Tiempos por operación (histogramas configurables con management.metrics.distribution.*)
+    // y reservas rechazadas por horario ocupado o por datos inválidos
+    private final Timer tiempoSave;
+    private final Timer tiempoSaveAll;
+    private final Timer tiempoSaveSerie;
+    private final Timer tiempoUpdate;
+    private final Timer tiempoSlots;
+    private final Timer tiempoFindAll;
+    private final Counter conflictos;
+    private final Counter rechazosValidacion;
 
-    public ReservaService(ReservaRepository reservaRepository, CanchaService canchaService, UsuarioService usuarioService) {
+    public static final int MAXIMO_POR_LOTE = 200;
+    public static final int MAXIMO_DIAS_MATRIZ = 62;
+    public static final int MAXIMO_CANCHAS_MATRIZ = 100;
+    public static final int MAXIMO_DIAS_LISTADO = 62;
+
+    private static final Locale ESPANOL = Locale.forLanguageTag("es");
+
+    public ReservaService(ReservaRepository reservaRepository, CanchaService canchaService, UsuarioService usuarioService,
+            DisponibilidadIndex disponibilidadIndex, BloqueoSlots bloqueoSlots, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher, RetencionSlots retencionSlots, MeterRegistry meterRegistry) {
         this.reservaRepository = reservaRepository;
         this.canchaService = canchaService;
         this.usuarioService = usuarioService;
+        this.disponibilidadIndex = disponibilidadIndex;
+        this.bloqueoSlots = bloqueoSlots;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retencionSlots = retencionSlots;
+        this.tiempoSave = tiempo(meterRegistry, "save");
+        this.tiempoSaveAll = tiempo(meterRegistry, "saveAll");
+        this.tiempoSaveSerie = tiempo(meterRegistry, "saveSerie");
+        this.tiempoUpdate = tiempo(meterRegistry, "update");
+        this.tiempoSlots = tiempo(meterRegistry, "slotsDisponibles");
+        this.tiempoFindAll = tiempo(meterRegistry, "findAll");
+        this.conflictos = rechazos(meterRegistry, "conflicto");
+        this.rechazosValidacion = rechazos(meterRegistry, "validacion");
+    }
+
+    private static Timer tiempo(MeterRegistry registry, String operacion) {
+        return Timer.builder("reservas.servicio")
+                .description("Tiempo de las operaciones de ReservaService")
+                .tag("operacion", operacion)
+                .register(registry);
+    }
+
+    private static Counter rechazos(MeterRegistry registry, String motivo) {
+        return Counter.builder("reservas.rechazadas")
+                .description("Reservas rechazadas por horario ocupado (conflicto) o datos inválidos (validacion)")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    // Mide la operación y cuenta el motivo si termina en rechazo
+    private <T> T medir(Timer timer, Supplier<T> operacion) {
+        long inicio = System.nanoTime();
+        try {
+            return operacion.get();
+        } catch (SlotNoDisponibleException e) {
+            conflictos.increment();
+            throw e;
+        } catch (IllegalArgumentException e) {
+            rechazosValidacion.increment();
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
     }
 
     public List<Reserva> findAll() {
-        return reservaRepository.findAll();
+        return medir(tiempoFindAll, reservaRepository::findAll);
+    }
+
+    /**
+     * Devuelve hasta limite + 1 elementos con ID mayor que el cursor; el elemento
+     * extra indica que hay una página siguiente. Con desde/hasta (ambos o ninguno)
+     * solo se recorren las reservas de ese rango de fechas, ordenadas por fecha e ID:
+     * el cursor es entonces el par (afterFecha, after) de la última reserva recibida.
+     */
+    public List<ReservaDto> findPagina(Long after, LocalDate afterFecha, LocalDate desde, LocalDate hasta, int limite) {
+        long cursor = after == null ? 0L : after;
+        if (desde == null && hasta == null) {
+            return reservaRepository.findPagina(cursor, Limit.of(limite + 1));
+        }
+        validarRango(desde, hasta, Integer.MAX_VALUE);
+        if ((after == null) != (afterFecha == null)) {
+            throw new IllegalArgumentException("Con 'desde' y 'hasta' el cursor se envía en 'after' y 'afterFecha', los dos");
+        }
+        if (afterFecha == null || afterFecha.isBefore(desde)) {
+            // Primera página (o cursor anterior al rango): desde el comienzo del rango
+            return reservaRepository.findPaginaEnRango(desde, 0L, hasta, Limit.of(limite + 1));
+        }
+        return reservaRepository.findPaginaEnRango(afterFecha, cursor, hasta, Limit.of(limite + 1));
+    }
+
+    /**
+     * Reservas de un usuario en orden cronológico; con proximas solo las que aún no empezaron.
+     */
+    public List<ReservaDto> findByUsuario(Long usuarioId, boolean proximas) {
+        if (!proximas) {
+            return reservaRepository.findByUsuario(usuarioId);
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        return reservaRepository.findProximasByUsuario(usuarioId, ahora.toLocalDate(), ahora.toLocalTime());
+    }
+
+    /**
+     * Agenda de una cancha entre dos fechas (inclusive), de hasta MAXIMO_DIAS_LISTADO días.
+     */
+    public List<ReservaDto> findByCancha(Long canchaId, LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta, MAXIMO_DIAS_LISTADO);
+        return reservaRepository.findByCanchaEnRango(canchaId, desde, hasta);
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta, int maximoDias) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Se deben indicar 'desde' y 'hasta'");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha 'hasta' no puede ser anterior a 'desde'");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) + 1 > maximoDias) {
+            throw new IllegalArgumentException("El rango no puede superar " + maximoDias + " días");
+        }
+    }
+
+    /**
+     * Recorre las reservas filtradas entregándolas una a una al consumidor mientras
+     * se leen de la base de datos. La transacción mantiene abierto el cursor.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(LocalDate desde, LocalDate hasta, Long canchaId, Consumer<ReservaDto> consumidor) {
+        try (Stream<ReservaDto> reservas = reservaRepository.streamParaExportar(desde, hasta, canchaId)) {
+            reservas.forEach(consumidor);
+        }
     }
 
     public Optional<Reserva> findById(Long id) {
         return reservaRepository.findById(id);
     }
 
-    public Reserva save(Reserva reserva) {
-        // Validar horarios 8AM-8PM (12 slots de 1 hora)
-        validarHorarios(reserva);
-        return reservaRepository.save(reserva);
+    /**
+     * Crea la reserva para el actor autenticado. Si el slot lo retiene el propio actor se
+     * rechaza indicando la retención a confirmar (la confirmación es la que la consume).
+     */
+    public Reserva save(Reserva reserva, String actor) {
+        return medir(tiempoSave, () -> {
+            // Validar que ocupe un slot de la grilla de la cancha
+            validarHorarios(reserva);
+            Long canchaId = reserva.getCancha().getId();
+            LocalDate fecha = reserva.getFechaReserva();
+            LocalTime horaInicio = reserva.getHoraInicio();
+
+            // Las reservas del mismo día y cancha se procesan de a una dentro del proceso
+            return bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+                verificarSlotLibre(canchaId, fecha, horaInicio, actor);
+                Reserva savedReserva = guardar(reserva);
+                ocupar(canchaId, fecha, horaInicio, reserva.getHoraFin());
+                registrar(MovimientoReservaEvent.Tipo.CREADA, savedReserva, null, null, null);
+                return savedReserva;
+            });
+        });
+    }
+
+    /**
+     * Guarda varias reservas en una sola transacción: o se crean todas o ninguna.
+     * Los conflictos con reservas existentes se buscan con una única consulta y los
+     * INSERT se envían en lotes JDBC (ver hibernate.jdbc.batch_size).
+     */
+    public List<Reserva> saveAll(List<Reserva> reservas) {
+        return medir(tiempoSaveAll, () -> guardarLote(reservas));
+    }
+
+    private List<Reserva> guardarLote(List<Reserva> reservas) {
+        if (reservas.isEmpty()) {
+            return List.of();
+        }
+        if (reservas.size() > MAXIMO_POR_LOTE) {
+            throw new IllegalArgumentException("No se pueden crear más de " + MAXIMO_POR_LOTE + " reservas por lote");
+        }
+
+        Set<SlotOcupado> slots = new HashSet<>();
+        for (int i = 0; i < reservas.size(); i++) {
+            Reserva reserva = reservas.get(i);
+            try {
+                validarHorarios(reserva);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Reserva #" + (i + 1) + ": " + e.getMessage());
+            }
+            if (!slots.add(slotDe(reserva))) {
+                throw new IllegalArgumentException("Reserva #" + (i + 1) + ": el horario está repetido dentro del lote");
+            }
+        }
+
+        Set<ClaveDia> dias = slots.stream()
+                .map(slot -> new ClaveDia(slot.canchaId(), slot.fechaReserva()))
+                .collect(Collectors.toSet());
+
+        return bloqueoSlots.ejecutar(dias, () -> {
+            for (SlotOcupado slot : slots) {
+                if (retencionSlots.estaRetenido(slot.canchaId(), slot.fechaReserva(), slot.horaInicio())) {
+                    throw new SlotNoDisponibleException("Horario retenido por otro usuario: cancha " + slot.canchaId() + " "
+                            + slot.fechaReserva() + " " + slot.horaInicio());
+                }
+            }
+            List<Reserva> savedReservas = transactionTemplate.execute(status -> {
+                List<SlotOcupado> conflictos = buscarConflictos(slots);
+                if (!conflictos.isEmpty()) {
+                    throw new SlotNoDisponibleException("Horarios ya reservados: " + conflictos.stream()
+                            .map(slot -> "cancha " + slot.canchaId() + " " + slot.fechaReserva() + " " + slot.horaInicio())
+                            .collect(Collectors.joining(", ")));
+                }
+                try {
+                    List<Reserva> guardadas = reservaRepository.saveAll(reservas);
+                    reservaRepository.flush();
+                    return guardadas;
+                } catch (DataIntegrityViolationException e) {
+                    if (esConflictoDeSlot(e)) {
+                        throw new SlotNoDisponibleException("Alguno de los horarios ya fue reservado", e);
+                    }
+                    throw e;
+                }
+            });
+            // Solo después del commit se reflejan en el índice
+            for (Reserva guardada : savedReservas) {
+                ocupar(guardada.getCancha().getId(), guardada.getFechaReserva(), guardada.getHoraInicio(), guardada.getHoraFin());
+                registrar(MovimientoReservaEvent.Tipo.CREADA, guardada, null, null, null);
+            }
+            return savedReservas;
+        });
     }
 
-    public void deleteById(Long id) {
-        reservaRepository.deleteById(id);
+    /**
+     * Crea una serie de reservas del mismo slot (cancha y hora de la plantilla) cada cadaDias
+     * días desde la fecha de la plantilla, hasta la fecha indicada o la cantidad de repeticiones.
+     * Las fechas ya reservadas se buscan con una sola consulta y las libres se insertan en una
+     * transacción con INSERT en lotes. Con aceptarParcial se crean las libres y se informan las
+     * ocupadas; sin él, cualquier fecha ocupada o retenida rechaza la serie completa.
+     */
+    public ResultadoSerie saveSerie(Reserva plantilla, int cadaDias, LocalDate hasta, Integer repeticiones,
+            boolean aceptarParcial) {
+        return medir(tiempoSaveSerie, () -> guardarSerie(plantilla, cadaDias, hasta, repeticiones, aceptarParcial));
+    }
+
+    private ResultadoSerie guardarSerie(Reserva plantilla, int cadaDias, LocalDate hasta, Integer repeticiones,
+            boolean aceptarParcial) {
+        validarHorarios(plantilla);
+        List<LocalDate> fechas = fechasDeSerie(plantilla.getFechaReserva(), cadaDias, hasta, repeticiones);
+        Long canchaId = plantilla.getCancha().getId();
+        LocalTime horaInicio = plantilla.getHoraInicio();
+        List<ClaveDia> dias = fechas.stream().map(fecha -> new ClaveDia(canchaId, fecha)).toList();
+
+        return bloqueoSlots.ejecutar(dias, () -> {
+            ResultadoSerie resultado = transactionTemplate.execute(status -> {
+                Set<LocalDate> ocupadas = new HashSet<>(
+                        reservaRepository.findFechasOcupadas(canchaId, horaInicio, plantilla.getHoraFin(), fechas));
+                List<LocalDate> conflictos = fechas.stream()
+                        .filter(fecha -> ocupadas.contains(fecha) || retencionSlots.estaRetenido(canchaId, fecha, horaInicio))
+                        .toList();
+                if (!conflictos.isEmpty() && !aceptarParcial) {
+                    throw new SlotNoDisponibleException("Fechas de la serie ya reservadas o retenidas: " + conflictos.stream()
+                            .map(LocalDate::toString)
+                            .collect(Collectors.joining(", ")));
+                }
+                Set<LocalDate> descartadas = new HashSet<>(conflictos);
+                List<Reserva> nuevas = fechas.stream()
+                        .filter(fecha -> !descartadas.contains(fecha))
+                        .map(fecha -> ocurrencia(plantilla, fecha))
+                        .toList();
+                try {
+                    List<Reserva> guardadas = reservaRepository.saveAll(nuevas);
+                    reservaRepository.flush();
+                    return new ResultadoSerie(guardadas, conflictos);
+                } catch (DataIntegrityViolationException e) {
+                    if (esConflictoDeSlot(e)) {
+                        throw new SlotNoDisponibleException("Alguna de las fechas de la serie ya fue reservada", e);
+                    }
+                    throw e;
+                }
+            });
+            // Solo después del commit se reflejan en el índice
+            for (Reserva guardada : resultado.creadas()) {
+                ocupar(canchaId, guardada.getFechaReserva(), horaInicio, guardada.getHoraFin());
+                registrar(MovimientoReservaEvent.Tipo.CREADA, guardada, null, null, null);
+            }
+            return resultado;
+        });
+    }
+
+    // Fechas de la serie: desde inicio cada cadaDias días, con 'hasta' o 'repeticiones' (uno de los dos)
+    static List<LocalDate> fechasDeSerie(LocalDate inicio, int cadaDias, LocalDate hasta, Integer repeticiones) {
+        if (inicio == null) {
+            throw new IllegalArgumentException("Se debe indicar la fecha de inicio de la serie");
+        }
+        if ((hasta == null) == (repeticiones == null)) {
+            throw new IllegalArgumentException("Se debe indicar 'hasta' o 'repeticiones', uno de los dos");
+        }
+        long cantidad;
+        if (repeticiones != null) {
+            if (repeticiones < 1) {
+                throw new IllegalArgumentException("'repeticiones' debe ser al menos 1");
+            }
+            cantidad = repeticiones;
+        } else {
+            if (hasta.isBefore(inicio)) {
+                throw new IllegalArgumentException("La fecha 'hasta' no puede ser anterior al inicio de la serie");
+            }
+            cantidad = ChronoUnit.DAYS.between(inicio, hasta) / cadaDias + 1;
+        }
+        if (cantidad > MAXIMO_POR_LOTE) {
+            throw new IllegalArgumentException("Una serie no puede tener más de " + MAXIMO_POR_LOTE + " reservas");
+        }
+        List<LocalDate> fechas = new ArrayList<>((int) cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            fechas.add(inicio.plusDays((long) i * cadaDias));
+        }
+        return fechas;
+    }
+
+    private static Reserva ocurrencia(Reserva plantilla, LocalDate fecha) {
+        Reserva reserva = new Reserva();
+        reserva.setFechaReserva(fecha);
+        reserva.setHoraInicio(plantilla.getHoraInicio());
+        reserva.setHoraFin(plantilla.getHoraFin());
+        reserva.setUsuario(plantilla.getUsuario());
+        reserva.setCancha(plantilla.getCancha());
+        return reserva;
+    }
+
+    // Una consulta por canchas y fechas involucradas; con lo que trae se arma la máscara de
+    // cada día en la grilla de su cancha y cada slot del lote se prueba contra ella
+    private List<SlotOcupado> buscarConflictos(Set<SlotOcupado> slots) {
+        Set<Long> canchaIds = slots.stream().map(SlotOcupado::canchaId).collect(Collectors.toSet());
+        Set<LocalDate> fechas = slots.stream().map(SlotOcupado::fechaReserva).collect(Collectors.toSet());
+        Map<ClaveDia, Long> ocupados = new HashMap<>();
+        for (HorarioOcupado horario : reservaRepository.findHorariosOcupados(canchaIds, fechas)) {
+            long bits = canchaService.grilla(horario.canchaId()).cubiertos(horario.horaInicio(), horario.horaFin());
+            ocupados.merge(new ClaveDia(horario.canchaId(), horario.fechaReserva()), bits, (a, b) -> a | b);
+        }
+        return slots.stream()
+                .filter(slot -> (ocupados.getOrDefault(new ClaveDia(slot.canchaId(), slot.fechaReserva()), 0L)
+                        & canchaService.grilla(slot.canchaId()).bit(slot.horaInicio())) != 0)
+                .toList();
+    }
+
+    private static SlotOcupado slotDe(Reserva reserva) {
+        return new SlotOcupado(reserva.getCancha().getId(), reserva.getFechaReserva(), reserva.getHoraInicio());
+    }
+
+    /**
+     * Actualiza la reserva con los datos recibidos, liberando el slot que ocupaba antes en el
+     * índice de disponibilidad. Bloquea el día anterior y el nuevo, y con ambos tomados vuelve a
+     * leer la reserva; vacío si ya no existe.
+     */
+    public Optional<Reserva> update(Long id, Reserva datos) {
+        return medir(tiempoUpdate, () -> actualizar(id, datos));
+    }
+
+    private Optional<Reserva> actualizar(Long id, Reserva datos) {
+        validarHorarios(datos);
+        Long canchaNueva = datos.getCancha().getId();
+        LocalDate fechaNueva = datos.getFechaReserva();
+        LocalTime horaNueva = datos.getHoraInicio();
+        LocalTime finNuevo = datos.getHoraFin();
+
+        while (true) {
+            Optional<ReservaDto> leida = reservaRepository.findDtoById(id);
+            if (leida.isEmpty()) {
+                return Optional.empty();
+            }
+            Long canchaAnterior = leida.get().getCanchaId();
+            LocalDate fechaAnterior = leida.get().getFechaReserva();
+
+            List<ClaveDia> dias = List.of(new ClaveDia(canchaAnterior, fechaAnterior), new ClaveDia(canchaNueva, fechaNueva));
+            Optional<Reserva> resultado = bloqueoSlots.ejecutar(dias, () -> {
+                Optional<ReservaDto> actual = reservaRepository.findDtoById(id);
+                if (actual.isEmpty()) {
+                    return Optional.<Reserva>empty();
+                }
+                ReservaDto anterior = actual.get();
+                if (!anterior.getCanchaId().equals(canchaAnterior) || !anterior.getFechaReserva().equals(fechaAnterior)) {
+                    // Otra modificación la movió de día mientras tanto: se reintenta con los locks correctos
+                    return null;
+                }
+                LocalTime horaAnterior = anterior.getHoraInicio();
+                LocalTime finAnterior = anterior.getHoraFin();
+                boolean mismoDia = canchaAnterior.equals(canchaNueva) && fechaAnterior.equals(fechaNueva);
+                boolean cambiaSlot = !mismoDia || !horaAnterior.equals(horaNueva) || !finAnterior.equals(finNuevo);
+
+                if (cambiaSlot) {
+                    // Solo los slots que la reserva todavía no ocupa: los suyos no son un conflicto
+                    GrillaSlots grilla = canchaService.grilla(canchaNueva);
+                    long nuevos = grilla.cubiertos(horaNueva, finNuevo);
+                    if (mismoDia) {
+                        nuevos &= ~grilla.cubiertos(horaAnterior, finAnterior);
+                    }
+                    verificarSlotsLibres(canchaNueva, fechaNueva, nuevos);
+                }
+
+                Optional<Reserva> cargada = reservaRepository.findById(id);
+                if (cargada.isEmpty()) {
+                    return cargada;
+                }
+                Reserva existente = cargada.get();
+                existente.setFechaReserva(fechaNueva);
+                existente.setHoraInicio(horaNueva);
+                existente.setHoraFin(finNuevo);
+                existente.setCancha(datos.getCancha());
+                existente.setUsuario(datos.getUsuario());
+
+                Reserva updatedReserva = guardar(existente);
+                if (cambiaSlot) {
+                    liberar(canchaAnterior, fechaAnterior, horaAnterior, finAnterior);
+                    ocupar(canchaNueva, fechaNueva, horaNueva, updatedReserva.getHoraFin());
+                }
+                registrar(MovimientoReservaEvent.Tipo.MODIFICADA, updatedReserva, canchaAnterior, fechaAnterior, horaAnterior);
+                return Optional.of(updatedReserva);
+            });
+            if (resultado != null) {
+                return resultado;
+            }
+        }
+    }
+
+    // Refleja el cambio en el índice y lo anuncia a los suscriptores (ver DisponibilidadBroadcaster).
+    // Se llama con el lock del día tomado y después del commit, así los eventos salen en orden.
+    private void ocupar(Long canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        disponibilidadIndex.ocupar(canchaId, fecha, horaInicio, horaFin);
+        eventPublisher.publishEvent(new SlotCambiadoEvent(canchaId, fecha, horaInicio, true));
+    }
+
+    private void liberar(Long canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        disponibilidadIndex.liberar(canchaId, fecha, horaInicio, horaFin);
+        eventPublisher.publishEvent(new SlotCambiadoEvent(canchaId, fecha, horaInicio, false));
+    }
+
+    // Alta, cambio o baja confirmada, para la bitácora de movimientos (ver BitacoraReservas)
+    private void registrar(MovimientoReservaEvent.Tipo tipo, Reserva reserva, Long canchaAnterior,
+            LocalDate fechaAnterior, LocalTime horaAnterior) {
+        Long usuarioId = reserva.getUsuario() != null ? reserva.getUsuario().getId() : null;
+        eventPublisher.publishEvent(new MovimientoReservaEvent(tipo, reserva.getId(), usuarioId, reserva.getCancha().getId(),
+                reserva.getFechaReserva(), reserva.getHoraInicio(), canchaAnterior, fechaAnterior, horaAnterior));
+    }
+
+    // Rechaza sin ir a la base de datos si el índice ya sabe que el slot está tomado,
+    // o si otro usuario lo tiene retenido mientras paga
+    private void verificarSlotLibre(Long canchaId, LocalDate fecha, LocalTime horaInicio, String actor) {
+        verificarSinReserva(canchaId, fecha, horaInicio);
+        if (retencionSlots.estaRetenido(canchaId, fecha, horaInicio)) {
+            RetencionSlots.Retencion propia = retencionSlots.retenidoPor(actor, canchaId, fecha, horaInicio);
+            if (propia != null) {
+                throw new SlotNoDisponibleException("El horario seleccionado está retenido por usted: confírmelo con POST /api/reservas/holds/"
+                        + propia.getId() + "/confirmar");
+            }
+            throw new SlotNoDisponibleException("El horario seleccionado está retenido por otro usuario");
+        }
+    }
+
+    // Igual que verificarSlotLibre pero para un conjunto de slots de la grilla de la cancha
+    private void verificarSlotsLibres(Long canchaId, LocalDate fecha, long bits) {
+        if ((disponibilidadIndex.ocupados(canchaId, fecha) & bits) != 0) {
+            throw new SlotNoDisponibleException("El horario seleccionado ya está reservado para esta cancha");
+        }
+        if ((retencionSlots.mascara(canchaId, fecha) & bits) != 0) {
+            throw new SlotNoDisponibleException("El horario seleccionado está retenido por otro usuario");
+        }
+    }
+
+    private void verificarSinReserva(Long canchaId, LocalDate fecha, LocalTime horaInicio) {
+        if (disponibilidadIndex.estaOcupado(canchaId, fecha, horaInicio)) {
+            throw new SlotNoDisponibleException("El horario seleccionado ya está reservado para esta cancha");
+        }
+    }
+
+    /**
+     * Retiene el slot de la reserva para el actor durante la duración indicada (null = la
+     * configurada por defecto), sin escribir en la base de datos.
+     */
+    public RetencionSlots.Retencion retener(Reserva datos, String actor, Duration duracion) {
+        validarHorarios(datos);
+        return retencionSlots.retener(actor, datos.getUsuario().getId(), datos.getCancha().getId(), datos.getFechaReserva(),
+                datos.getHoraInicio(), duracion);
+    }
+
+    /**
+     * Convierte la retención en una reserva. Con el lock del día se reclama la retención
+     * (desde ahí ya no puede vencer), se inserta la reserva y recién después se quita la
+     * retención: el slot no queda libre en ningún momento. Si el INSERT falla se libera.
+     */
+    public Reserva confirmarRetencion(String retencionId, String actor) {
+        RetencionSlots.Retencion retencion = retencionSlots.buscar(retencionId, actor);
+        Reserva reserva = new Reserva();
+        reserva.setFechaReserva(retencion.getFecha());
+        reserva.setHoraInicio(retencion.getHoraInicio());
+        reserva.setHoraFin(canchaService.grilla(retencion.getCanchaId()).fin(retencion.getHoraInicio()));
+        reserva.setUsuario(usuarioService.findById(retencion.getUsuarioId())
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado")));
+        reserva.setCancha(canchaService.findById(retencion.getCanchaId())
+                .orElseThrow(() -> new IllegalArgumentException("Cancha no encontrada")));
+        Long canchaId = retencion.getCanchaId();
+        LocalDate fecha = retencion.getFecha();
+        LocalTime horaInicio = retencion.getHoraInicio();
+
+        return medir(tiempoSave, () -> bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+            retencionSlots.reclamar(retencion);
+            boolean guardada = false;
+            try {
+                verificarSinReserva(canchaId, fecha, horaInicio);
+                Reserva savedReserva = guardar(reserva);
+                ocupar(canchaId, fecha, horaInicio, reserva.getHoraFin());
+                registrar(MovimientoReservaEvent.Tipo.CREADA, savedReserva, null, null, null);
+                guardada = true;
+                return savedReserva;
+            } finally {
+                retencionSlots.soltar(retencion, !guardada);
+            }
+        }));
+    }
+
+    /**
+     * Libera la retención antes de que venza; false si ya no estaba activa.
+     */
+    public boolean cancelarRetencion(String retencionId, String actor) {
+        return retencionSlots.cancelar(retencionId, actor);
+    }
+
+    /**
+     * Inserta o actualiza en una sola sentencia. La restricción única sobre
+     * (cancha_id, fecha_reserva, hora_inicio) es la que detecta la doble reserva,
+     * sin consultar antes si el slot está libre.
+     */
+    private Reserva guardar(Reserva reserva) {
+        try {
+            return reservaRepository.save(reserva);
+        } catch (DataIntegrityViolationException e) {
+            if (esConflictoDeSlot(e)) {
+                throw new SlotNoDisponibleException("El horario seleccionado ya está reservado para esta cancha", e);
+            }
+            throw e;
+        }
+    }
+
+    private boolean esConflictoDeSlot(DataIntegrityViolationException e) {
+        Throwable causa = e.getCause();
+        while (causa != null) {
+            if (causa instanceof ConstraintViolationException violacion) {
+                // Algunos motores devuelven el nombre con esquema o sufijos, por eso "contains"
+                String constraint = violacion.getConstraintName();
+                return constraint != null && constraint.toLowerCase().contains(Reserva.UK_SLOT);
+            }
+            causa = causa.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Elimina la reserva y libera su slot; false si no existía. La reserva se vuelve a leer
+     * con el lock de su día tomado y solo se libera el slot si la baja borró la fila: otra
+     * baja concurrente no puede liberar un slot que ya volvió a reservarse.
+     */
+    public boolean deleteById(Long id) {
+        while (true) {
+            Optional<ReservaDto> leida = reservaRepository.findDtoById(id);
+            if (leida.isEmpty()) {
+                return false;
+            }
+            Long canchaId = leida.get().getCanchaId();
+            LocalDate fecha = leida.get().getFechaReserva();
+            Boolean eliminada = bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+                Optional<ReservaDto> actual = reservaRepository.findDtoById(id);
+                if (actual.isEmpty()) {
+                    return false;
+                }
+                ReservaDto reserva = actual.get();
+                if (!reserva.getCanchaId().equals(canchaId) || !reserva.getFechaReserva().equals(fecha)) {
+                    // Una modificación la movió de día mientras tanto: se reintenta con el lock del día nuevo
+                    return null;
+                }
+                if (reservaRepository.eliminarPorId(id) == 0) {
+                    return false;
+                }
+                liberar(canchaId, fecha, reserva.getHoraInicio(), reserva.getHoraFin());
+                eventPublisher.publishEvent(new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.ELIMINADA, id,
+                        reserva.getUsuarioId(), canchaId, fecha, reserva.getHoraInicio(), null, null, null));
+                return true;
+            });
+            if (eliminada != null) {
+                return eliminada;
+            }
+        }
     }
 
     // Métodos para buscar por ID
@@ -55,56 +657,134 @@ public class ReservaService {
         return canchaService.findById(id);
     }
 
+    public List<Usuario> findUsuariosById(Set<Long> ids) {
+        return usuarioService.findAllById(ids);
+    }
+
+    public List<Cancha> findCanchasById(Set<Long> ids) {
+        return canchaService.findAllById(ids);
+    }
+
+    /**
+     * Grilla de slots de la cancha (horario, duración del slot y días cerrados).
+     */
+    public GrillaSlots grilla(Long canchaId) {
+        return canchaService.grilla(canchaId);
+    }
+
     /**
      * Obtener slots disponibles para una cancha en una fecha específica
      */
     public List<String> getSlotsDisponibles(Long canchaId, LocalDate fecha) {
-        // Los 12 slots disponibles (8AM-8PM)
-        List<LocalTime> todosLosSlots = Arrays.asList(
-            LocalTime.of(8, 0), LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(11, 0),
-            LocalTime.of(12, 0), LocalTime.of(13, 0), LocalTime.of(14, 0), LocalTime.of(15, 0),
-            LocalTime.of(16, 0), LocalTime.of(17, 0), LocalTime.of(18, 0), LocalTime.of(19, 0)
-        );
+        disponibilidadIndex.verificarConsulta(canchaId, fecha);
+        // Ocupación del día desde el índice en memoria (solo va a la base de datos si no está cargada)
+        return medir(tiempoSlots, () -> {
+            GrillaSlots grilla = canchaService.grilla(canchaId);
+            return grilla.libres(disponibilidadIndex.ocupados(canchaId, fecha) | retencionSlots.mascara(canchaId, fecha)
+                    | grilla.cerrados(fecha));
+        });
+    }
 
-        // Obtener reservas existentes para esa cancha y fecha
-        List<Reserva> reservasExistentes = reservaRepository.findAll().stream()
-            .filter(r -> r.getCancha().getId().equals(canchaId) && r.getFechaReserva().equals(fecha))
-            .toList();
+    /**
+     * Ocupación de varias canchas en un rango de fechas: una máscara por cancha y día, en la
+     * grilla de cada cancha. Los días que ya están en el índice se leen de memoria; el resto se
+     * resuelve con una única consulta por rango, sin cargarlos en el índice (un barrido de
+     * semanas no debe desplazar los días que se consultan de verdad). Los slots retenidos y los
+     * días en que la cancha no abre cuentan como ocupados.
+     */
+    public Map<Long, long[]> getMatrizDisponibilidad(LocalDate desde, LocalDate hasta, Collection<Long> canchaIds) {
+        validarRango(desde, hasta, MAXIMO_DIAS_MATRIZ);
+        int dias = (int) ChronoUnit.DAYS.between(desde, hasta) + 1;
+        if (canchaIds.isEmpty() || canchaIds.size() > MAXIMO_CANCHAS_MATRIZ) {
+            throw new IllegalArgumentException("Se deben indicar entre 1 y " + MAXIMO_CANCHAS_MATRIZ + " canchas");
+        }
 
-        // Filtrar slots disponibles
-        List<String> slotsDisponibles = new ArrayList<>();
-        for (LocalTime slot : todosLosSlots) {
-            boolean ocupado = reservasExistentes.stream()
-                .anyMatch(r -> r.getHoraInicio().equals(slot));
-            
-            if (!ocupado) {
-                slotsDisponibles.add(slot + " - " + slot.plusHours(1));
+        Map<Long, long[]> matriz = new LinkedHashMap<>();
+        Set<Long> faltantes = new HashSet<>();
+        for (Long canchaId : canchaIds) {
+            long[] mascaras = new long[dias];
+            matriz.put(canchaId, mascaras);
+            for (int dia = 0; dia < dias; dia++) {
+                EstadoDia estado = disponibilidadIndex.consultar(canchaId, desde.plusDays(dia));
+                if (estado == null) {
+                    faltantes.add(canchaId);
+                } else {
+                    mascaras[dia] = estado.mascara();
+                }
             }
         }
 
-        return slotsDisponibles;
+        if (!faltantes.isEmpty()) {
+            // Los días de estas canchas que no estaban en memoria quedaron en 0; la consulta trae
+            // el rango completo y se sobreescribe todo, así la fila sale de una sola fuente
+            for (Long canchaId : faltantes) {
+                Arrays.fill(matriz.get(canchaId), 0L);
+            }
+            for (HorarioOcupado horario : reservaRepository.findHorariosOcupadosEnRango(faltantes, desde, hasta)) {
+                matriz.get(horario.canchaId())[(int) ChronoUnit.DAYS.between(desde, horario.fechaReserva())] |=
+                        canchaService.grilla(horario.canchaId()).cubiertos(horario.horaInicio(), horario.horaFin());
+            }
+        }
+        for (Map.Entry<Long, long[]> fila : matriz.entrySet()) {
+            GrillaSlots grilla = canchaService.grilla(fila.getKey());
+            long[] mascaras = fila.getValue();
+            for (int dia = 0; dia < dias; dia++) {
+                LocalDate fecha = desde.plusDays(dia);
+                mascaras[dia] |= grilla.cerrados(fecha) | retencionSlots.mascara(fila.getKey(), fecha);
+            }
+        }
+        return matriz;
     }
 
     /**
-     * Validar que las reservas sean de 8AM a 8PM (12 slots de 1 hora)
+     * Ocupación y versión del día, para responder con ETag sin calcular la lista de slots.
      */
-    private void validarHorarios(Reserva reserva) {
+    public EstadoDia getEstadoDisponibilidad(Long canchaId, LocalDate fecha) {
+        disponibilidadIndex.verificarConsulta(canchaId, fecha);
+        // Mismo timer que getSlotsDisponibles: es lo que usa el endpoint de slots.
+        // Los slots retenidos y los días cerrados se muestran ocupados; retener o soltar renueva
+        // la versión del índice, que se lee antes que las retenciones (ver RetencionSlots).
+        // La grilla no entra en la versión: un cambio de horario descarta el día del índice
+        return medir(tiempoSlots, () -> {
+            EstadoDia estado = disponibilidadIndex.estado(canchaId, fecha);
+            long extra = retencionSlots.mascara(canchaId, fecha) | canchaService.grilla(canchaId).cerrados(fecha);
+            return extra == 0 ? estado : new EstadoDia(estado.mascara() | extra, estado.version());
+        });
+    }
+
+    /**
+     * Slots libres de la cancha para una máscara de ocupación; la lista devuelta es inmutable.
+     */
+    public List<String> slotsLibres(Long canchaId, long ocupados) {
+        return canchaService.grilla(canchaId).libres(ocupados);
+    }
+
+    /**
+     * Validar que la reserva ocupe exactamente un slot de la grilla de su cancha, en un día
+     * en que la cancha abre.
+     */
+    void validarHorarios(Reserva reserva) {
+        validarHorarios(reserva, reserva.getCancha() != null ? reserva.getCancha().getId() : null);
+    }
+
+    void validarHorarios(Reserva reserva, Long canchaId) {
+        GrillaSlots grilla = canchaService.grilla(canchaId);
         LocalTime horaInicio = reserva.getHoraInicio();
         LocalTime horaFin = reserva.getHoraFin();
-        
-        // Validar que esté en el rango 8AM-7PM (para que termine a las 8PM)
-        if (horaInicio.isBefore(LocalTime.of(8, 0)) || horaInicio.isAfter(LocalTime.of(19, 0))) {
-            throw new IllegalArgumentException("Las reservas solo pueden comenzar entre las 8:00 AM y las 7:00 PM");
+
+        if (grilla.slot(horaInicio) < 0) {
+            throw new IllegalArgumentException("Las reservas solo pueden comenzar entre las " + grilla.getApertura() + " y las "
+                    + grilla.getUltimoInicio() + ", cada " + grilla.getDuracionMinutos() + " minutos");
         }
-        
-        // Validar que sea exactamente 1 hora
-        if (!horaFin.equals(horaInicio.plusHours(1))) {
-            throw new IllegalArgumentException("Las reservas deben ser de exactamente 1 hora");
+
+        // Exactamente un slot: así no puede terminar después del cierre
+        if (!horaFin.equals(grilla.fin(horaInicio))) {
+            throw new IllegalArgumentException("Las reservas deben durar exactamente " + grilla.getDuracionMinutos() + " minutos");
         }
-        
-        // Validar que no termine después de las 8PM
-        if (horaFin.isAfter(LocalTime.of(20, 0))) {
-            throw new IllegalArgumentException("Las reservas no pueden terminar después de las 8:00 PM");
+
+        if (reserva.getFechaReserva() != null && !grilla.abre(reserva.getFechaReserva())) {
+            String dia = reserva.getFechaReserva().getDayOfWeek().getDisplayName(TextStyle.FULL, ESPANOL);
+            throw new IllegalArgumentException("La cancha no abre los " + (dia.endsWith("s") ? dia : dia + "s"));
         }
     }
-}
\ No newline at end of file
+}
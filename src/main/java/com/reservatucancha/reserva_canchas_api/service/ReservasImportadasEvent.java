@@ -0,0 +1,8 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+/**
+ * Terminó una carga masiva de reservas que entraron sin pasar por ReservaService: no hubo
+ * un SlotCambiadoEvent por fila, así que quien siga la ocupación debe rearmarla.
+ */
+public record ReservasImportadasEvent(long cantidad) {
+}
@@ -0,0 +1,12 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reservas creadas de una serie y fechas que se omitieron por estar ocupadas o retenidas.
+ */
+public record ResultadoSerie(List<Reserva> creadas, List<LocalDate> fechasEnConflicto) {
+}
@@ -0,0 +1,309 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.exception.RetencionVencidaException;
+import com.reservatucancha.reserva_canchas_api.exception.SlotNoDisponibleException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retenciones temporales de slots mientras el usuario paga: el slot se ve ocupado para
+ * los demás durante unos minutos sin escribir en la tabla reserva.
+ *
+ * Viven solo en memoria (un reinicio las descarta). Cada día guarda una máscara de slots
+ * retenidos, igual que DisponibilidadIndex, y el vencimiento lo maneja una RuedaTemporal.
+ * Tomar, soltar y vencer se hacen con el lock del día (BloqueoSlots), el mismo de las
+ * altas de reservas: una retención y una reserva nunca se cruzan sobre el mismo slot.
+ * Cada cambio renueva la versión del día en el índice (ETag) y se anuncia por SSE.
+ */
+@Component
+public class RetencionSlots {
+
+    private final BloqueoSlots bloqueoSlots;
+    private final DisponibilidadIndex disponibilidadIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maximo;
+    private final int maximoPorUsuario;
+    private final Duration duracionPorDefecto;
+    private final Duration duracionMaxima;
+    private final RuedaTemporal rueda;
+
+    private final ConcurrentHashMap<String, Retencion> porId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ClaveDia, Long> retenidos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> porActor = new ConcurrentHashMap<>();
+    // Retención de cada slot retenido (a lo sumo una), para decirle a su dueño cuál es
+    private final ConcurrentHashMap<SlotRetenido, Retencion> porSlot = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    public RetencionSlots(BloqueoSlots bloqueoSlots, DisponibilidadIndex disponibilidadIndex,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${reservas.retenciones.maximo:200000}") int maximo,
+            @Value("${reservas.retenciones.maximo-por-usuario:4}") int maximoPorUsuario,
+            @Value("${reservas.retenciones.duracion:5m}") Duration duracionPorDefecto,
+            @Value("${reservas.retenciones.duracion-maxima:15m}") Duration duracionMaxima,
+            @Value("${reservas.retenciones.tick:1s}") Duration tick,
+            @Value("${reservas.retenciones.ranuras:1024}") int ranuras) {
+        this.bloqueoSlots = bloqueoSlots;
+        this.disponibilidadIndex = disponibilidadIndex;
+        this.eventPublisher = eventPublisher;
+        this.maximo = maximo;
+        this.maximoPorUsuario = maximoPorUsuario;
+        this.duracionPorDefecto = duracionPorDefecto;
+        this.duracionMaxima = duracionMaxima;
+        this.rueda = new RuedaTemporal(tick.toNanos(), ranuras, System.nanoTime());
+    }
+
+    /**
+     * Retiene el slot para el actor durante la duración indicada (null = la de por defecto).
+     * Lanza SlotNoDisponibleException si está reservado o retenido, e IllegalArgumentException
+     * si la duración no es válida o el actor ya tiene el máximo de retenciones activas.
+     */
+    public Retencion retener(String actor, Long usuarioId, Long canchaId, LocalDate fecha, LocalTime horaInicio,
+            Duration duracion) {
+        Duration vigencia = duracion == null ? duracionPorDefecto : duracion;
+        if (vigencia.isNegative() || vigencia.isZero() || vigencia.compareTo(duracionMaxima) > 0) {
+            throw new IllegalArgumentException("La retención debe durar entre 1 y " + duracionMaxima.toMinutes() + " minutos");
+        }
+        long bit = disponibilidadIndex.grilla(canchaId).bit(horaInicio);
+        if (bit == 0) {
+            throw new IllegalArgumentException("El horario no corresponde a un slot de la grilla de la cancha");
+        }
+        ClaveDia dia = new ClaveDia(canchaId, fecha);
+        return bloqueoSlots.ejecutar(canchaId, fecha, () -> {
+            if (disponibilidadIndex.estaOcupado(canchaId, fecha, horaInicio)) {
+                throw new SlotNoDisponibleException("El horario seleccionado ya está reservado para esta cancha");
+            }
+            if ((mascara(canchaId, fecha) & bit) != 0) {
+                throw new SlotNoDisponibleException("El horario seleccionado está retenido por otro usuario");
+            }
+            if (total.get() >= maximo) {
+                throw new SlotNoDisponibleException("Se alcanzó el máximo de retenciones activas, intente nuevamente");
+            }
+            // Contar con compute: las retenciones del mismo actor en otros días usan otros locks
+            boolean[] admitida = new boolean[1];
+            porActor.compute(actor, (a, activas) -> {
+                int actuales = activas == null ? 0 : activas;
+                admitida[0] = actuales < maximoPorUsuario;
+                return admitida[0] ? actuales + 1 : activas;
+            });
+            if (!admitida[0]) {
+                throw new IllegalArgumentException("No se pueden tener más de " + maximoPorUsuario + " retenciones activas");
+            }
+
+            long venceNanos = System.nanoTime() + vigencia.toNanos();
+            Retencion retencion = new Retencion(UUID.randomUUID().toString(), actor, usuarioId, canchaId, fecha, horaInicio,
+                    bit, Instant.now().plus(vigencia), venceNanos);
+            retencion.temporizador = rueda.programar(venceNanos, () -> vencer(retencion));
+            porId.put(retencion.id, retencion);
+            porSlot.put(new SlotRetenido(dia, bit), retencion);
+            total.incrementAndGet();
+            retenidos.merge(dia, bit, (a, b) -> a | b);
+            cambio(retencion, true);
+            return retencion;
+        });
+    }
+
+    /**
+     * Retención activa del actor con ese ID. Lanza RetencionVencidaException si no existe,
+     * venció o es de otro usuario (no se distingue, para no revelar retenciones ajenas).
+     */
+    public Retencion buscar(String id, String actor) {
+        Retencion retencion = porId.get(id);
+        if (retencion == null || !retencion.actor.equals(actor)) {
+            throw new RetencionVencidaException("La retención no existe o ya venció");
+        }
+        return retencion;
+    }
+
+    /**
+     * Reclama la retención para convertirla en reserva; se llama con el lock de su día tomado.
+     * Desde aquí ya no puede vencer: quien llama debe terminar con soltar.
+     */
+    public void reclamar(Retencion retencion) {
+        if (System.nanoTime() - retencion.venceNanos >= 0) {
+            // Venció aunque la rueda todavía no haya pasado por su tick
+            if (retencion.temporizador.cancelar()) {
+                soltar(retencion, true);
+            }
+            throw new RetencionVencidaException("La retención ya venció");
+        }
+        if (!retencion.temporizador.cancelar()) {
+            throw new RetencionVencidaException("La retención ya venció o fue cancelada");
+        }
+    }
+
+    /**
+     * Cancela la retención a pedido de su dueño; devuelve false si ya no estaba activa.
+     */
+    public boolean cancelar(String id, String actor) {
+        Retencion retencion = buscar(id, actor);
+        return bloqueoSlots.ejecutar(retencion.canchaId, retencion.fecha, () -> {
+            if (!retencion.temporizador.cancelar()) {
+                return false;
+            }
+            soltar(retencion, true);
+            return true;
+        });
+    }
+
+    /**
+     * Quita una retención ya reclamada o cancelada. Con liberar se anuncia el slot como libre;
+     * al convertirse en reserva no hace falta (el slot sigue ocupado).
+     */
+    public void soltar(Retencion retencion, boolean liberar) {
+        bloqueoSlots.ejecutar(retencion.canchaId, retencion.fecha, () -> {
+            if (porId.remove(retencion.id, retencion)) {
+                total.decrementAndGet();
+                porSlot.remove(new SlotRetenido(new ClaveDia(retencion.canchaId, retencion.fecha), retencion.bit), retencion);
+                porActor.computeIfPresent(retencion.actor, (actor, activas) -> activas <= 1 ? null : activas - 1);
+                long bit = retencion.bit;
+                retenidos.computeIfPresent(new ClaveDia(retencion.canchaId, retencion.fecha),
+                        (dia, mascara) -> (mascara & ~bit) == 0 ? null : mascara & ~bit);
+                if (liberar) {
+                    cambio(retencion, false);
+                } else {
+                    disponibilidadIndex.marcarCambio(retencion.canchaId, retencion.fecha);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Máscara de slots retenidos del día (mismo formato que DisponibilidadIndex).
+     */
+    public long mascara(Long canchaId, LocalDate fecha) {
+        if (retenidos.isEmpty()) {
+            return 0L;
+        }
+        Long mascara = retenidos.get(new ClaveDia(canchaId, fecha));
+        return mascara == null ? 0L : mascara;
+    }
+
+    public boolean estaRetenido(Long canchaId, LocalDate fecha, LocalTime horaInicio) {
+        if (retenidos.isEmpty()) {
+            return false;
+        }
+        long bit = disponibilidadIndex.grilla(canchaId).bit(horaInicio);
+        return bit != 0 && (mascara(canchaId, fecha) & bit) != 0;
+    }
+
+    /**
+     * Retención activa del actor sobre ese slot, o null si el slot no está retenido o lo
+     * retiene otro usuario.
+     */
+    public Retencion retenidoPor(String actor, Long canchaId, LocalDate fecha, LocalTime horaInicio) {
+        long bit = disponibilidadIndex.grilla(canchaId).bit(horaInicio);
+        Retencion retencion = bit == 0 ? null : porSlot.get(new SlotRetenido(new ClaveDia(canchaId, fecha), bit));
+        return retencion != null && retencion.actor.equals(actor) ? retencion : null;
+    }
+
+    public boolean sinRetenciones() {
+        return retenidos.isEmpty();
+    }
+
+    public int activas() {
+        return total.get();
+    }
+
+    /**
+     * Un cambio de horario cancela las retenciones de la cancha: sus bits son de la grilla anterior.
+     */
+    @EventListener
+    public void onHorarioCambiado(HorarioCanchaCambiadoEvent evento) {
+        for (Retencion retencion : porId.values()) {
+            if (retencion.canchaId.equals(evento.canchaId())) {
+                bloqueoSlots.ejecutar(retencion.canchaId, retencion.fecha, () -> {
+                    if (retencion.temporizador.cancelar()) {
+                        soltar(retencion, true);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${reservas.retenciones.tick:1s}")
+    public void vencerPendientes() {
+        rueda.avanzar(System.nanoTime());
+    }
+
+    private void vencer(Retencion retencion) {
+        soltar(retencion, true);
+    }
+
+    // Primero cambia la retención y después la versión del día, así quien lea la versión
+    // nueva ya ve la retención (ver ReservaService.getEstadoDisponibilidad)
+    private void cambio(Retencion retencion, boolean ocupado) {
+        disponibilidadIndex.marcarCambio(retencion.canchaId, retencion.fecha);
+        eventPublisher.publishEvent(new SlotCambiadoEvent(retencion.canchaId, retencion.fecha, retencion.horaInicio, ocupado));
+    }
+
+    private record SlotRetenido(ClaveDia dia, long bit) {
+    }
+
+    /**
+     * Retención activa de un slot. El vencimiento en nanos es el que cuenta; venceEn es
+     * solo para informarlo al cliente.
+     */
+    public static final class Retencion {
+        private final String id;
+        private final String actor;
+        private final Long usuarioId;
+        private final Long canchaId;
+        private final LocalDate fecha;
+        private final LocalTime horaInicio;
+        // Bit del slot en la grilla vigente al retener; es el que se suelta aunque cambie el horario
+        private final long bit;
+        private final Instant venceEn;
+        private final long venceNanos;
+        private RuedaTemporal.Temporizador temporizador;
+
+        private Retencion(String id, String actor, Long usuarioId, Long canchaId, LocalDate fecha, LocalTime horaInicio,
+                long bit, Instant venceEn, long venceNanos) {
+            this.id = id;
+            this.actor = actor;
+            this.usuarioId = usuarioId;
+            this.canchaId = canchaId;
+            this.fecha = fecha;
+            this.horaInicio = horaInicio;
+            this.bit = bit;
+            this.venceEn = venceEn;
+            this.venceNanos = venceNanos;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getUsuarioId() {
+            return usuarioId;
+        }
+
+        public Long getCanchaId() {
+            return canchaId;
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        public LocalTime getHoraInicio() {
+            return horaInicio;
+        }
+
+        public Instant getVenceEn() {
+            return venceEn;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rueda temporal con hash (hashed timing wheel) para vencer muchos temporizadores con
+ * costo O(1) por temporizador.
+ *
+ * El tiempo se divide en ticks y cada tick cae en una de las ranuras del arreglo
+ * (tick módulo ranuras); un vencimiento más lejano que una vuelta completa guarda cuántas
+ * vueltas le faltan. Programar y cancelar solo encolan (desde cualquier hilo); un único
+ * hilo llama a avanzar, que pasa los nuevos a su ranura, desengancha los cancelados y
+ * vence los de la ranura de cada tick transcurrido. La precisión es de un tick.
+ */
+final class RuedaTemporal {
+
+    private final long tickNanos;
+    private final int mascara;
+    private final Ranura[] ranuras;
+    private final long inicio;
+    private final ConcurrentLinkedQueue<Temporizador> nuevos = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Temporizador> cancelados = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock avanzando = new ReentrantLock();
+
+    // Próximo tick a procesar; solo lo toca el hilo que avanza
+    private long tick;
+
+    RuedaTemporal(long tickNanos, int ranurasMinimas, long ahoraNanos) {
+        int cantidad = Integer.highestOneBit(Math.max(2, ranurasMinimas - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.mascara = cantidad - 1;
+        this.ranuras = new Ranura[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            ranuras[i] = new Ranura();
+        }
+        this.inicio = ahoraNanos;
+    }
+
+    /**
+     * Programa la acción para el instante indicado (en la escala de System.nanoTime).
+     * La acción corre en el hilo que llama a avanzar.
+     */
+    Temporizador programar(long venceNanos, Runnable alVencer) {
+        Temporizador temporizador = new Temporizador(this, venceNanos, alVencer);
+        nuevos.add(temporizador);
+        return temporizador;
+    }
+
+    /**
+     * Procesa todos los ticks transcurridos hasta ahora; devuelve cuántos temporizadores
+     * vencieron. Si otro hilo ya está avanzando, no hace nada.
+     */
+    int avanzar(long ahoraNanos) {
+        if (!avanzando.tryLock()) {
+            return 0;
+        }
+        try {
+            long hasta = (ahoraNanos - inicio) / tickNanos;
+            int vencidos = 0;
+            while (tick <= hasta) {
+                desengancharCancelados();
+                ubicarNuevos();
+                vencidos += ranuras[(int) tick & mascara].vencer();
+                tick++;
+            }
+            return vencidos;
+        } finally {
+            avanzando.unlock();
+        }
+    }
+
+    private void ubicarNuevos() {
+        Temporizador temporizador;
+        while ((temporizador = nuevos.poll()) != null) {
+            if (temporizador.estado.get() != Temporizador.PENDIENTE) {
+                continue;
+            }
+            // Uno ya vencido va a la ranura actual y se vence en este mismo tick
+            long destino = Math.max(tick, (temporizador.venceNanos - inicio + tickNanos - 1) / tickNanos);
+            temporizador.vueltas = (destino - tick) / ranuras.length;
+            ranuras[(int) destino & mascara].agregar(temporizador);
+        }
+    }
+
+    private void desengancharCancelados() {
+        Temporizador temporizador;
+        while ((temporizador = cancelados.poll()) != null) {
+            if (temporizador.ranura != null) {
+                temporizador.ranura.quitar(temporizador);
+            }
+        }
+    }
+
+    /**
+     * Un vencimiento programado. Cancelar y vencer compiten con un CAS sobre el estado:
+     * solo uno de los dos gana.
+     */
+    static final class Temporizador {
+        static final int PENDIENTE = 0;
+        static final int CANCELADO = 1;
+        static final int VENCIDO = 2;
+
+        private final RuedaTemporal rueda;
+        private final long venceNanos;
+        private final Runnable alVencer;
+        private final AtomicInteger estado = new AtomicInteger(PENDIENTE);
+
+        // Lista doble de la ranura; solo las toca el hilo que avanza
+        private Ranura ranura;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+        private long vueltas;
+
+        private Temporizador(RuedaTemporal rueda, long venceNanos, Runnable alVencer) {
+            this.rueda = rueda;
+            this.venceNanos = venceNanos;
+            this.alVencer = alVencer;
+        }
+
+        /**
+         * true si se canceló antes de vencer; false si ya había vencido o estaba cancelado.
+         */
+        boolean cancelar() {
+            if (!estado.compareAndSet(PENDIENTE, CANCELADO)) {
+                return false;
+            }
+            rueda.cancelados.add(this);
+            return true;
+        }
+
+        long venceNanos() {
+            return venceNanos;
+        }
+    }
+
+    private static final class Ranura {
+        private Temporizador primero;
+        private Temporizador ultimo;
+
+        void agregar(Temporizador temporizador) {
+            temporizador.ranura = this;
+            temporizador.anterior = ultimo;
+            if (ultimo == null) {
+                primero = temporizador;
+            } else {
+                ultimo.siguiente = temporizador;
+            }
+            ultimo = temporizador;
+        }
+
+        void quitar(Temporizador temporizador) {
+            if (temporizador.anterior == null) {
+                primero = temporizador.siguiente;
+            } else {
+                temporizador.anterior.siguiente = temporizador.siguiente;
+            }
+            if (temporizador.siguiente == null) {
+                ultimo = temporizador.anterior;
+            } else {
+                temporizador.siguiente.anterior = temporizador.anterior;
+            }
+            temporizador.ranura = null;
+            temporizador.anterior = null;
+            temporizador.siguiente = null;
+        }
+
+        int vencer() {
+            int vencidos = 0;
+            Temporizador temporizador = primero;
+            while (temporizador != null) {
+                Temporizador siguiente = temporizador.siguiente;
+                if (temporizador.vueltas > 0) {
+                    temporizador.vueltas--;
+                } else {
+                    quitar(temporizador);
+                    if (temporizador.estado.compareAndSet(Temporizador.PENDIENTE, Temporizador.VENCIDO)) {
+                        temporizador.alVencer.run();
+                        vencidos++;
+                    }
+                }
+                temporizador = siguiente;
+            }
+            return vencidos;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Reserva;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinea la secuencia de IDs de reserva con los IDs ya guardados al arrancar, antes de
+ * que el servidor acepte peticiones. Las bases creadas cuando reserva usaba IDENTITY
+ * tienen filas con IDs que la secuencia (creada por ddl-auto en 1) volvería a entregar.
+ *
+ * Se pide un bloque con nextval: si ese bloque se solapa con el ID máximo, la secuencia
+ * se reinicia justo por encima. En una base ya alineada solo se descarta un bloque.
+ */
+@Component
+public class SecuenciaReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(SecuenciaReservas.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // El esquema (y la secuencia) existe una vez creado el EntityManagerFactory
+    public SecuenciaReservas(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alinear() {
+        long maximo = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from reserva", Long.class);
+        long siguiente = siguienteValor();
+        // Con el optimizador pooled, nextval = n entrega los IDs n - 49 .. n
+        if (siguiente - Reserva.IDS_POR_BLOQUE + 1 <= maximo) {
+            long reinicio = maximo + Reserva.IDS_POR_BLOQUE;
+            // DDL: no admite parámetros; el valor es un long calculado aquí
+            jdbcTemplate.execute("alter sequence " + Reserva.SECUENCIA + " restart with " + reinicio);
+            log.info("Secuencia {} realineada: el ID máximo de reserva es {}", Reserva.SECUENCIA, maximo);
+        }
+    }
+
+    // Sintaxis de PostgreSQL, también válida en H2 con MODE=PostgreSQL
+    private long siguienteValor() {
+        return jdbcTemplate.queryForObject("select nextval('" + Reserva.SECUENCIA + "')", Long.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Evento de dominio: un slot pasó a estar ocupado o libre. ReservaService lo publica
+ * una vez que la escritura quedó confirmada en la base de datos.
+ */
+public record SlotCambiadoEvent(Long canchaId, LocalDate fecha, LocalTime horaInicio, boolean ocupado) {
+}
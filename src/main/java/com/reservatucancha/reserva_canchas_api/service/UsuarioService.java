@@ -2,21 +2,47 @@ package com.reservatucancha.reserva_canchas_api.service;
 
 import com.reservatucancha.reserva_canchas_api.entity.Usuario;
 import com.reservatucancha.reserva_canchas_api.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-public class UsuarioService implements UserDetailsService {
+public class UsuarioService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
-    public UsuarioService(UsuarioRepository usuarioRepository) {
+    // Usuarios autenticados por email, para que el filtro JWT no consulte la base en cada petición
+    private final Cache<String, Usuario> principales;
+    // Email con el que está cacheado cada usuario, para invalidar por ID sin recorrer la caché
+    private final Cache<Long, String> emailsPorId;
+    // Cambia con cada alta, modificación o baja; una carga que lo ve cambiar no deja su resultado
+    private final AtomicLong generacion = new AtomicLong();
+
+    public UsuarioService(UsuarioRepository usuarioRepository,
+            @Value("${seguridad.principal-cache.maximo:10000}") long maximoPrincipales,
+            @Value("${seguridad.principal-cache.ttl:10m}") Duration ttlPrincipales) {
         this.usuarioRepository = usuarioRepository;
+        this.principales = Caffeine.newBuilder()
+                .maximumSize(maximoPrincipales)
+                .expireAfterWrite(ttlPrincipales)
+                .recordStats()
+                .build();
+        this.emailsPorId = Caffeine.newBuilder()
+                .maximumSize(maximoPrincipales)
+                .expireAfterWrite(ttlPrincipales)
+                .build();
     }
 
     // Método requerido por la interfaz UserDetailsService
@@ -26,20 +52,92 @@ public class UsuarioService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
     }
 
+    // Llamado por Spring Security tras un login exitoso cuando el hash usa otra fuerza de BCrypt
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + user.getUsername()));
+        usuario.setPassword(newPassword);
+        return save(usuario);
+    }
+
+    /**
+     * Igual que loadUserByUsername pero servido desde la caché de principales.
+     * Lo usa el filtro JWT; el login sigue consultando siempre la base de datos.
+     */
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        Usuario usuario = principales.getIfPresent(email);
+        if (usuario != null) {
+            return usuario;
+        }
+        // Consulta fuera de Cache.get(clave, loader), que bloquea un monitor y fijaría
+        // el hilo virtual a su carrier mientras espera a la base de datos
+        long generacionLeida = generacion.get();
+        Usuario leido = usuarioRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
+        Usuario anterior = principales.asMap().putIfAbsent(email, leido);
+        if (anterior != null) {
+            return anterior;
+        }
+        emailsPorId.put(leido.getId(), email);
+        // Si hubo una escritura durante la consulta, lo leído puede ser viejo: no se deja en la caché
+        if (generacion.get() != generacionLeida) {
+            principales.asMap().remove(email, leido);
+        }
+        return leido;
+    }
+
+    public CacheStats estadisticasPrincipales() {
+        return principales.stats();
+    }
+
+    public long principalesEnCache() {
+        return principales.estimatedSize();
+    }
+
+    // Descarta el usuario de la caché con el email con que se cacheó y, si cambió, también con el nuevo
+    private void invalidarPrincipal(Long id, String emailNuevo) {
+        generacion.incrementAndGet();
+        if (id != null) {
+            String emailCacheado = emailsPorId.asMap().remove(id);
+            if (emailCacheado != null) {
+                principales.invalidate(emailCacheado);
+            }
+        }
+        if (emailNuevo != null) {
+            principales.invalidate(emailNuevo);
+        }
+    }
+
     // Métodos CRUD existentes
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
     }
 
+    /**
+     * Devuelve hasta limite + 1 elementos con ID mayor que el cursor; el elemento
+     * extra indica que hay una página siguiente.
+     */
+    public List<Usuario> findPagina(Long after, int limite) {
+        return usuarioRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limite + 1));
+    }
+
+    public List<Usuario> findAllById(Iterable<Long> ids) {
+        return usuarioRepository.findAllById(ids);
+    }
+
     public Optional<Usuario> findById(Long id) {
         return usuarioRepository.findById(id);
     }
 
     public Usuario save(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        Usuario savedUsuario = usuarioRepository.save(usuario);
+        invalidarPrincipal(savedUsuario.getId(), savedUsuario.getEmail());
+        return savedUsuario;
     }
 
     public void deleteById(Long id) {
         usuarioRepository.deleteById(id);
+        invalidarPrincipal(id, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnilloEventosTest {
+
+    @Test
+    void laCapacidadSubeALaSiguientePotenciaDeDos() {
+        assertEquals(4, new AnilloEventos<String>(1).capacidad());
+        assertEquals(4, new AnilloEventos<String>(3).capacidad());
+        assertEquals(8, new AnilloEventos<String>(8).capacidad());
+        assertEquals(16, new AnilloEventos<String>(9).capacidad());
+        assertEquals(1024, new AnilloEventos<String>(1000).capacidad());
+    }
+
+    @Test
+    void devuelveLosElementosEnOrden() {
+        AnilloEventos<Integer> anillo = new AnilloEventos<>(4);
+        assertTrue(anillo.vacio());
+        assertNull(anillo.sacar());
+
+        // Varias vueltas completas del arreglo
+        for (int i = 0; i < 20; i++) {
+            assertTrue(anillo.ofrecer(i));
+            assertTrue(anillo.ofrecer(i + 100));
+            assertEquals(2, anillo.tamano());
+            assertEquals(i, anillo.sacar());
+            assertEquals(i + 100, anillo.sacar());
+        }
+        assertTrue(anillo.vacio());
+        assertEquals(0, anillo.tamano());
+    }
+
+    @Test
+    void llenoRechazaSinEsperar() {
+        AnilloEventos<Integer> anillo = new AnilloEventos<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anillo.ofrecer(i));
+        }
+        assertFalse(anillo.ofrecer(4));
+        assertEquals(4, anillo.tamano());
+
+        assertEquals(0, anillo.sacar());
+        assertTrue(anillo.ofrecer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, anillo.sacar());
+        }
+        assertNull(anillo.sacar());
+    }
+
+    @Test
+    void variosProductoresUnConsumidor() throws Exception {
+        int productores = 4;
+        int porProductor = 50_000;
+        AnilloEventos<long[]> anillo = new AnilloEventos<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(productores);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int p = 0; p < productores; p++) {
+                long productor = p;
+                tareas.add(executor.submit(() -> {
+                    for (long i = 0; i < porProductor; i++) {
+                        long[] elemento = {productor, i};
+                        while (!anillo.ofrecer(elemento)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+
+            // Cada elemento llega una sola vez y en el orden en que lo ofreció su productor
+            long[] siguientes = new long[productores];
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            int recibidos = 0;
+            while (recibidos < productores * porProductor && System.nanoTime() < limite) {
+                long[] elemento = anillo.sacar();
+                if (elemento == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int productor = (int) elemento[0];
+                assertEquals(siguientes[productor], elemento[1], "productor " + productor);
+                siguientes[productor]++;
+                recibidos++;
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(productores * porProductor, recibidos);
+            assertNull(anillo.sacar());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
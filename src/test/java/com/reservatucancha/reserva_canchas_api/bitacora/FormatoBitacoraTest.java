@@ -0,0 +1,145 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormatoBitacoraTest {
+
+    private static final long INSTANTE = Instant.parse("2025-03-10T12:30:45.123Z").toEpochMilli();
+
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer registro = ByteBuffer.allocate(FormatoBitacora.MAXIMO_REGISTRO).order(FormatoBitacora.ORDEN);
+
+    @Test
+    void unaModificacionIdaYVuelta() {
+        MovimientoReservaEvent movimiento = new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.MODIFICADA, 42L, 7L, 3L,
+                LocalDate.of(2025, 3, 10), LocalTime.of(19, 0), 2L, LocalDate.of(2025, 3, 9), LocalTime.of(8, 30));
+
+        EventoBitacora evento = idaYVuelta(1234L, "ana@correo.com", movimiento);
+
+        assertEquals(new EventoBitacora(1234L, Instant.ofEpochMilli(INSTANTE), MovimientoReservaEvent.Tipo.MODIFICADA,
+                "ana@correo.com", 42L, 7L, 3L, LocalDate.of(2025, 3, 10), LocalTime.of(19, 0),
+                2L, LocalDate.of(2025, 3, 9), LocalTime.of(8, 30)), evento);
+    }
+
+    @Test
+    void losNulosSeConservan() {
+        MovimientoReservaEvent movimiento = new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.ELIMINADA, 42L, null, null,
+                null, null, null, null, null);
+
+        EventoBitacora evento = idaYVuelta(1L, null, movimiento);
+
+        assertEquals(MovimientoReservaEvent.Tipo.ELIMINADA, evento.tipo());
+        assertEquals(42L, evento.reservaId());
+        assertNull(evento.actor());
+        assertNull(evento.usuarioId());
+        assertNull(evento.canchaId());
+        assertNull(evento.fecha());
+        assertNull(evento.horaInicio());
+        assertNull(evento.canchaAnterior());
+        assertNull(evento.fechaAnterior());
+        assertNull(evento.horaAnterior());
+    }
+
+    @Test
+    void lasFechasAnterioresA1970YLaMedianocheSeConservan() {
+        MovimientoReservaEvent movimiento = new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.CREADA, 1L, 1L, 1L,
+                LocalDate.of(1965, 1, 1), LocalTime.MIDNIGHT, null, null, null);
+
+        EventoBitacora evento = idaYVuelta(1L, "x", movimiento);
+
+        assertEquals(LocalDate.of(1965, 1, 1), evento.fecha());
+        assertEquals(LocalTime.MIDNIGHT, evento.horaInicio());
+    }
+
+    @Test
+    void elActorLargoSeRecortaSinPartirCaracteres() {
+        // "ñ" ocupa dos bytes: el byte 255 es el segundo de la ñ número 128
+        String actor = "ñ".repeat(200);
+
+        EventoBitacora evento = idaYVuelta(1L, actor, creada());
+
+        byte[] bytes = evento.actor().getBytes(StandardCharsets.UTF_8);
+        assertEquals(FormatoBitacora.ACTOR_MAXIMO - 1, bytes.length);
+        assertEquals("ñ".repeat(127), evento.actor());
+
+        // Si el corte cae justo entre dos caracteres se conservan los 255 bytes
+        assertEquals("a" + "ñ".repeat(127), idaYVuelta(2L, "a" + "ñ".repeat(200), creada()).actor());
+    }
+
+    @Test
+    void unRegistroAlteradoNoEsValido() {
+        int largo = FormatoBitacora.codificar(registro, crc, 9L, INSTANTE, "ana", creada());
+        assertEquals(largo, FormatoBitacora.longitudValida(registro, 0, crc));
+
+        // Un byte del cuerpo cambiado ya no coincide con el CRC
+        registro.put(20, (byte) (registro.get(20) ^ 1));
+        assertEquals(0, FormatoBitacora.longitudValida(registro, 0, crc));
+    }
+
+    @Test
+    void losCerosMarcanElFinDeLoEscrito() {
+        ByteBuffer vacio = ByteBuffer.allocate(256).order(FormatoBitacora.ORDEN);
+        assertEquals(0, FormatoBitacora.longitudValida(vacio, 0, crc));
+        // Sin lugar para un encabezado completo
+        assertEquals(0, FormatoBitacora.longitudValida(vacio, 252, crc));
+    }
+
+    @Test
+    void unRegistroCortadoNoEsValido() {
+        int largo = FormatoBitacora.codificar(registro, crc, 9L, INSTANTE, "ana", creada());
+        ByteBuffer cortado = ByteBuffer.allocate(largo - 1).order(FormatoBitacora.ORDEN);
+        cortado.put(0, registro, 0, largo - 1);
+        assertEquals(0, FormatoBitacora.longitudValida(cortado, 0, crc));
+    }
+
+    @Test
+    void nombreDeSegmento() {
+        String nombre = FormatoBitacora.nombreSegmento(1025L);
+        assertEquals("reservas-00000000000000001025.bitacora", nombre);
+        assertTrue(FormatoBitacora.esSegmento(Path.of("/tmp", nombre)));
+        assertEquals(1025L, FormatoBitacora.primeraSecuencia(Path.of(nombre)));
+        assertFalse(FormatoBitacora.esSegmento(Path.of("reservas-1.log")));
+    }
+
+    @Test
+    void cabecera() {
+        ByteBuffer segmento = ByteBuffer.allocate(64).order(FormatoBitacora.ORDEN);
+        assertThrows(IllegalStateException.class, () -> FormatoBitacora.verificarCabecera(segmento, Path.of("x")));
+
+        FormatoBitacora.escribirCabecera(segmento, 77L);
+        FormatoBitacora.verificarCabecera(segmento, Path.of("x"));
+        assertEquals(77L, segmento.getLong(8));
+
+        segmento.putInt(4, FormatoBitacora.VERSION + 1);
+        assertThrows(IllegalStateException.class, () -> FormatoBitacora.verificarCabecera(segmento, Path.of("x")));
+        ByteBuffer corto = ByteBuffer.allocate(8).order(FormatoBitacora.ORDEN);
+        assertThrows(IllegalStateException.class, () -> FormatoBitacora.verificarCabecera(corto, Path.of("x")));
+    }
+
+    private EventoBitacora idaYVuelta(long secuencia, String actor, MovimientoReservaEvent movimiento) {
+        int largo = FormatoBitacora.codificar(registro, crc, secuencia, INSTANTE, actor, movimiento);
+        assertEquals(largo, FormatoBitacora.longitudValida(registro, 0, crc));
+        assertEquals(secuencia, FormatoBitacora.secuencia(registro, 0));
+        return FormatoBitacora.decodificar(registro, 0);
+    }
+
+    private static MovimientoReservaEvent creada() {
+        return new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.CREADA, 1L, 2L, 3L,
+                LocalDate.of(2025, 3, 10), LocalTime.of(9, 0), null, null, null);
+    }
+}
@@ -0,0 +1,149 @@
+package com.reservatucancha.reserva_canchas_api.bitacora;
+
+import com.reservatucancha.reserva_canchas_api.service.MovimientoReservaEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LectorBitacoraTest {
+
+    @TempDir
+    Path directorio;
+
+    private final NavigableMap<Long, Path> segmentos = new TreeMap<>();
+    private final CRC32C crc = new CRC32C();
+
+    @Test
+    void leeDesdeElMedioDeUnSegmento() throws IOException {
+        segmento(1, 10, 1024);
+
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L, 10L), secuencias(new LectorBitacora(segmentos, 4, 10)));
+    }
+
+    @Test
+    void pasaDeUnSegmentoAlSiguiente() throws IOException {
+        segmento(1, 5, 1024);
+        segmento(6, 8, 1024);
+        segmento(9, 12, 1024);
+
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L), secuencias(new LectorBitacora(segmentos, 5, 10)));
+        assertEquals(List.of(7L, 8L), secuencias(new LectorBitacora(segmentos, 7, 8)));
+    }
+
+    @Test
+    void noPasaDeHasta() throws IOException {
+        segmento(1, 10, 1024);
+
+        LectorBitacora lector = new LectorBitacora(segmentos, 1, 3);
+        assertEquals(List.of(1L, 2L, 3L), secuencias(lector));
+        // Una vez terminado sigue devolviendo null
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    void unDesdeAnteriorAlPrimerSegmentoEmpiezaPorElPrimero() throws IOException {
+        segmento(20, 22, 1024);
+
+        assertEquals(List.of(20L, 21L, 22L), secuencias(new LectorBitacora(segmentos, 1, 30)));
+    }
+
+    @Test
+    void sinSegmentosOConRangoVacioNoDevuelveNada() throws IOException {
+        assertNull(new LectorBitacora(segmentos, 1, 10).siguiente());
+        segmento(1, 3, 1024);
+        assertNull(new LectorBitacora(segmentos, 5, 4).siguiente());
+    }
+
+    @Test
+    void ignoraUnRegistroCortadoAlFinal() throws IOException {
+        Path archivo = segmento(1, 3, 1024);
+        // El cuarto registro quedó a medio escribir: longitud puesta, cuerpo incompleto
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(archivo)).order(FormatoBitacora.ORDEN);
+        int fin = posicionLibre(contenido);
+        ByteBuffer registro = registro(4);
+        contenido.put(fin, registro, 0, 20);
+        Files.write(archivo, contenido.array());
+        segmento(5, 6, 1024);
+
+        // El lector salta al segmento siguiente (el escritor abre uno nuevo al reiniciar)
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), secuencias(new LectorBitacora(segmentos, 1, 6)));
+    }
+
+    @Test
+    void decodificaElContenido() throws IOException {
+        segmento(1, 2, 1024);
+
+        EventoBitacora evento = new LectorBitacora(segmentos, 2, 2).siguiente();
+        assertEquals(2L, evento.secuencia());
+        assertEquals(MovimientoReservaEvent.Tipo.CREADA, evento.tipo());
+        assertEquals(102L, evento.reservaId());
+        assertEquals("actor2", evento.actor());
+    }
+
+    @Test
+    void rechazaUnArchivoQueNoEsSegmento() throws IOException {
+        Path archivo = directorio.resolve(FormatoBitacora.nombreSegmento(1));
+        Files.write(archivo, new byte[64]);
+        segmentos.put(1L, archivo);
+
+        assertThrows(IllegalStateException.class, () -> new LectorBitacora(segmentos, 1, 1).siguiente());
+    }
+
+    // Escribe un segmento con las secuencias [primera, ultima] seguidas de ceros, como el escritor
+    private Path segmento(long primera, long ultima, int tamano) throws IOException {
+        ByteBuffer contenido = ByteBuffer.allocate(tamano).order(FormatoBitacora.ORDEN);
+        FormatoBitacora.escribirCabecera(contenido, primera);
+        int posicion = FormatoBitacora.CABECERA;
+        for (long secuencia = primera; secuencia <= ultima; secuencia++) {
+            ByteBuffer registro = registro(secuencia);
+            contenido.put(posicion, registro, 0, registro.limit());
+            posicion += registro.limit();
+        }
+        Path archivo = directorio.resolve(FormatoBitacora.nombreSegmento(primera));
+        Files.write(archivo, contenido.array());
+        segmentos.put(primera, archivo);
+        return archivo;
+    }
+
+    private ByteBuffer registro(long secuencia) {
+        ByteBuffer registro = ByteBuffer.allocate(FormatoBitacora.MAXIMO_REGISTRO).order(FormatoBitacora.ORDEN);
+        MovimientoReservaEvent movimiento = new MovimientoReservaEvent(MovimientoReservaEvent.Tipo.CREADA, 100 + secuencia,
+                1L, 1L, LocalDate.of(2025, 3, 10), LocalTime.of(9, 0), null, null, null);
+        int largo = FormatoBitacora.codificar(registro, crc, secuencia, 1_700_000_000_000L, "actor" + secuencia, movimiento);
+        registro.limit(largo);
+        return registro;
+    }
+
+    private int posicionLibre(ByteBuffer contenido) {
+        int posicion = FormatoBitacora.CABECERA;
+        int largo;
+        while ((largo = FormatoBitacora.longitudValida(contenido, posicion, crc)) > 0) {
+            posicion += largo;
+        }
+        return posicion;
+    }
+
+    private static List<Long> secuencias(LectorBitacora lector) {
+        List<Long> leidas = new ArrayList<>();
+        EventoBitacora evento;
+        while ((evento = lector.siguiente()) != null) {
+            leidas.add(evento.secuencia());
+        }
+        return leidas;
+    }
+}
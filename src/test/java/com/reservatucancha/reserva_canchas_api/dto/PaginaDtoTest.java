@@ -0,0 +1,60 @@
+package com.reservatucancha.reserva_canchas_api.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaginaDtoTest {
+
+    private record Fila(Long id, LocalDate fecha) {
+    }
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void laFilaExtraIndicaQueHayOtraPagina() {
+        // Se pidieron limite + 1 = 3 filas
+        List<Fila> filas = List.of(new Fila(4L, FECHA), new Fila(9L, FECHA), new Fila(12L, FECHA));
+
+        PaginaDto<Long> pagina = PaginaDto.desde(filas, 2, Fila::id, Fila::id);
+
+        assertEquals(List.of(4L, 9L), pagina.getContenido());
+        assertEquals(2, pagina.getLimite());
+        assertEquals(9L, pagina.getSiguienteCursor());
+        assertNull(pagina.getSiguienteFecha());
+    }
+
+    @Test
+    void laUltimaPaginaNoTieneCursor() {
+        List<Fila> filas = List.of(new Fila(4L, FECHA), new Fila(9L, FECHA));
+
+        PaginaDto<Long> pagina = PaginaDto.desde(filas, 2, Fila::id, Fila::fecha, Fila::id);
+
+        assertEquals(List.of(4L, 9L), pagina.getContenido());
+        assertNull(pagina.getSiguienteCursor());
+        assertNull(pagina.getSiguienteFecha());
+    }
+
+    @Test
+    void porFechaElCursorEsElParDeLaUltimaFila() {
+        List<Fila> filas = List.of(new Fila(30L, FECHA), new Fila(5L, FECHA.plusDays(1)), new Fila(2L, FECHA.plusDays(2)));
+
+        PaginaDto<Fila> pagina = PaginaDto.desde(filas, 2, Fila::id, Fila::fecha, Function.identity());
+
+        assertEquals(5L, pagina.getSiguienteCursor());
+        assertEquals(FECHA.plusDays(1), pagina.getSiguienteFecha());
+    }
+
+    @Test
+    void normalizarLimite() {
+        assertEquals(PaginaDto.LIMITE_POR_DEFECTO, PaginaDto.normalizarLimite(null));
+        assertEquals(PaginaDto.LIMITE_POR_DEFECTO, PaginaDto.normalizarLimite(0));
+        assertEquals(10, PaginaDto.normalizarLimite(10));
+        assertEquals(PaginaDto.LIMITE_MAXIMO, PaginaDto.normalizarLimite(10_000));
+    }
+}
@@ -0,0 +1,135 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloqueoSlotsTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 10);
+
+    private final BloqueoSlots bloqueo = new BloqueoSlots();
+
+    // Contador sin sincronización propia: solo el lock lo protege
+    private int contador;
+
+    @Test
+    void serializaLasAccionesDelMismoDia() throws Exception {
+        int hilos = 8;
+        int vueltas = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < vueltas; i++) {
+                        bloqueo.ejecutar(1L, FECHA, () -> {
+                            int leido = contador;
+                            Thread.onSpinWait();
+                            contador = leido + 1;
+                            return null;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(hilos * vueltas, contador);
+    }
+
+    @Test
+    void variosDiasEnOrdenOpuestoNoSeTraban() throws Exception {
+        List<ClaveDia> ida = new ArrayList<>();
+        for (int d = 0; d < 16; d++) {
+            ida.add(new ClaveDia(1L + d % 3, FECHA.plusDays(d)));
+        }
+        List<ClaveDia> vuelta = new ArrayList<>(ida);
+        java.util.Collections.reverse(vuelta);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = executor.submit(() -> repetir(ida));
+            Future<?> b = executor.submit(() -> repetir(vuelta));
+            // Con un orden de toma inconsistente esto se colgaría
+            a.get(30, TimeUnit.SECONDS);
+            b.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2 * 5_000, contador);
+    }
+
+    @Test
+    void clavesRepetidasNoTomanElLockDosVeces() {
+        // Con la misma clave dos veces el lock se toma una sola vez y se suelta entero
+        List<ClaveDia> claves = List.of(new ClaveDia(7L, FECHA), new ClaveDia(7L, FECHA));
+        assertEquals("ok", bloqueo.ejecutar(claves, () -> "ok"));
+        assertTrue(libreDesdeOtroHilo(7L, FECHA));
+    }
+
+    @Test
+    void sueltaElLockSiLaAccionFalla() {
+        assertThrows(IllegalStateException.class, () -> bloqueo.ejecutar(3L, FECHA, () -> {
+            throw new IllegalStateException("falla");
+        }));
+        assertThrows(IllegalStateException.class, () -> bloqueo.ejecutar(
+                List.of(new ClaveDia(3L, FECHA), new ClaveDia(4L, FECHA.plusDays(1))), () -> {
+                    throw new IllegalStateException("falla");
+                }));
+        assertTrue(libreDesdeOtroHilo(3L, FECHA));
+        assertTrue(libreDesdeOtroHilo(4L, FECHA.plusDays(1)));
+    }
+
+    @Test
+    void stripeEsEstableYCaeEnElArreglo() {
+        for (long cancha = 1; cancha <= 50; cancha++) {
+            for (int d = 0; d < 60; d++) {
+                int stripe = BloqueoSlots.stripe(cancha, FECHA.plusDays(d));
+                assertEquals(stripe, BloqueoSlots.stripe(cancha, FECHA.plusDays(d)));
+                assertTrue(stripe >= 0 && stripe < 1024, "stripe fuera de rango: " + stripe);
+            }
+        }
+        // Días consecutivos de una cancha no deberían caer todos en el mismo lock
+        assertFalse(BloqueoSlots.stripe(1L, FECHA) == BloqueoSlots.stripe(1L, FECHA.plusDays(1))
+                && BloqueoSlots.stripe(1L, FECHA) == BloqueoSlots.stripe(1L, FECHA.plusDays(2)));
+    }
+
+    private Void repetir(List<ClaveDia> claves) {
+        for (int i = 0; i < 5_000; i++) {
+            bloqueo.ejecutar(claves, () -> contador++);
+        }
+        return null;
+    }
+
+    // El lock es reentrante: para ver si quedó tomado hay que probar desde otro hilo
+    private boolean libreDesdeOtroHilo(Long canchaId, LocalDate fecha) {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> bloqueo.ejecutar(canchaId, fecha, () -> true)).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import com.reservatucancha.reserva_canchas_api.repository.CanchaRepository;
+import com.reservatucancha.reserva_canchas_api.repository.HorarioOcupado;
+import com.reservatucancha.reserva_canchas_api.repository.ReservaRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DisponibilidadIndexTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+    private static final LocalTime NUEVE = LocalTime.of(9, 0);
+
+    // Cuántas veces se consultó la base de datos para cargar un día
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    void cargaElDiaUnaSolaVez() {
+        DisponibilidadIndex indice = indice(1000);
+
+        assertEquals(GrillaSlots.POR_DEFECTO.bit(NUEVE), indice.ocupados(1L, HOY));
+        assertEquals(GrillaSlots.POR_DEFECTO.bit(NUEVE), indice.ocupados(1L, HOY));
+        assertEquals(1, cargas.get());
+        assertNull(indice.consultar(2L, HOY));
+    }
+
+    @Test
+    void losCambiosRenuevanLaVersionSoloDeLosDiasCargados() {
+        DisponibilidadIndex indice = indice(1000);
+        EstadoDia antes = indice.estado(1L, HOY);
+
+        indice.ocupar(1L, HOY, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        EstadoDia despues = indice.consultar(1L, HOY);
+        assertEquals(antes.mascara() | GrillaSlots.POR_DEFECTO.bit(LocalTime.of(10, 0)), despues.mascara());
+        assertTrue(despues.version() > antes.version());
+
+        // Un día sin cargar no se crea: la próxima consulta lo lee de la base de datos
+        indice.ocupar(1L, HOY.plusDays(1), NUEVE, LocalTime.of(10, 0));
+        indice.marcarCambio(1L, HOY.plusDays(1));
+        assertNull(indice.consultar(1L, HOY.plusDays(1)));
+    }
+
+    @Test
+    void soloSeConsultanCanchasDelCatalogoDentroDelHorizonte() {
+        DisponibilidadIndex indice = indice(1000);
+
+        assertDoesNotThrow(() -> indice.verificarConsulta(1L, HOY));
+        assertDoesNotThrow(() -> indice.verificarConsulta(2L, HOY.plusDays(30)));
+        assertThrows(IllegalArgumentException.class, () -> indice.verificarConsulta(99L, HOY));
+        assertThrows(IllegalArgumentException.class, () -> indice.verificarConsulta(null, HOY));
+        assertThrows(IllegalArgumentException.class, () -> indice.verificarConsulta(1L, HOY.plusDays(31)));
+    }
+
+    @Test
+    void noGuardaMasQueElMaximoDeDias() throws InterruptedException {
+        DisponibilidadIndex indice = indice(10);
+        for (int d = 0; d < 200; d++) {
+            indice.estado(1L, HOY.plusDays(d));
+        }
+
+        // El descarte de Caffeine es asíncrono: se espera a que se estabilice
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (cargados(indice, 200) > 10 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(cargados(indice, 200) <= 10);
+    }
+
+    @Test
+    void unCambioDeHorarioDescartaLosDiasDeLaCancha() {
+        DisponibilidadIndex indice = indice(1000);
+        EstadoDia antes = indice.estado(1L, HOY);
+        indice.estado(2L, HOY);
+
+        indice.onHorarioCambiado(new HorarioCanchaCambiadoEvent(1L));
+
+        assertNull(indice.consultar(1L, HOY));
+        assertNotNull(indice.consultar(2L, HOY));
+        assertNotEquals(antes.version(), indice.estado(1L, HOY).version());
+    }
+
+    @Test
+    void invalidarVaciaElIndice() {
+        DisponibilidadIndex indice = indice(1000);
+        indice.estado(1L, HOY);
+        indice.invalidar();
+        assertNull(indice.consultar(1L, HOY));
+    }
+
+    private static int cargados(DisponibilidadIndex indice, int dias) {
+        int cargados = 0;
+        for (int d = 0; d < dias; d++) {
+            if (indice.consultar(1L, HOY.plusDays(d)) != null) {
+                cargados++;
+            }
+        }
+        return cargados;
+    }
+
+    // Canchas 1 y 2 en el catálogo; cada día tiene ocupado el slot de las 9
+    private DisponibilidadIndex indice(long maximo) {
+        ReservaRepository reservas = (ReservaRepository) Proxy.newProxyInstance(ReservaRepository.class.getClassLoader(),
+                new Class<?>[] { ReservaRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findHorariosByCanchaAndFecha")) {
+                        cargas.incrementAndGet();
+                        return List.of(new HorarioOcupado((Long) args[0], (LocalDate) args[1], NUEVE, LocalTime.of(10, 0)));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        List<Cancha> canchas = List.of(cancha(1L), cancha(2L));
+        CanchaRepository catalogo = (CanchaRepository) Proxy.newProxyInstance(CanchaRepository.class.getClassLoader(),
+                new Class<?>[] { CanchaRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll")) {
+                        return canchas;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new DisponibilidadIndex(reservas, new BloqueoSlots(), new CanchaService(catalogo, evento -> { }),
+                maximo, Duration.ofHours(1), 30);
+    }
+
+    private static Cancha cancha(Long id) {
+        Cancha cancha = new Cancha();
+        cancha.setId(id);
+        return cancha;
+    }
+}
@@ -0,0 +1,141 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.entity.Cancha;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrillaSlotsTest {
+
+    // 10 de marzo de 2025 es lunes
+    private static final LocalDate LUNES = LocalDate.of(2025, 3, 10);
+
+    private final GrillaSlots porDefecto = GrillaSlots.POR_DEFECTO;
+
+    @Test
+    void laGrillaPorDefectoVaDeOchoAVeinteEnSlotsDeUnaHora() {
+        assertEquals(12, porDefecto.getTotalSlots());
+        assertEquals(LocalTime.of(8, 0), porDefecto.getApertura());
+        assertEquals(LocalTime.of(20, 0), porDefecto.getCierre());
+        assertEquals(LocalTime.of(19, 0), porDefecto.getUltimoInicio());
+        assertEquals(0xFFFL, porDefecto.todos());
+        assertSame(porDefecto, GrillaSlots.de(new Cancha()));
+    }
+
+    @Test
+    void ubicaLosIniciosDeSlot() {
+        assertEquals(0, porDefecto.slot(LocalTime.of(8, 0)));
+        assertEquals(11, porDefecto.slot(LocalTime.of(19, 0)));
+        assertEquals(1L << 3, porDefecto.bit(LocalTime.of(11, 0)));
+        assertEquals(LocalTime.of(12, 0), porDefecto.fin(LocalTime.of(11, 0)));
+    }
+
+    @Test
+    void lasHorasFueraDeLaGrillaNoTienenSlot() {
+        assertEquals(-1, porDefecto.slot(LocalTime.of(7, 0)));
+        assertEquals(-1, porDefecto.slot(LocalTime.of(20, 0)));
+        assertEquals(-1, porDefecto.slot(LocalTime.of(9, 30)));
+        assertEquals(-1, porDefecto.slot(LocalTime.of(9, 0, 1)));
+        assertEquals(0L, porDefecto.bit(LocalTime.of(21, 0)));
+    }
+
+    @Test
+    void cubiertosDevuelveLosSlotsQuePisaElHorario() {
+        assertEquals(0b1L, porDefecto.cubiertos(LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        // 9:30 a 11:30 pisa los slots de 9, 10 y 11
+        assertEquals(0b1110L, porDefecto.cubiertos(LocalTime.of(9, 30), LocalTime.of(11, 30)));
+        // Se recorta a la grilla
+        assertEquals(0b11L, porDefecto.cubiertos(LocalTime.of(6, 0), LocalTime.of(10, 0)));
+        assertEquals(1L << 11, porDefecto.cubiertos(LocalTime.of(19, 0), LocalTime.MIDNIGHT));
+        assertEquals(0L, porDefecto.cubiertos(LocalTime.of(6, 0), LocalTime.of(8, 0)));
+        assertEquals(0L, porDefecto.cubiertos(LocalTime.of(20, 0), LocalTime.of(22, 0)));
+    }
+
+    @Test
+    void libresDeLaTablaPrecalculada() {
+        assertEquals(12, porDefecto.libres(0L).size());
+        assertEquals("08:00 - 09:00", porDefecto.libres(0L).get(0));
+        assertEquals(List.of(), porDefecto.libres(porDefecto.todos()));
+        long ocupados = porDefecto.todos() & ~porDefecto.bit(LocalTime.of(10, 0)) & ~porDefecto.bit(LocalTime.of(18, 0));
+        assertEquals(List.of("10:00 - 11:00", "18:00 - 19:00"), porDefecto.libres(ocupados));
+        assertSame(porDefecto.libres(ocupados), porDefecto.libres(ocupados));
+    }
+
+    @Test
+    void libresComoVistaConMasDeDoceSlots() {
+        GrillaSlots grilla = GrillaSlots.de(cancha(LocalTime.of(8, 0), LocalTime.of(12, 0), 15, null));
+        assertEquals(16, grilla.getTotalSlots());
+
+        List<String> libres = grilla.libres(grilla.todos() & ~0b1000_0000_0000_0101L);
+        assertEquals(List.of("08:00 - 08:15", "08:30 - 08:45", "11:45 - 12:00"), libres);
+        assertEquals(16, grilla.libres(0L).size());
+        assertEquals("11:45 - 12:00", grilla.libres(0L).get(15));
+        assertThrows(IndexOutOfBoundsException.class, () -> libres.get(3));
+        assertThrows(UnsupportedOperationException.class, () -> libres.add("x"));
+    }
+
+    @Test
+    void grillaDeSesentaYCuatroSlotsHastaMedianoche() {
+        GrillaSlots grilla = GrillaSlots.de(cancha(LocalTime.of(8, 0), LocalTime.MIDNIGHT, 15, null));
+        assertEquals(64, grilla.getTotalSlots());
+        assertEquals(-1L, grilla.todos());
+        assertEquals(1L << 63, grilla.bit(LocalTime.of(23, 45)));
+        assertEquals(64, grilla.libres(0L).size());
+    }
+
+    @Test
+    void losDiasCerradosNoTienenSlotsLibres() {
+        GrillaSlots grilla = GrillaSlots.de(cancha(null, null, null, " saturday, SUNDAY "));
+        assertTrue(grilla.abre(LUNES));
+        assertFalse(grilla.abre(LUNES.plusDays(5)));
+        assertFalse(grilla.abre(LUNES.plusDays(6)));
+        assertEquals(0L, grilla.cerrados(LUNES));
+        assertEquals(grilla.todos(), grilla.cerrados(LUNES.plusDays(6)));
+        assertNotSame(porDefecto, grilla);
+    }
+
+    @Test
+    void elMismoHorarioComparteInstancia() {
+        GrillaSlots a = GrillaSlots.de(cancha(LocalTime.of(7, 0), LocalTime.of(23, 0), 90, "SUNDAY"));
+        GrillaSlots b = GrillaSlots.de(cancha(LocalTime.of(7, 0), LocalTime.of(23, 0), 90, "SUNDAY"));
+        assertSame(a, b);
+        // El cierre efectivo es el fin del último slot completo: 7:00 + 10 * 90 minutos
+        assertEquals(10, a.getTotalSlots());
+        assertEquals(LocalTime.of(22, 0), a.getCierre());
+    }
+
+    @Test
+    void rechazaHorariosInvalidos() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GrillaSlots.de(cancha(LocalTime.of(10, 0), LocalTime.of(9, 0), 60, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> GrillaSlots.de(cancha(LocalTime.of(10, 0), LocalTime.of(10, 30), 60, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> GrillaSlots.de(cancha(LocalTime.of(8, 0), LocalTime.of(20, 0), 4, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> GrillaSlots.de(cancha(LocalTime.of(0, 0), LocalTime.of(20, 0), 15, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> GrillaSlots.de(cancha(LocalTime.of(8, 0, 30), LocalTime.of(20, 0), 60, null)));
+        assertThrows(IllegalArgumentException.class, () -> GrillaSlots.de(cancha(null, null, null, "FUNDAY")));
+        assertThrows(IllegalArgumentException.class, () -> GrillaSlots.de(cancha(null, null, null,
+                "MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY,SUNDAY")));
+    }
+
+    private static Cancha cancha(LocalTime apertura, LocalTime cierre, Integer duracion, String diasCerrados) {
+        Cancha cancha = new Cancha();
+        cancha.setHoraApertura(apertura);
+        cancha.setHoraCierre(cierre);
+        cancha.setDuracionSlotMinutos(duracion);
+        cancha.setDiasCerrados(diasCerrados);
+        return cancha;
+    }
+}
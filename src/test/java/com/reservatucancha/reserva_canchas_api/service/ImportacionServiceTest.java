@@ -0,0 +1,30 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImportacionServiceTest {
+
+    @Test
+    void separaPorComas() {
+        assertEquals(List.of("1", "Cancha Norte", "25000.0"), ImportacionService.campos("1,Cancha Norte,25000.0"));
+    }
+
+    @Test
+    void losCamposVaciosSonNull() {
+        assertEquals(Arrays.asList("1", null, "x", null), ImportacionService.campos("1,,x,"));
+        assertEquals(Arrays.asList((String) null), ImportacionService.campos(""));
+    }
+
+    @Test
+    void respetaLasComillas() {
+        assertEquals(List.of("Sector Norte, Cancha #1", "dice \"hola\""),
+                ImportacionService.campos("\"Sector Norte, Cancha #1\",\"dice \"\"hola\"\"\""));
+        // Las comillas pueden abarcar solo parte del campo
+        assertEquals(List.of("a,b c"), ImportacionService.campos("\"a,b\" c"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservaServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void serieConRepeticiones() {
+        assertEquals(List.of(INICIO, INICIO.plusDays(7), INICIO.plusDays(14)),
+                ReservaService.fechasDeSerie(INICIO, 7, null, 3));
+    }
+
+    @Test
+    void serieHastaUnaFechaLaIncluyeSiCae() {
+        assertEquals(List.of(INICIO, INICIO.plusDays(7), INICIO.plusDays(14)),
+                ReservaService.fechasDeSerie(INICIO, 7, INICIO.plusDays(14), null));
+        assertEquals(List.of(INICIO, INICIO.plusDays(7)),
+                ReservaService.fechasDeSerie(INICIO, 7, INICIO.plusDays(13), null));
+        assertEquals(List.of(INICIO), ReservaService.fechasDeSerie(INICIO, 1, INICIO, null));
+    }
+
+    @Test
+    void rechazaSeriesMalIndicadas() {
+        assertThrows(IllegalArgumentException.class, () -> ReservaService.fechasDeSerie(null, 7, null, 3));
+        assertThrows(IllegalArgumentException.class, () -> ReservaService.fechasDeSerie(INICIO, 7, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ReservaService.fechasDeSerie(INICIO, 7, INICIO.plusDays(7), 2));
+        assertThrows(IllegalArgumentException.class, () -> ReservaService.fechasDeSerie(INICIO, 7, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> ReservaService.fechasDeSerie(INICIO, 7, INICIO.minusDays(1), null));
+    }
+
+    @Test
+    void noPasaDelMaximoPorLote() {
+        assertEquals(ReservaService.MAXIMO_POR_LOTE,
+                ReservaService.fechasDeSerie(INICIO, 1, null, ReservaService.MAXIMO_POR_LOTE).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservaService.fechasDeSerie(INICIO, 1, null, ReservaService.MAXIMO_POR_LOTE + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservaService.fechasDeSerie(INICIO, 1, INICIO.plusDays(ReservaService.MAXIMO_POR_LOTE), null));
+    }
+}
@@ -0,0 +1,188 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import com.reservatucancha.reserva_canchas_api.exception.RetencionVencidaException;
+import com.reservatucancha.reserva_canchas_api.exception.SlotNoDisponibleException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetencionSlotsTest {
+
+    private static final Long CANCHA = 1L;
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 10);
+    private static final LocalTime NUEVE = LocalTime.of(9, 0);
+    private static final LocalTime DIEZ = LocalTime.of(10, 0);
+
+    // Slots reservados "en la base": el índice de prueba solo mira este conjunto
+    private final Set<LocalTime> reservados = ConcurrentHashMap.newKeySet();
+    private final List<SlotCambiadoEvent> eventos = new CopyOnWriteArrayList<>();
+
+    private RetencionSlots retenciones;
+
+    @BeforeEach
+    void crear() {
+        BloqueoSlots bloqueo = new BloqueoSlots();
+        DisponibilidadIndex indice = new DisponibilidadIndex(null, bloqueo, null, 1000, Duration.ofHours(1), 365) {
+            @Override
+            public GrillaSlots grilla(Long canchaId) {
+                return GrillaSlots.POR_DEFECTO;
+            }
+
+            @Override
+            public boolean estaOcupado(Long canchaId, LocalDate fecha, LocalTime horaInicio) {
+                return reservados.contains(horaInicio);
+            }
+
+            @Override
+            public void marcarCambio(Long canchaId, LocalDate fecha) {
+            }
+        };
+        retenciones = new RetencionSlots(bloqueo, indice, evento -> eventos.add((SlotCambiadoEvent) evento),
+                100, 2, Duration.ofMillis(50), Duration.ofMinutes(1), Duration.ofMillis(10), 64);
+    }
+
+    @Test
+    void retenerOcupaElSlotYLoAnuncia() {
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+
+        assertEquals(GrillaSlots.POR_DEFECTO.bit(NUEVE), retenciones.mascara(CANCHA, FECHA));
+        assertTrue(retenciones.estaRetenido(CANCHA, FECHA, NUEVE));
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA, DIEZ));
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA.plusDays(1), NUEVE));
+        assertEquals(1, retenciones.activas());
+        assertEquals(List.of(new SlotCambiadoEvent(CANCHA, FECHA, NUEVE, true)), eventos);
+    }
+
+    @Test
+    void noSeRetieneUnSlotRetenidoOReservado() {
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+        reservados.add(DIEZ);
+
+        assertThrows(SlotNoDisponibleException.class,
+                () -> retenciones.retener("beto", 2L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1)));
+        assertThrows(SlotNoDisponibleException.class,
+                () -> retenciones.retener("beto", 2L, CANCHA, FECHA, DIEZ, Duration.ofMinutes(1)));
+        assertEquals(1, retenciones.activas());
+    }
+
+    @Test
+    void rechazaHorariosFueraDeLaGrillaYDuracionesInvalidas() {
+        assertThrows(IllegalArgumentException.class,
+                () -> retenciones.retener("ana", 1L, CANCHA, FECHA, LocalTime.of(9, 30), Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ZERO));
+        assertEquals(0, retenciones.activas());
+    }
+
+    @Test
+    void limitaLasRetencionesPorUsuario() {
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+        retenciones.retener("ana", 1L, CANCHA, FECHA.plusDays(1), NUEVE, Duration.ofMinutes(1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> retenciones.retener("ana", 1L, CANCHA, FECHA, DIEZ, Duration.ofMinutes(1)));
+        // El rechazo no deja el slot tomado ni cuenta para otros usuarios
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA, DIEZ));
+        retenciones.retener("beto", 2L, CANCHA, FECHA, DIEZ, Duration.ofMinutes(1));
+        assertEquals(3, retenciones.activas());
+    }
+
+    @Test
+    void cancelarLiberaElSlotYElCupo() {
+        RetencionSlots.Retencion retencion = retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+
+        assertThrows(RetencionVencidaException.class, () -> retenciones.cancelar(retencion.getId(), "beto"));
+        assertTrue(retenciones.cancelar(retencion.getId(), "ana"));
+
+        assertEquals(0L, retenciones.mascara(CANCHA, FECHA));
+        assertTrue(retenciones.sinRetenciones());
+        assertEquals(new SlotCambiadoEvent(CANCHA, FECHA, NUEVE, false), eventos.get(eventos.size() - 1));
+        assertThrows(RetencionVencidaException.class, () -> retenciones.buscar(retencion.getId(), "ana"));
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+        retenciones.retener("ana", 1L, CANCHA, FECHA, DIEZ, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void vencenSolasAlPasarSuTiempo() throws InterruptedException {
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, null);
+        RetencionSlots.Retencion larga = retenciones.retener("beto", 2L, CANCHA, FECHA, DIEZ, Duration.ofMinutes(1));
+
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (retenciones.estaRetenido(CANCHA, FECHA, NUEVE) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            retenciones.vencerPendientes();
+        }
+
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA, NUEVE));
+        assertTrue(retenciones.estaRetenido(CANCHA, FECHA, DIEZ));
+        assertEquals(1, retenciones.activas());
+        assertSame(larga, retenciones.buscar(larga.getId(), "beto"));
+    }
+
+    @Test
+    void soloElDuenoVeSuRetencion() {
+        RetencionSlots.Retencion retencion = retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+
+        assertSame(retencion, retenciones.buscar(retencion.getId(), "ana"));
+        assertThrows(RetencionVencidaException.class, () -> retenciones.buscar(retencion.getId(), "beto"));
+        assertSame(retencion, retenciones.retenidoPor("ana", CANCHA, FECHA, NUEVE));
+        assertNull(retenciones.retenidoPor("beto", CANCHA, FECHA, NUEVE));
+        assertNull(retenciones.retenidoPor("ana", CANCHA, FECHA, DIEZ));
+        assertNull(retenciones.retenidoPor("ana", CANCHA, FECHA, LocalTime.of(9, 30)));
+    }
+
+    @Test
+    void unaRetencionReclamadaYaNoVence() throws InterruptedException {
+        RetencionSlots.Retencion retencion = retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMillis(200));
+        retenciones.reclamar(retencion);
+
+        // Ni cancelar ni vencer la quitan: el slot sigue tomado hasta que se la suelte
+        assertFalse(retenciones.cancelar(retencion.getId(), "ana"));
+        Thread.sleep(250);
+        retenciones.vencerPendientes();
+        assertTrue(retenciones.estaRetenido(CANCHA, FECHA, NUEVE));
+
+        int anunciados = eventos.size();
+        retenciones.soltar(retencion, false);
+        assertTrue(retenciones.sinRetenciones());
+        assertEquals(anunciados, eventos.size());
+    }
+
+    @Test
+    void noSeReclamaUnaRetencionVencida() throws InterruptedException {
+        RetencionSlots.Retencion retencion = retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMillis(20));
+        Thread.sleep(40);
+
+        // Aunque la rueda todavía no haya pasado, reclamar la da por vencida y la suelta
+        assertThrows(RetencionVencidaException.class, () -> retenciones.reclamar(retencion));
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA, NUEVE));
+        assertEquals(0, retenciones.activas());
+    }
+
+    @Test
+    void unCambioDeHorarioCancelaLasRetencionesDeLaCancha() {
+        retenciones.retener("ana", 1L, CANCHA, FECHA, NUEVE, Duration.ofMinutes(1));
+        retenciones.retener("beto", 2L, 2L, FECHA, NUEVE, Duration.ofMinutes(1));
+
+        retenciones.onHorarioCambiado(new HorarioCanchaCambiadoEvent(CANCHA));
+
+        assertFalse(retenciones.estaRetenido(CANCHA, FECHA, NUEVE));
+        assertTrue(retenciones.estaRetenido(2L, FECHA, NUEVE));
+    }
+}
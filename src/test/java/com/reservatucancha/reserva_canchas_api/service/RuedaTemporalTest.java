@@ -0,0 +1,106 @@
+package com.reservatucancha.reserva_canchas_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuedaTemporalTest {
+
+    // Tiempo simulado: la rueda nunca lee el reloj, recibe el instante en cada llamada
+    private static final long TICK = 1_000;
+    private static final long INICIO = 5_000_000;
+
+    @Test
+    void venceEnSuTickYNoAntes() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 8, INICIO);
+        AtomicInteger vencidos = new AtomicInteger();
+        rueda.programar(INICIO + 3 * TICK, vencidos::incrementAndGet);
+
+        assertEquals(0, rueda.avanzar(INICIO + 2 * TICK));
+        assertEquals(0, vencidos.get());
+        assertEquals(1, rueda.avanzar(INICIO + 3 * TICK));
+        assertEquals(1, vencidos.get());
+        // Nunca vence dos veces
+        assertEquals(0, rueda.avanzar(INICIO + 100 * TICK));
+        assertEquals(1, vencidos.get());
+    }
+
+    @Test
+    void unVencimientoEntreTicksSeRedondeaHaciaArriba() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 8, INICIO);
+        AtomicInteger vencidos = new AtomicInteger();
+        rueda.programar(INICIO + 2 * TICK + 1, vencidos::incrementAndGet);
+
+        assertEquals(0, rueda.avanzar(INICIO + 2 * TICK + TICK / 2));
+        assertEquals(1, rueda.avanzar(INICIO + 3 * TICK));
+    }
+
+    @Test
+    void elCanceladoNoVence() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 8, INICIO);
+        AtomicInteger vencidos = new AtomicInteger();
+        RuedaTemporal.Temporizador cancelado = rueda.programar(INICIO + 2 * TICK, vencidos::incrementAndGet);
+        rueda.programar(INICIO + 2 * TICK, vencidos::incrementAndGet);
+        rueda.avanzar(INICIO);
+
+        assertTrue(cancelado.cancelar());
+        assertFalse(cancelado.cancelar());
+        assertEquals(1, rueda.avanzar(INICIO + 5 * TICK));
+        assertEquals(1, vencidos.get());
+    }
+
+    @Test
+    void noSePuedeCancelarUnoYaVencido() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 8, INICIO);
+        RuedaTemporal.Temporizador temporizador = rueda.programar(INICIO + TICK, () -> { });
+        assertEquals(1, rueda.avanzar(INICIO + TICK));
+        assertFalse(temporizador.cancelar());
+    }
+
+    @Test
+    void unVencimientoLejanoDaVariasVueltas() {
+        // 4 ranuras: el tick 10 cae en la ranura 2, que se recorre en los ticks 2 y 6 antes
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 4, INICIO);
+        List<Long> vencidos = new ArrayList<>();
+        rueda.programar(INICIO + 10 * TICK, () -> vencidos.add(10L));
+        rueda.programar(INICIO + 2 * TICK, () -> vencidos.add(2L));
+
+        for (long t = 0; t < 10; t++) {
+            rueda.avanzar(INICIO + t * TICK);
+        }
+        assertEquals(List.of(2L), vencidos);
+        rueda.avanzar(INICIO + 10 * TICK);
+        assertEquals(List.of(2L, 10L), vencidos);
+    }
+
+    @Test
+    void unoYaVencidoVenceEnElTickSiguiente() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 8, INICIO);
+        rueda.avanzar(INICIO + 20 * TICK);
+        AtomicInteger vencidos = new AtomicInteger();
+        rueda.programar(INICIO + 5 * TICK, vencidos::incrementAndGet);
+
+        // El tick 20 ya se procesó: va a la ranura del 21, no a la del 5 (que daría una vuelta)
+        assertEquals(0, rueda.avanzar(INICIO + 20 * TICK));
+        assertEquals(1, rueda.avanzar(INICIO + 21 * TICK));
+        assertEquals(1, vencidos.get());
+    }
+
+    @Test
+    void saltarMuchosTicksVenceTodoLoPendiente() {
+        RuedaTemporal rueda = new RuedaTemporal(TICK, 16, INICIO);
+        AtomicInteger vencidos = new AtomicInteger();
+        for (int i = 1; i <= 100; i++) {
+            rueda.programar(INICIO + i * TICK, vencidos::incrementAndGet);
+        }
+        assertEquals(50, rueda.avanzar(INICIO + 50 * TICK));
+        assertEquals(50, rueda.avanzar(INICIO + 1_000 * TICK));
+        assertEquals(100, vencidos.get());
+    }
+}